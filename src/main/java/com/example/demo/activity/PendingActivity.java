@@ -0,0 +1,43 @@
+package com.example.demo.activity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Login activity of one user not yet written to {@code app_user}, already folded into the
+ * single update it will become.
+ *
+ * @param resetFailures whether a successful login happened, which restarts the failure count
+ * @param failedDelta   failures since the last successful login in this window, or since the
+ *                      window began if there was none
+ * @param events        logins folded into this update, for the coalescing metrics
+ */
+record PendingActivity(
+        LocalDateTime lastLoginAt,
+        String lastLoginIp,
+        boolean resetFailures,
+        int failedDelta,
+        LocalDateTime lastFailedAt,
+        int events
+) {
+
+    static PendingActivity success(LocalDateTime at, String ipAddress) {
+        return new PendingActivity(at, ipAddress, true, 0, null, 1);
+    }
+
+    static PendingActivity failure(LocalDateTime at) {
+        return new PendingActivity(null, null, false, 1, at, 1);
+    }
+
+    /**
+     * Combines this activity with activity that happened after it.
+     */
+    PendingActivity then(PendingActivity later) {
+        return new PendingActivity(
+                later.lastLoginAt != null ? later.lastLoginAt : lastLoginAt,
+                later.lastLoginAt != null ? later.lastLoginIp : lastLoginIp,
+                resetFailures || later.resetFailures,
+                later.resetFailures ? later.failedDelta : failedDelta + later.failedDelta,
+                later.lastFailedAt != null ? later.lastFailedAt : lastFailedAt,
+                events + later.events);
+    }
+}
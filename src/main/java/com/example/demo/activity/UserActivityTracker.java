@@ -0,0 +1,222 @@
+package com.example.demo.activity;
+
+import com.example.demo.config.properties.ActivityTrackingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind tracking of last login, last IP and failed login counts.
+ * <p>
+ * Logins only merge into a per-user {@link PendingActivity} in memory, so however often a user
+ * logs in, the row is written at most once per flush interval. Each flush is one
+ * {@code UPDATE ... FROM unnest(...)} per batch that sets only the activity columns: no
+ * {@code version} bump, no {@code updated_at}/{@code updated_by}, and so no optimistic-lock
+ * conflict with profile edits, no audit event and no cache eviction. A crash loses at most one
+ * flush interval; a failed flush is merged back and retried with the next one.
+ */
+@Component
+public class UserActivityTracker implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityTracker.class);
+
+    private static final String FLUSH_SQL = "UPDATE app_user AS u SET "
+            + "last_login_at = coalesce(v.last_login_at, u.last_login_at), "
+            + "last_login_ip = coalesce(v.last_login_ip, u.last_login_ip), "
+            + "failed_login_count = CASE WHEN v.reset_failures THEN 0 ELSE coalesce(u.failed_login_count, 0) END + v.failed_delta, "
+            + "last_failed_login_at = coalesce(v.last_failed_at, u.last_failed_login_at) "
+            + "FROM unnest(?::uuid[], ?::timestamp[], ?::text[], ?::boolean[], ?::int[], ?::timestamp[]) "
+            + "AS v(id, last_login_at, last_login_ip, reset_failures, failed_delta, last_failed_at) "
+            + "WHERE u.id = v.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityTrackingProperties properties;
+    private final ConcurrentHashMap<UUID, PendingActivity> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rowsWritten;
+    private final Counter writesSaved;
+    private final Counter flushFailures;
+    private final Timer flushDuration;
+
+    private volatile boolean running;
+
+    public UserActivityTracker(JdbcTemplate jdbcTemplate,
+                               ActivityTrackingProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.successes = Counter.builder("activity.events").tag("type", "login").register(meterRegistry);
+        this.failures = Counter.builder("activity.events").tag("type", "failed_login").register(meterRegistry);
+        this.rowsWritten = Counter.builder("activity.rows.written")
+                .description("app_user rows updated by activity flushes")
+                .register(meterRegistry);
+        this.writesSaved = Counter.builder("activity.writes.saved")
+                .description("Row updates avoided by coalescing: events flushed minus rows written")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("activity.flush.failures").register(meterRegistry);
+        this.flushDuration = Timer.builder("activity.flush.duration").register(meterRegistry);
+        Gauge.builder("activity.pending.users", pending, Map::size)
+                .description("Users with activity waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    public void loginSucceeded(UUID userId, String ipAddress) {
+        if (properties.isEnabled()) {
+            pending.merge(userId, PendingActivity.success(LocalDateTime.now(), ipAddress), PendingActivity::then);
+            successes.increment();
+        }
+    }
+
+    public void loginFailed(UUID userId) {
+        if (properties.isEnabled()) {
+            pending.merge(userId, PendingActivity.failure(LocalDateTime.now()), PendingActivity::then);
+            failures.increment();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.users.activity.flush-interval:PT5S}",
+            fixedDelayString = "${app.users.activity.flush-interval:PT5S}")
+    public void scheduledFlush() {
+        if (running) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything pending.
+     *
+     * @return rows updated, or 0 if a flush is already running in this instance
+     */
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        try {
+            List<Map.Entry<UUID, PendingActivity>> drained = drain();
+            // Fixed lock order, so concurrent flushes on several instances cannot deadlock.
+            drained.sort(Map.Entry.comparingByKey());
+            int written = 0;
+            for (int from = 0; from < drained.size(); from += properties.getBatchSize()) {
+                List<Map.Entry<UUID, PendingActivity>> batch =
+                        drained.subList(from, Math.min(drained.size(), from + properties.getBatchSize()));
+                try {
+                    written += write(batch);
+                    int events = batch.stream().mapToInt(entry -> entry.getValue().events()).sum();
+                    writesSaved.increment(events - batch.size());
+                } catch (DataAccessException e) {
+                    flushFailures.increment();
+                    logger.warn("Activity flush of {} users failed, retrying with the next flush", batch.size(), e);
+                    requeue(batch);
+                }
+            }
+            rowsWritten.increment(written);
+            return written;
+        } finally {
+            flushDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            flushLock.unlock();
+        }
+    }
+
+    private List<Map.Entry<UUID, PendingActivity>> drain() {
+        List<Map.Entry<UUID, PendingActivity>> drained = new ArrayList<>(pending.size());
+        for (UUID userId : pending.keySet()) {
+            // remove() is atomic with merge(): activity arriving now starts a fresh entry.
+            PendingActivity activity = pending.remove(userId);
+            if (activity != null) {
+                drained.add(Map.entry(userId, activity));
+            }
+        }
+        return drained;
+    }
+
+    private int write(List<Map.Entry<UUID, PendingActivity>> batch) {
+        int size = batch.size();
+        UUID[] ids = new UUID[size];
+        Timestamp[] lastLoginAt = new Timestamp[size];
+        String[] lastLoginIp = new String[size];
+        Boolean[] resetFailures = new Boolean[size];
+        Integer[] failedDelta = new Integer[size];
+        Timestamp[] lastFailedAt = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            PendingActivity activity = batch.get(i).getValue();
+            ids[i] = batch.get(i).getKey();
+            lastLoginAt[i] = activity.lastLoginAt() == null ? null : Timestamp.valueOf(activity.lastLoginAt());
+            lastLoginIp[i] = activity.lastLoginIp();
+            resetFailures[i] = activity.resetFailures();
+            failedDelta[i] = activity.failedDelta();
+            lastFailedAt[i] = activity.lastFailedAt() == null ? null : Timestamp.valueOf(activity.lastFailedAt());
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FLUSH_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(2, connection.createArrayOf("timestamp", lastLoginAt));
+            statement.setArray(3, connection.createArrayOf("text", lastLoginIp));
+            statement.setArray(4, connection.createArrayOf("bool", resetFailures));
+            statement.setArray(5, connection.createArrayOf("int4", failedDelta));
+            statement.setArray(6, connection.createArrayOf("timestamp", lastFailedAt));
+            return statement;
+        });
+    }
+
+    private void requeue(List<Map.Entry<UUID, PendingActivity>> batch) {
+        for (Map.Entry<UUID, PendingActivity> entry : batch) {
+            // What arrived since the drain happened later than the failed entry.
+            pending.merge(entry.getKey(), entry.getValue(), (newer, failed) -> failed.then(newer));
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Writes what is still pending, so a clean shutdown loses nothing.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (properties.isEnabled()) {
+            // Waits for a scheduled flush in progress; flush() re-enters the lock.
+            flushLock.lock();
+            try {
+                flush();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the embedded web server, so logins still in flight are flushed.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.audit;
+
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    SOFT_DELETE
+}
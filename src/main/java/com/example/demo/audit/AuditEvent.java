@@ -0,0 +1,21 @@
+package com.example.demo.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One committed entity change.
+ *
+ * @param oldVersion optimistic-lock version before the change, null on create
+ * @param newVersion version after the change, null if it is not known
+ */
+public record AuditEvent(
+        String entityType,
+        UUID entityId,
+        AuditAction action,
+        String actor,
+        Long oldVersion,
+        Long newVersion,
+        Instant occurredAt
+) {
+}
@@ -0,0 +1,117 @@
+package com.example.demo.audit;
+
+import com.example.demo.common.concurrent.BoundedMpscQueue;
+import com.example.demo.config.properties.AuditProperties;
+import com.example.demo.model.entity.base.BaseEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entry point of the audit pipeline.
+ * <p>
+ * Entity callbacks hand their change here; it is queued only once the surrounding transaction
+ * commits, so rolled-back changes are never audited and the request thread does no I/O. When
+ * the bounded queue is full the configured {@link AuditProperties.Backpressure} policy applies.
+ */
+@Component
+public class AuditEventPublisher {
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final BoundedMpscQueue<AuditEvent> queue;
+    private final AuditProperties properties;
+    private final AuditorAware<String> auditorAware;
+    private final AuditSpillFile spillFile;
+    private final Counter dropped;
+    private final Counter spilled;
+
+    public AuditEventPublisher(AuditProperties properties,
+                               AuditorAware<String> auditorAware,
+                               AuditSpillFile spillFile,
+                               MeterRegistry meterRegistry) {
+        this.queue = new BoundedMpscQueue<>(properties.getQueueCapacity());
+        this.properties = properties;
+        this.auditorAware = auditorAware;
+        this.spillFile = spillFile;
+        this.dropped = Counter.builder("audit.events").tag("outcome", "dropped").register(meterRegistry);
+        this.spilled = Counter.builder("audit.events").tag("outcome", "spilled").register(meterRegistry);
+        Gauge.builder("audit.queue.depth", queue, BoundedMpscQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a change to the given entity, attributed to the current auditor.
+     */
+    public void entityChanged(BaseEntity entity, AuditAction action, Long oldVersion, Long newVersion) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(
+                entity.getClass().getSimpleName(),
+                entity.getId(),
+                action,
+                auditorAware.getCurrentAuditor().orElse(null),
+                oldVersion,
+                newVersion,
+                Instant.now());
+        publish(event);
+    }
+
+    public void publish(AuditEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    AuditEvent poll() {
+        return queue.poll();
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (properties.getBackpressure()) {
+            case DROP -> dropped.increment();
+            case SPILL -> {
+                if (spillFile.append(List.of(event))) {
+                    spilled.increment();
+                } else {
+                    dropped.increment();
+                }
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + properties.getBlockTimeout().toNanos();
+                while (!queue.offer(event)) {
+                    if (System.nanoTime() - deadline > 0) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+        }
+    }
+}
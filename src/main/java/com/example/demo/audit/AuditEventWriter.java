@@ -0,0 +1,168 @@
+package com.example.demo.audit;
+
+import com.example.demo.config.properties.AuditProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer that drains {@link AuditEventPublisher}'s queue into the
+ * {@code audit_event} table using JDBC batch inserts.
+ * <p>
+ * A single daemon thread owns the consumer side of the queue. Batches that fail to insert
+ * are spilled to {@link AuditSpillFile} and replayed on the next start.
+ */
+@Component
+public class AuditEventWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditEventWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_event "
+            + "(entity_type, entity_id, action, actor, old_version, new_version, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final AuditEventPublisher publisher;
+    private final AuditSpillFile spillFile;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditProperties properties;
+    private final Timer flushLatency;
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter lost;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AuditEventWriter(AuditEventPublisher publisher,
+                            AuditSpillFile spillFile,
+                            JdbcTemplate jdbcTemplate,
+                            AuditProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.publisher = publisher;
+        this.spillFile = spillFile;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.flushLatency = Timer.builder("audit.flush.latency")
+                .description("Time to write one batch of audit events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.events").tag("outcome", "written").register(meterRegistry);
+        this.spilled = Counter.builder("audit.events").tag("outcome", "spilled").register(meterRegistry);
+        this.lost = Counter.builder("audit.events").tag("outcome", "dropped").register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        replaySpilled();
+        running = true;
+        thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before and stop after the embedded web server, so in-flight requests can still audit.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        int batchSize = properties.getBatchSize();
+        long idleNanos = properties.getFlushInterval().toNanos();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || publisher.queueDepth() > 0) {
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = publisher.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(idleNanos);
+                continue;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        long started = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setString(1, event.entityType());
+                ps.setObject(2, event.entityId());
+                ps.setString(3, event.action().name());
+                ps.setString(4, event.actor());
+                setNullableLong(ps, 5, event.oldVersion());
+                setNullableLong(ps, 6, event.newVersion());
+                ps.setTimestamp(7, Timestamp.from(event.occurredAt()));
+            });
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            logger.error("Audit batch of {} events failed, spilling to disk", batch.size(), e);
+            if (spillFile.append(batch)) {
+                spilled.increment(batch.size());
+            } else {
+                lost.increment(batch.size());
+            }
+        } finally {
+            flushLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void replaySpilled() {
+        List<AuditEvent> spilledEvents = spillFile.drain();
+        if (spilledEvents.isEmpty()) {
+            return;
+        }
+        logger.info("Replaying {} spilled audit events", spilledEvents.size());
+        int batchSize = properties.getBatchSize();
+        for (int from = 0; from < spilledEvents.size(); from += batchSize) {
+            flush(spilledEvents.subList(from, Math.min(from + batchSize, spilledEvents.size())));
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.audit;
+
+import com.example.demo.config.properties.AuditProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local NDJSON overflow for audit events that could not be queued or written.
+ * Spilled events are replayed into the audit table on the next startup.
+ */
+@Component
+public class AuditSpillFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpillFile.class);
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    // ReentrantLock rather than synchronized: appends block on disk I/O.
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    public AuditSpillFile(AuditProperties properties, ObjectMapper objectMapper) {
+        this.path = properties.getSpillPath();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return true if all events were written to disk
+     */
+    public boolean append(Collection<AuditEvent> events) {
+        lock.lock();
+        try {
+            if (writer == null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (AuditEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            logger.error("Could not spill {} audit events to {}", events.size(), path, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads back every spilled event and removes the file.
+     */
+    public List<AuditEvent> drain() {
+        lock.lock();
+        try {
+            closeWriter();
+            if (!Files.isRegularFile(path)) {
+                return List.of();
+            }
+            List<AuditEvent> events = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        events.add(objectMapper.readValue(line, AuditEvent.class));
+                    }
+                }
+            }
+            Files.delete(path);
+            return events;
+        } catch (IOException e) {
+            logger.error("Could not replay spilled audit events from {}", path, e);
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
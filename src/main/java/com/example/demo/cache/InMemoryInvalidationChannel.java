@@ -0,0 +1,23 @@
+package com.example.demo.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationChannel} that only reaches subscribers in this JVM.
+ */
+public class InMemoryInvalidationChannel implements InvalidationChannel {
+
+    private final List<Consumer<UserInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(UserInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
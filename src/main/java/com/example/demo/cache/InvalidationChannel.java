@@ -0,0 +1,23 @@
+package com.example.demo.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations between application instances.
+ */
+public interface InvalidationChannel {
+
+    /**
+     * Sends the invalidation to all instances, possibly including this one. Must not block.
+     */
+    void publish(UserInvalidation invalidation);
+
+    void subscribe(Consumer<UserInvalidation> listener);
+
+    /**
+     * Registers a callback for when invalidations may have been missed (e.g. after a
+     * reconnect); subscribers should then drop everything they cached.
+     */
+    default void onGap(Runnable listener) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationChannel} over Postgres {@code LISTEN/NOTIFY}, so no extra infrastructure is
+ * needed to keep several instances' caches coherent.
+ * <p>
+ * Listening and sending each hold one dedicated connection opened outside the pool, reopened
+ * after a failure. Notifications go through a bounded queue to a single background thread, so
+ * callers never block and a notification is never tied to an unrelated transaction. When the
+ * queue overflows or a send fails, the queued messages are dropped and replaced by one
+ * {@value #CLEAR_ALL} notification, on which every instance runs its {@link #onGap(Runnable)}
+ * callbacks. Messages lost while the listener is disconnected are reported the same way.
+ */
+public class PostgresInvalidationChannel implements InvalidationChannel, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationChannel.class);
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    static final String CLEAR_ALL = "*";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final List<Consumer<UserInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> gapListeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> outbound;
+    // Set when queued or sent messages were lost; the sender then broadcasts CLEAR_ALL.
+    private final AtomicBoolean dropped = new AtomicBoolean();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+    private Thread senderThread;
+
+    public PostgresInvalidationChannel(String url, String username, String password, String channel,
+                                       Duration reconnectDelay, int queueCapacity) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notify channel name: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void publish(UserInvalidation invalidation) {
+        String payload = invalidation.origin() + "|" + invalidation.userId() + "|" + invalidation.version()
+                + "|" + (invalidation.username() == null ? "" : invalidation.username());
+        if (!outbound.offer(payload) && !dropped.getAndSet(true)) {
+            logger.warn("User cache invalidation queue is full, other instances will clear their caches");
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onGap(Runnable listener) {
+        gapListeners.add(listener);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "user-cache-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        senderThread = new Thread(this::sendLoop, "user-cache-notify");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    @Override
+    public void stop() {
+        // The sender drains what is queued, then exits.
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void sendLoop() {
+        Connection connection = null;
+        try {
+            while (running || !outbound.isEmpty()) {
+                String payload;
+                try {
+                    payload = outbound.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (payload == null && !dropped.get()) {
+                    continue;
+                }
+                try {
+                    if (connection == null) {
+                        connection = DriverManager.getConnection(url, username, password);
+                    }
+                    if (dropped.getAndSet(false)) {
+                        // Everything queued so far is covered by the clear, including this payload.
+                        outbound.clear();
+                        notify(connection, CLEAR_ALL);
+                    } else {
+                        notify(connection, payload);
+                    }
+                } catch (SQLException e) {
+                    logger.warn("Could not publish user cache invalidation, retrying in {}: {}", reconnectDelay, e.getMessage());
+                    dropped.set(true);
+                    close(connection);
+                    connection = null;
+                    sleep(reconnectDelay);
+                }
+            }
+        } finally {
+            close(connection);
+        }
+    }
+
+    private void notify(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        }
+    }
+
+    private void listenLoop() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    // Anything sent while we were away is lost.
+                    gapListeners.forEach(Runnable::run);
+                }
+                connectedBefore = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("User cache listener disconnected, retrying in {}: {}", reconnectDelay, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        if (CLEAR_ALL.equals(payload)) {
+            logger.warn("Another instance lost cache invalidations, clearing the user cache");
+            gapListeners.forEach(Runnable::run);
+            return;
+        }
+        String[] parts = payload.split("\\|", 4);
+        if (parts.length != 4) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        UserInvalidation invalidation;
+        try {
+            invalidation = new UserInvalidation(parts[0], UUID.fromString(parts[1]), Long.parseLong(parts[2]),
+                    parts[3].isEmpty() ? null : parts[3]);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        for (Consumer<UserInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                logger.warn("User cache invalidation listener failed", e);
+            }
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Could not close notify connection: {}", e.getMessage());
+        }
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
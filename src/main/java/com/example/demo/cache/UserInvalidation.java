@@ -0,0 +1,12 @@
+package com.example.demo.cache;
+
+import java.util.UUID;
+
+/**
+ * Tells every instance that a user changed.
+ *
+ * @param origin  id of the instance that made the change
+ * @param version the user's version after the change; cached copies older than this are stale
+ */
+public record UserInvalidation(String origin, UUID userId, long version, String username) {
+}
@@ -0,0 +1,228 @@
+package com.example.demo.cache;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.UserCacheProperties;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for {@link UserRepository} lookups by id and by username.
+ * <p>
+ * Entries are immutable {@link UserSnapshot}s keyed by id, with username-to-id and
+ * login-identifier-to-id indexes beside them. Every committed change to a user evicts it here and, through the
+ * {@link InvalidationChannel}, on every other instance. Each invalidation also leaves a
+ * version floor behind, so a lookup that read the row just before the change cannot put the
+ * older version back afterwards. Soft-deleted users are filtered by the repository and are
+ * never cached.
+ */
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final InvalidationChannel channel;
+    private final AuthMetrics authMetrics;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Cache<UUID, UserSnapshot> byId;
+    private final Cache<String, UUID> idByUsername;
+    private final Cache<String, UUID> idByLogin;
+    private final Cache<UUID, Long> versionFloor;
+
+    public UserLookupCache(UserRepository userRepository,
+                           InvalidationChannel channel,
+                           UserCacheProperties properties,
+                           AuthMetrics authMetrics,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.channel = channel;
+        this.authMetrics = authMetrics;
+        // Disabled means every lookup goes to the database, through the same code path.
+        long maximumSize = properties.isEnabled() ? properties.getMaximumSize() : 0;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.idByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.idByLogin = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        // Floors only need to outlive entries that were loaded before the change.
+        this.versionFloor = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(properties.getTtl())
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByLogin, "users.by-login");
+        Gauge.builder("user.cache.hit.ratio", byId, cache -> cache.stats().hitRate())
+                .description("Share of user lookups served from the cache")
+                .register(meterRegistry);
+
+        channel.subscribe(invalidation -> {
+            if (!instanceId.equals(invalidation.origin())) {
+                evict(invalidation.userId(), invalidation.version(), invalidation.username());
+            }
+        });
+        channel.onGap(this::clear);
+    }
+
+    /**
+     * @return a detached copy of the live user; callers may modify it freely
+     */
+    public Optional<UserEntity> findById(UUID id) {
+        long started = authMetrics.start();
+        UserSnapshot cached = byId.getIfPresent(id);
+        if (cached != null) {
+            authMetrics.recordUserLookup(started, true);
+            return Optional.of(cached.toEntity());
+        }
+        return load(() -> userRepository.findById(id), started);
+    }
+
+    /**
+     * Current version of a live user, for conditional requests: read from the cached snapshot
+     * when there is one, otherwise with a version-only query. Never loads or caches the entity.
+     */
+    public Optional<Long> findVersion(UUID id) {
+        long started = authMetrics.start();
+        UserSnapshot cached = byId.getIfPresent(id);
+        if (cached != null) {
+            authMetrics.recordUserLookup(started, true);
+            return Optional.of(cached.versionOrZero());
+        }
+        Optional<Long> version = userRepository.findVersionById(id);
+        authMetrics.recordUserLookup(started, false);
+        return version;
+    }
+
+    /**
+     * @return a detached copy of the live user; callers may modify it freely
+     */
+    public Optional<UserEntity> findByUsername(String username) {
+        long started = authMetrics.start();
+        UUID id = idByUsername.getIfPresent(username);
+        if (id != null) {
+            UserSnapshot cached = byId.getIfPresent(id);
+            // The index may point at a user who has since been renamed.
+            if (cached != null && cached.username().equals(username)) {
+                authMetrics.recordUserLookup(started, true);
+                return Optional.of(cached.toEntity());
+            }
+        }
+        return load(() -> userRepository.findByUsername(username), started);
+    }
+
+    /**
+     * Looks a user up by username or email in any letter case, as
+     * {@link UserRepository#findByLoginIdentifier} does.
+     *
+     * @return a detached copy of the live user; callers may modify it freely
+     */
+    public Optional<UserEntity> findByLoginIdentifier(String identifier) {
+        long started = authMetrics.start();
+        // Keyed as typed: an exact username match outranks a case-insensitive one.
+        String key = identifier.trim();
+        String normalized = UserEntity.normalizeLoginIdentifier(identifier);
+        UUID id = idByLogin.getIfPresent(key);
+        if (id != null) {
+            UserSnapshot cached = byId.getIfPresent(id);
+            // The index may point at a user whose username or email has since changed.
+            if (cached != null && (normalized.equals(UserEntity.normalizeLoginIdentifier(cached.username()))
+                    || normalized.equals(UserEntity.normalizeLoginIdentifier(cached.email())))) {
+                authMetrics.recordUserLookup(started, true);
+                return Optional.of(cached.toEntity());
+            }
+        }
+        Optional<UserEntity> loaded = load(() -> userRepository.findByLoginIdentifier(key), started);
+        loaded.ifPresent(user -> idByLogin.put(key, user.getId()));
+        return loaded;
+    }
+
+    /**
+     * Evicts the user here and everywhere else once the current transaction commits
+     * (immediately if there is none). Called for every persisted change to a user.
+     *
+     * @param newVersion the row's version after the change
+     */
+    public void userChanged(UserEntity user, Long newVersion) {
+        if (user.getId() == null) {
+            return;
+        }
+        UserInvalidation invalidation = new UserInvalidation(
+                instanceId, user.getId(), newVersion == null ? 0 : newVersion, user.getUsername());
+        Runnable apply = () -> {
+            evict(invalidation.userId(), invalidation.version(), invalidation.username());
+            channel.publish(invalidation);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        idByUsername.invalidateAll();
+        idByLogin.invalidateAll();
+    }
+
+    private Optional<UserEntity> load(Supplier<Optional<UserEntity>> loader, long started) {
+        Optional<UserEntity> loaded = loader.get();
+        authMetrics.recordUserLookup(started, false);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private void put(UserEntity user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        // compute() runs under the key's lock, which evict() also takes, so a floor set by a
+        // concurrent invalidation is either seen here or the entry is evicted right after.
+        byId.asMap().compute(snapshot.id(), (id, existing) -> {
+            Long floor = versionFloor.getIfPresent(id);
+            if (floor != null && snapshot.versionOrZero() < floor) {
+                return existing;
+            }
+            if (existing != null && existing.versionOrZero() > snapshot.versionOrZero()) {
+                return existing;
+            }
+            return snapshot;
+        });
+        idByUsername.put(snapshot.username(), snapshot.id());
+    }
+
+    private void evict(UUID id, long version, String username) {
+        versionFloor.asMap().merge(id, version, Math::max);
+        byId.asMap().computeIfPresent(id, (key, existing) -> existing.versionOrZero() >= version ? existing : null);
+        if (username != null) {
+            idByUsername.invalidate(username);
+            // A username match outranks an email match, so a new or renamed user may take over these
+            // keys. Other letter cases of the name cannot once usernames are unique ignoring case
+            // (see LoginIdentifierBackfillService).
+            idByLogin.invalidate(username);
+            idByLogin.invalidate(UserEntity.normalizeLoginIdentifier(username));
+        }
+    }
+}
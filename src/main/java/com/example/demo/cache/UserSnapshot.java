@@ -0,0 +1,59 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.utils.enums.UserRoleEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a {@link UserEntity} row. The cache hands out fresh entities built from it,
+ * so callers may modify (and save) what they get without corrupting the cached state.
+ */
+record UserSnapshot(
+        UUID id,
+        String username,
+        String email,
+        String password,
+        UserRoleEnum role,
+        String firstName,
+        String lastName,
+        Boolean enabled,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        String createdBy,
+        String updatedBy,
+        Long version
+) {
+
+    static UserSnapshot of(UserEntity user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getFirstName(), user.getLastName(), user.getEnabled(), user.getCreatedAt(), user.getUpdatedAt(),
+                user.getCreatedBy(), user.getUpdatedBy(), user.getVersion());
+    }
+
+    /**
+     * @return a detached entity; only live users are cached, so the soft-delete fields are unset
+     */
+    UserEntity toEntity() {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword(password);
+        user.setRole(role);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEnabled(enabled);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        user.setCreatedBy(createdBy);
+        user.setUpdatedBy(updatedBy);
+        user.setVersion(version);
+        return user;
+    }
+
+    long versionOrZero() {
+        return version == null ? 0 : version;
+    }
+}
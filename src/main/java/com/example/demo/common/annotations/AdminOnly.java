@@ -1,9 +1,17 @@
 package com.example.demo.common.annotations;
 
+import com.example.demo.utils.enums.UserRoleEnum;
+
 import java.lang.annotation.*;
 
+/**
+ * Restricts a method to callers holding {@link #role()} or a role above it
+ * (ADMIN > MODERATOR > USER). Enforced by {@code AdminOnlyAspect}.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface AdminOnly {
+
+    UserRoleEnum role() default UserRoleEnum.ADMIN;
 }
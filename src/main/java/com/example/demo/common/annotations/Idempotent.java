@@ -0,0 +1,14 @@
+package com.example.demo.common.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Makes a controller method honour the {@code Idempotency-Key} request header: the first
+ * request with a key runs, later ones with the same key and body get its response replayed,
+ * and duplicates arriving while it runs wait for it. Enforced by {@code IdempotencyAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+}
@@ -1,30 +1,70 @@
 package com.example.demo.common.aspects;
 
-//import com.example.demo.common.annotations.AdminOnly;
-//import com.example.demo.common.exceptions.AccessDeniedException;
-//import com.example.demo.common.security.AuthService;
+import com.example.demo.common.annotations.AdminOnly;
+import com.example.demo.response.exceptions.AccessDeniedException;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.utils.enums.UserRoleEnum;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
-//import org.aspectj.lang.annotation.Before;
-//import org.springframework.beans.factory.annotation.Autowired;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Enforces {@link AdminOnly}. The required role is looked up once per method and cached, so a
+ * call costs a map lookup and a bitmask test against the principal's granted roles.
+ */
 @Aspect
 @Component
 public class AdminOnlyAspect {
 
-//    private final AuthService authService;
-//
-//    @Autowired
-//    public AdminOnlyAspect(AuthService authService) {
-//        this.authService = authService;
-//    }
-//
-//    @Before("@annotation(adminOnly)")
-//    public void validateAdminAccess(JoinPoint joinPoint, AdminOnly adminOnly) {
-//        String roleRequired = adminOnly.role();
-//        if (!authService.hasRole(roleRequired)) {
-//            throw new AccessDeniedException("Access denied. Role required: " + roleRequired);
-//        }
-//    }
+    private static final Map<String, Integer> AUTHORITY_MASKS = Arrays.stream(UserRoleEnum.values())
+            .collect(Collectors.toUnmodifiableMap(role -> "ROLE_" + role.name(), UserRoleEnum::grantedMask));
+
+    private final Map<Method, UserRoleEnum> requiredRoles = new ConcurrentHashMap<>();
+
+    @Before("@annotation(com.example.demo.common.annotations.AdminOnly)")
+    public void validateAdminAccess(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        UserRoleEnum required = requiredRoles.computeIfAbsent(method, AdminOnlyAspect::resolveRequiredRole);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("Unauthorized: Authentication is required");
+        }
+        if ((grantedMask(authentication) & required.bit()) == 0) {
+            throw new AccessDeniedException("Access denied. Role required: " + required.name());
+        }
+    }
+
+    private static UserRoleEnum resolveRequiredRole(Method method) {
+        AdminOnly adminOnly = AnnotatedElementUtils.findMergedAnnotation(method, AdminOnly.class);
+        return adminOnly != null ? adminOnly.role() : UserRoleEnum.ADMIN;
+    }
+
+    private static int grantedMask(Authentication authentication) {
+        // Tokens from JwtAuthenticationFilter carry the role directly.
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.role().grantedMask();
+        }
+        int mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Integer granted = AUTHORITY_MASKS.get(authority.getAuthority());
+            if (granted != null) {
+                mask |= granted;
+            }
+        }
+        return mask;
+    }
 }
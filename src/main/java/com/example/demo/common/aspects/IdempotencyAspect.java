@@ -0,0 +1,243 @@
+package com.example.demo.common.aspects;
+
+import com.example.demo.common.annotations.Idempotent;
+import com.example.demo.config.properties.IdempotencyProperties;
+import com.example.demo.idempotency.IdempotencySecret;
+import com.example.demo.idempotency.IdempotencyStore;
+import com.example.demo.idempotency.StoredResponse;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.exceptions.ConflictException;
+import com.example.demo.response.exceptions.ServiceUnavailableException;
+import com.example.demo.response.exceptions.UnprocessableEntityException;
+import com.example.demo.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.Mac;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Enforces {@link Idempotent}.
+ * <p>
+ * Keys are scoped to the caller (the user id, or one shared anonymous scope for signup), and
+ * bound to a fingerprint of the method, path and body of the first request, so a key reused
+ * for a different request gets 422 instead of someone else's response. The fingerprint is an
+ * HMAC under {@link IdempotencySecret}: the bodies hold passwords, and a plain hash kept for the
+ * TTL would be an offline-crackable copy of them.
+ * <p>
+ * A retry of a completed request costs a store lookup. Duplicates on this instance wait on the
+ * future of the request in flight; duplicates of a request running on another instance poll
+ * the shared store. Only completed responses are kept: when the request throws, the key is
+ * released and the next retry runs it again.
+ */
+@Aspect
+@Component
+public class IdempotencyAspect {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyAspect.class);
+
+    private final IdempotencyStore store;
+    private final IdempotencySecret secret;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter waited;
+    private final Counter mismatched;
+    private final Counter timedOut;
+
+    public IdempotencyAspect(IdempotencyStore store,
+                             IdempotencySecret secret,
+                             IdempotencyProperties properties,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.secret = secret;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.executed = Counter.builder("idempotency.requests").tag("outcome", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+        this.waited = Counter.builder("idempotency.requests").tag("outcome", "waited").register(meterRegistry);
+        this.mismatched = Counter.builder("idempotency.requests").tag("outcome", "mismatch").register(meterRegistry);
+        this.timedOut = Counter.builder("idempotency.requests").tag("outcome", "timeout").register(meterRegistry);
+    }
+
+    @Around("@annotation(com.example.demo.common.annotations.Idempotent)")
+    public Object handle(ProceedingJoinPoint joinPoint) throws Throwable {
+        HttpServletRequest request = currentRequest();
+        String idempotencyKey = request == null ? null : request.getHeader(IDEMPOTENCY_KEY);
+        if (!properties.isEnabled() || idempotencyKey == null) {
+            return joinPoint.proceed();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > properties.getMaxKeyLength()) {
+            throw new BadRequestException(IDEMPOTENCY_KEY + " must be 1 to " + properties.getMaxKeyLength() + " characters");
+        }
+        String key = scope() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(joinPoint, request);
+        long deadline = System.nanoTime() + properties.getInFlightTimeout().toNanos();
+
+        while (true) {
+            CompletableFuture<StoredResponse> attempt = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, attempt);
+            if (running != null) {
+                StoredResponse response = await(running, deadline);
+                if (response != null) {
+                    waited.increment();
+                    return replay(response, fingerprint);
+                }
+                // The request in flight failed and released the key: try to run it ourselves.
+                continue;
+            }
+            try {
+                return lead(joinPoint, key, fingerprint, attempt, deadline);
+            } finally {
+                inFlight.remove(key, attempt);
+                // A no-op after success; after a failure, wakes duplicates to retry.
+                attempt.complete(null);
+            }
+        }
+    }
+
+    private Object lead(ProceedingJoinPoint joinPoint, String key, String fingerprint,
+                        CompletableFuture<StoredResponse> attempt, long deadline) throws Throwable {
+        while (true) {
+            StoredResponse existing = store.claim(key, fingerprint);
+            if (existing == null) {
+                return execute(joinPoint, key, fingerprint, attempt);
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                mismatched.increment();
+                throw new UnprocessableEntityException(IDEMPOTENCY_KEY + " was already used for a different request");
+            }
+            if (existing.isComplete()) {
+                attempt.complete(existing);
+                return replay(existing, fingerprint);
+            }
+            // Claimed by a request running on another instance.
+            if (System.nanoTime() - deadline >= 0) {
+                timedOut.increment();
+                throw new ConflictException("A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+            }
+            sleep(properties.getPollInterval().toMillis());
+        }
+    }
+
+    private Object execute(ProceedingJoinPoint joinPoint, String key, String fingerprint,
+                           CompletableFuture<StoredResponse> attempt) throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            store.release(key);
+            throw e;
+        }
+        executed.increment();
+        if (!(result instanceof ResponseEntity<?> entity)) {
+            store.release(key);
+            return result;
+        }
+        StoredResponse response = new StoredResponse(fingerprint, entity.getStatusCode().value(),
+                objectMapper.writeValueAsBytes(entity.getBody()));
+        try {
+            store.complete(key, response);
+        } catch (RuntimeException e) {
+            // The request itself succeeded; only a later retry would run it again.
+            logger.warn("Could not store idempotent response: {}", e.getMessage());
+        }
+        attempt.complete(response);
+        return result;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running, long deadline) {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new ConflictException("A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; treated like a failed request.
+            return null;
+        }
+    }
+
+    private ResponseEntity<byte[]> replay(StoredResponse response, String fingerprint) {
+        if (!response.fingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            throw new UnprocessableEntityException(IDEMPOTENCY_KEY + " was already used for a different request");
+        }
+        replayed.increment();
+        return ResponseEntity.status(response.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED, "true")
+                .body(response.body());
+    }
+
+    private String fingerprint(ProceedingJoinPoint joinPoint, HttpServletRequest request) throws JsonProcessingException {
+        Mac digest = secret.fingerprintMac();
+        digest.update((request.getMethod() + " " + request.getRequestURI()).getBytes(StandardCharsets.UTF_8));
+        Annotation[][] parameterAnnotations = ((MethodSignature) joinPoint.getSignature()).getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof RequestBody) {
+                    digest.update(objectMapper.writeValueAsBytes(args[i]));
+                }
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.doFinal());
+    }
+
+    private static String scope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.id().toString()
+                : "anonymous";
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the original request");
+        }
+    }
+}
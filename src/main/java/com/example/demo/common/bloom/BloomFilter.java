@@ -0,0 +1,220 @@
+package com.example.demo.common.bloom;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe, fixed-size Bloom filter over strings.
+ * <p>
+ * Bits are stored in an {@link AtomicLongArray}, so concurrent inserts never lose
+ * updates and lookups never block. Hashing works directly on the string's chars
+ * (no byte[] allocation per call) and derives the k probe positions from two
+ * 64-bit hashes (Kirsch-Mitzenmacher double hashing).
+ */
+public final class BloomFilter {
+
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int FORMAT_VERSION = 1;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+    private final double targetFpp;
+    private final AtomicLong setBits;
+
+    private BloomFilter(long bitSize, int hashFunctions, long expectedInsertions, double targetFpp,
+                        AtomicLongArray words, long setBits) {
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+        this.expectedInsertions = expectedInsertions;
+        this.targetFpp = targetFpp;
+        this.words = words;
+        this.setBits = new AtomicLong(setBits);
+    }
+
+    /**
+     * Creates a filter sized for the given number of insertions and false-positive rate.
+     *
+     * @param expectedInsertions number of distinct values the filter should hold
+     * @param fpp                target false-positive probability, in (0, 1)
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0.0 || fpp >= 1.0) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1 (exclusive)");
+        }
+        long bits = optimalBitSize(expectedInsertions, fpp);
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) >>> 6);
+        long bitSize = (long) words << 6;
+        int k = optimalHashFunctions(expectedInsertions, bitSize);
+        return new BloomFilter(bitSize, k, expectedInsertions, fpp, new AtomicLongArray(words), 0);
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @return true if at least one bit changed (the value was definitely not present before)
+     */
+    public boolean put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        boolean changed = false;
+        long combined = h1;
+        for (int i = 0; i < hashFunctions; i++) {
+            if (setBit((combined & Long.MAX_VALUE) % bitSize)) {
+                changed = true;
+            }
+            combined += h2;
+        }
+        return changed;
+    }
+
+    /**
+     * @return false if the value was definitely never added, true if it might have been
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        long combined = h1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitSize;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * Current false-positive probability, derived from the fraction of bits that are set.
+     */
+    public double expectedFpp() {
+        return Math.pow((double) setBits.get() / bitSize, hashFunctions);
+    }
+
+    /**
+     * Estimated number of distinct values inserted so far (Swamidass &amp; Baldi).
+     */
+    public long approximateElementCount() {
+        double fractionSet = (double) setBits.get() / bitSize;
+        if (fractionSet >= 1.0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-Math.log1p(-fractionSet) * bitSize / hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public double targetFpp() {
+        return targetFpp;
+    }
+
+    /**
+     * Serializes the filter. Concurrent inserts during the write may or may not be captured.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(bitSize);
+        data.writeInt(hashFunctions);
+        data.writeLong(expectedInsertions);
+        data.writeDouble(targetFpp);
+        data.writeLong(setBits.get());
+        int length = words.length();
+        data.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            data.writeLong(words.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a filter previously written with {@link #writeTo(OutputStream)}.
+     */
+    public static BloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a Bloom filter snapshot");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported Bloom filter snapshot version: " + version);
+        }
+        long bitSize = data.readLong();
+        int hashFunctions = data.readInt();
+        long expectedInsertions = data.readLong();
+        double targetFpp = data.readDouble();
+        long setBits = data.readLong();
+        int length = data.readInt();
+        if ((long) length << 6 != bitSize) {
+            throw new IOException("Corrupt Bloom filter snapshot");
+        }
+        AtomicLongArray words = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            words.set(i, data.readLong());
+        }
+        return new BloomFilter(bitSize, hashFunctions, expectedInsertions, targetFpp, words, setBits);
+    }
+
+    private boolean setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        setBits.incrementAndGet();
+        return true;
+    }
+
+    static long optimalBitSize(long n, double p) {
+        return (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+
+    static int optimalHashFunctions(long n, long m) {
+        return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    // FNV-1a over UTF-16 code units, finished with the MurmurHash3 fmix64 avalanche.
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
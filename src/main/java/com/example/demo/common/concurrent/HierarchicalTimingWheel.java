@@ -0,0 +1,152 @@
+package com.example.demo.common.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical timing wheel for expiring large numbers of keys without scanning them.
+ * <p>
+ * Level 0 has {@code wheelSize} slots of one tick each; every level above covers
+ * {@code wheelSize} times the span of the one below. Scheduling is O(1). Each tick processes
+ * one level-0 slot, and whenever a level wraps, the current slot of the level above is
+ * cascaded down, so every entry is touched O(levels) times over its lifetime.
+ * <p>
+ * Entries cannot be cancelled; callers re-check the expired key against their own state
+ * (e.g. a session whose expiry was extended is simply scheduled again).
+ * {@link #advanceTo(long, BiConsumer)} is meant to be driven by a single thread.
+ */
+public final class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final ArrayDeque<Entry<K>>[][] slots;
+    private final ArrayDeque<Entry<K>> overdue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis  resolution of the wheel
+     * @param wheelSize   slots per level, a power of two
+     * @param levels      number of levels; the wheel spans tickMillis * wheelSize^levels
+     * @param startMillis current time
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.slots = new ArrayDeque[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code key} to be reported by {@link #advanceTo} once {@code deadlineMillis} has passed.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        lock.lock();
+        try {
+            // Rounded up so an entry is never reported before its deadline.
+            place(new Entry<>(key, deadlineMillis, -Math.floorDiv(-deadlineMillis, tickMillis)));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis} and hands every entry whose deadline passed to
+     * {@code onExpired} (key, deadline). The callback runs outside the wheel's lock.
+     */
+    public void advanceTo(long nowMillis, BiConsumer<K, Long> onExpired) {
+        List<Entry<K>> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                ArrayDeque<Entry<K>> slot = slots[0][(int) (currentTick & mask)];
+                Entry<K> entry;
+                while ((entry = slot.poll()) != null) {
+                    if (entry.deadlineTick() <= currentTick) {
+                        expired.add(entry);
+                    } else {
+                        place(entry);
+                    }
+                }
+            }
+            drainOverdue(expired);
+            size -= expired.size();
+        } finally {
+            lock.unlock();
+        }
+        for (Entry<K> entry : expired) {
+            onExpired.accept(entry.key(), entry.deadlineMillis());
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // When the levels below have wrapped, pull the current slot of each higher level down.
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                return;
+            }
+            ArrayDeque<Entry<K>> slot = slots[level][(int) ((currentTick >>> (bits * level)) & mask)];
+            List<Entry<K>> moving = new ArrayList<>(slot);
+            slot.clear();
+            for (Entry<K> entry : moving) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<K> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            overdue.add(entry);
+            return;
+        }
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        long tick = level == levels - 1 && delta >= (1L << (bits * levels))
+                ? currentTick + (1L << (bits * levels)) - 1   // beyond the wheel: park in the farthest slot
+                : entry.deadlineTick();
+        slots[level][(int) ((tick >>> (bits * level)) & mask)].add(entry);
+    }
+
+    private void drainOverdue(List<Entry<K>> expired) {
+        Entry<K> entry;
+        while ((entry = overdue.poll()) != null) {
+            expired.add(entry);
+        }
+    }
+
+    private record Entry<K>(K key, long deadlineMillis, long deadlineTick) {
+    }
+}
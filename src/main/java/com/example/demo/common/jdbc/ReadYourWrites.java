@@ -0,0 +1,85 @@
+package com.example.demo.common.jdbc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which users committed a write recently, so that their reads go to the primary until
+ * the replicas have caught up.
+ * <p>
+ * Pins are local to this instance: behind a load balancer without session affinity a user's
+ * next request may land elsewhere and read from a replica.
+ */
+public class ReadYourWrites {
+
+    private final Cache<UUID, Boolean> pinned;
+    private final Supplier<UUID> currentUser;
+
+    /**
+     * @param window      how long reads stay on the primary after a commit
+     * @param currentUser the user on whose behalf the current thread runs, or {@code null}
+     */
+    public ReadYourWrites(Duration window, Supplier<UUID> currentUser) {
+        this.pinned = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(1_000_000)
+                .build();
+        this.currentUser = currentUser;
+    }
+
+    public boolean isPinned() {
+        UUID userId = currentUser.get();
+        return userId != null && pinned.getIfPresent(userId) != null;
+    }
+
+    public void pin(UUID userId) {
+        pinned.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * Wraps the primary so that a read-write transaction that takes a connection from it pins
+     * the current user once it commits.
+     */
+    public DataSource trackWrites(DataSource primary) {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                onConnection();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                onConnection();
+                return super.getConnection(username, password);
+            }
+        };
+    }
+
+    private void onConnection() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        UUID userId = currentUser.get();
+        if (userId != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pin(userId);
+                }
+            });
+        }
+    }
+}
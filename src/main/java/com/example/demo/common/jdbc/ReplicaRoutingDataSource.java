@@ -0,0 +1,199 @@
+package com.example.demo.common.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out read-only connections from a set of replicas.
+ * <p>
+ * Meant as the read-only side of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only asks for
+ * a connection once the transaction's read-only flag is known. A replica is chosen per
+ * connection, round-robin or by fewest connections in use. Users pinned by
+ * {@link ReadYourWrites} read from the primary; a replica that cannot hand out a connection is
+ * skipped for {@code retryDownAfter}, and when no replica is left reads fail over to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final ReadYourWrites readYourWrites;
+    private final long retryDownAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter pinnedReads;
+    private final Counter failoverReads;
+
+    /**
+     * @param replicas replica data sources by name, in a stable order
+     */
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    Map<String, DataSource> replicas,
+                                    Balancing balancing,
+                                    ReadYourWrites readYourWrites,
+                                    Duration retryDownAfter,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.balancing = balancing;
+        this.readYourWrites = readYourWrites;
+        this.retryDownAfterNanos = retryDownAfter.toNanos();
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource, meterRegistry)));
+        this.pinnedReads = Counter.builder("jdbc.routing.reads").tag("target", "primary").tag("reason", "pinned")
+                .description("Read-only connections served by the primary after the user's own write")
+                .register(meterRegistry);
+        this.failoverReads = Counter.builder("jdbc.routing.reads").tag("target", "primary").tag("reason", "failover")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(meterRegistry);
+        Gauge.builder("jdbc.routing.replicas.up", this, ReplicaRoutingDataSource::replicasUp)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return readOnly(primary.getConnection());
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = choose();
+            if (replica == null) {
+                break;
+            }
+            try {
+                return replica.open();
+            } catch (SQLException e) {
+                replica.markDown(System.nanoTime() + retryDownAfterNanos);
+                logger.warn("Replica {} is unavailable, skipping it for {} ms: {}",
+                        replica.name, retryDownAfterNanos / 1_000_000, e.getMessage());
+            }
+        }
+        failoverReads.increment();
+        return readOnly(primary.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials are fixed per pool");
+    }
+
+    private Replica choose() {
+        long now = System.nanoTime();
+        if (balancing == Balancing.LEAST_CONNECTIONS) {
+            Replica least = null;
+            for (Replica replica : replicas) {
+                if (replica.isUp(now) && (least == null || replica.active.get() < least.active.get())) {
+                    least = replica;
+                }
+            }
+            return least;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isUp(now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private int replicasUp() {
+        long now = System.nanoTime();
+        return (int) replicas.stream().filter(replica -> replica.isUp(now)).count();
+    }
+
+    private static Connection readOnly(Connection connection) throws SQLException {
+        try {
+            connection.setReadOnly(true);
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes replica pools that are {@link AutoCloseable}; the primary belongs to the caller.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter reads;
+        private final Counter failures;
+        private volatile long downUntilNanos;
+        private volatile boolean down;
+
+        Replica(String name, DataSource dataSource, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.reads = Counter.builder("jdbc.routing.reads").tag("target", name).tag("reason", "replica")
+                    .register(meterRegistry);
+            this.failures = Counter.builder("jdbc.routing.replica.failures").tag("replica", name)
+                    .description("Connection attempts refused by the replica")
+                    .register(meterRegistry);
+            Gauge.builder("jdbc.routing.replica.active", active, AtomicInteger::get).tag("replica", name)
+                    .register(meterRegistry);
+        }
+
+        boolean isUp(long now) {
+            return !down || now - downUntilNanos >= 0;
+        }
+
+        void markDown(long untilNanos) {
+            failures.increment();
+            downUntilNanos = untilNanos;
+            down = true;
+        }
+
+        Connection open() throws SQLException {
+            Connection connection = readOnly(dataSource.getConnection());
+            if (down) {
+                down = false;
+                logger.info("Replica {} is available again", name);
+            }
+            reads.increment();
+            active.incrementAndGet();
+            return release(connection);
+        }
+
+        /**
+         * Wraps the connection so that its first {@code close()} counts it as returned.
+         */
+        private Connection release(Connection connection) {
+            return ConnectionCloseHook.wrap(connection, active::decrementAndGet);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.common.metrics;
+
+import com.example.demo.config.properties.AuthMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the authentication hot paths: login, access token verification, user lookups and
+ * error handling. Password hashing and audit flushes are timed where they run.
+ * <p>
+ * Call sites take {@link #start()} before the work and pass it back to a {@code record*}
+ * method. Every timer with a fixed tag set is registered up front, so recording is a clock read
+ * and a histogram update, with no registry lookup. When disabled, {@link #start()} returns
+ * {@link #DISABLED} and recording returns immediately.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final long DISABLED = 0L;
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Timer loginSuccess;
+    private final Timer loginRejected;
+    private final Timer loginError;
+    private final Timer tokenCached;
+    private final Timer tokenVerified;
+    private final Timer tokenInvalid;
+    private final Timer lookupCache;
+    private final Timer lookupDatabase;
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+
+    public AuthMetrics(AuthMetricsProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.meterRegistry = meterRegistry;
+        this.loginSuccess = login("success");
+        this.loginRejected = login("rejected");
+        this.loginError = login("error");
+        this.tokenCached = tokenVerification("cache", "valid");
+        this.tokenVerified = tokenVerification("signature", "valid");
+        this.tokenInvalid = tokenVerification("signature", "invalid");
+        this.lookupCache = userLookup("cache");
+        this.lookupDatabase = userLookup("database");
+    }
+
+    /**
+     * @return a start timestamp to pass back to a {@code record*} method, or {@link #DISABLED}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    public void recordLogin(long started, LoginOutcome outcome) {
+        if (started != DISABLED) {
+            Timer timer = switch (outcome) {
+                case SUCCESS -> loginSuccess;
+                case REJECTED -> loginRejected;
+                case ERROR -> loginError;
+            };
+            record(timer, started);
+        }
+    }
+
+    /**
+     * @param cached whether the claims came from the verified-token cache
+     */
+    public void recordTokenVerification(long started, boolean cached, boolean valid) {
+        if (started != DISABLED) {
+            record(!valid ? tokenInvalid : cached ? tokenCached : tokenVerified, started);
+        }
+    }
+
+    /**
+     * @param fromCache whether the lookup was answered without touching the database
+     */
+    public void recordUserLookup(long started, boolean fromCache) {
+        if (started != DISABLED) {
+            record(fromCache ? lookupCache : lookupDatabase, started);
+        }
+    }
+
+    /**
+     * Times building the error response, tagged with the exception's error code.
+     */
+    public void recordError(long started, String errorCode) {
+        if (started != DISABLED) {
+            Timer timer = errorTimers.computeIfAbsent(errorCode == null ? "UNKNOWN" : errorCode,
+                    code -> Timer.builder("auth.errors")
+                            .description("Handled exceptions by error code and the time to render them")
+                            .tag("error_code", code)
+                            .register(meterRegistry));
+            record(timer, started);
+        }
+    }
+
+    public enum LoginOutcome {
+        SUCCESS,
+        /**
+         * Bad credentials or a disabled account.
+         */
+        REJECTED,
+        ERROR
+    }
+
+    private static void record(Timer timer, long started) {
+        timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer login(String outcome) {
+        return Timer.builder("auth.login")
+                .description("Login requests, from credential check to token issue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer tokenVerification(String source, String result) {
+        return Timer.builder("auth.token.verify")
+                .description("Access token verification, from the cache or by checking the signature")
+                .tag("source", source)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer userLookup(String source) {
+        return Timer.builder("auth.user.lookup")
+                .description("User lookups by id or username")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
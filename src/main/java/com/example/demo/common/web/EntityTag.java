@@ -0,0 +1,57 @@
+package com.example.demo.common.web;
+
+import com.example.demo.model.entity.base.BaseEntity;
+
+import java.util.UUID;
+
+/**
+ * Strong ETag of an entity's state, {@code "<id>-<version>"}. The {@code @Version} column
+ * changes with every committed update, so the tag changes exactly when the entity does and can
+ * be checked without loading or serializing it.
+ */
+public record EntityTag(UUID id, long version) {
+
+    public static EntityTag of(BaseEntity entity) {
+        return new EntityTag(entity.getId(), entity.getVersion() == null ? 0 : entity.getVersion());
+    }
+
+    public String toHeader() {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Whether this tag is in an {@code If-None-Match} list. Uses the weak comparison RFC 9110
+     * prescribes there, so a {@code W/} copy of the tag (as compressing proxies send back) matches.
+     */
+    public boolean matchesIfNoneMatch(String header) {
+        return matches(header, true);
+    }
+
+    /**
+     * Whether this tag is in an {@code If-Match} list, by strong comparison; {@code *} matches
+     * any existing entity.
+     */
+    public boolean matchesIfMatch(String header) {
+        return matches(header, false);
+    }
+
+    private boolean matches(String header, boolean weak) {
+        String expected = toHeader();
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
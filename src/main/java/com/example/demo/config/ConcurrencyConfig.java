@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import com.example.demo.common.jdbc.BoundedDataSource;
+import com.example.demo.common.jdbc.ReplicaRoutingDataSource;
+import com.example.demo.config.properties.JdbcAdmissionProperties;
+import com.example.demo.security.SecurityContextTaskDecorator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Safeguards for running request handling and async work on virtual threads
+ * ({@code spring.threads.virtual.enabled}, Java 21+).
+ * <p>
+ * Virtual threads remove Tomcat's thread cap, so the connection pool becomes the only limit on
+ * concurrency; {@link BoundedDataSource} makes that limit explicit and fail fast. Boot applies
+ * the {@link TaskDecorator} to its task executors, virtual or pooled, so async tasks run as the
+ * user who started them.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return new SecurityContextTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.jdbc.admission", name = "enabled", havingValue = "true")
+    public static BeanPostProcessor boundedDataSourcePostProcessor(ObjectProvider<JdbcAdmissionProperties> properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Wrappers are skipped; the primary pool behind them is a bean and wrapped itself.
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource
+                        || bean instanceof ReplicaRoutingDataSource) {
+                    return bean;
+                }
+                JdbcAdmissionProperties admission = properties.getObject();
+                int permits = admission.getPermits();
+                if (permits <= 0) {
+                    permits = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                }
+                return new BoundedDataSource(dataSource, permits, admission.getAcquireTimeout(), meterRegistry.getObject());
+            }
+        };
+    }
+}
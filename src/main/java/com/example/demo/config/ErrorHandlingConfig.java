@@ -0,0 +1,23 @@
+package com.example.demo.config;
+
+import com.example.demo.config.properties.ErrorHandlingProperties;
+import com.example.demo.response.exceptions.FastErrorMode;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ErrorHandlingConfig {
+
+    /**
+     * Applies {@code app.errors.fast-mode.*}. Nothing injects it, so it is an initializer rather
+     * than a constructor side effect, which lazy initialization would skip (see {@link StartupConfig}).
+     */
+    @Bean
+    public SmartInitializingSingleton fastErrorModeInitializer(ErrorHandlingProperties properties) {
+        return () -> {
+            ErrorHandlingProperties.FastMode fastMode = properties.getFastMode();
+            FastErrorMode.configure(fastMode.isEnabled(), fastMode.getCaptureStackTraces());
+        };
+    }
+}
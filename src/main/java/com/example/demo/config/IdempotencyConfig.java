@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.example.demo.config.properties.IdempotencyProperties;
+import com.example.demo.idempotency.IdempotencySecret;
+import com.example.demo.idempotency.IdempotencyStore;
+import com.example.demo.idempotency.InMemoryIdempotencyStore;
+import com.example.demo.idempotency.RedisIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.Base64;
+
+/**
+ * Selects the idempotency key store backend from {@code app.idempotency.store}.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencySecret idempotencySecret(IdempotencyProperties properties) {
+        if (StringUtils.hasText(properties.getSecret())) {
+            return new IdempotencySecret(Base64.getDecoder().decode(properties.getSecret()));
+        }
+        if (properties.getStore() == IdempotencyProperties.Store.REDIS) {
+            throw new IllegalStateException("app.idempotency.secret must be set when app.idempotency.store is redis");
+        }
+        return IdempotencySecret.ephemeral();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(IdempotencyProperties properties) {
+        return new InMemoryIdempotencyStore(properties.getTtl(), properties.getMaximumSize());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "redis")
+    public IdempotencyStore redisIdempotencyStore(IdempotencyProperties properties,
+                                                  StringRedisTemplate redisTemplate,
+                                                  ObjectMapper objectMapper,
+                                                  IdempotencySecret secret) {
+        return new RedisIdempotencyStore(redisTemplate, objectMapper, secret, properties.getKeyPrefix(),
+                properties.getTtl(), properties.getClaimTtl());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.config.properties.RateLimitProperties;
+import com.example.demo.security.ratelimit.InMemoryLoginAttemptStore;
+import com.example.demo.security.ratelimit.LoginAttemptStore;
+import com.example.demo.security.ratelimit.LoginRateLimiter;
+import com.example.demo.security.ratelimit.RedisLoginAttemptStore;
+import com.example.demo.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Wires login rate limiting; the state store is selected from {@code app.security.rate-limit.store}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.security.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.security.rate-limit", name = "store", havingValue = "memory", matchIfMissing = true)
+    public LoginAttemptStore inMemoryLoginAttemptStore(RateLimitProperties properties) {
+        return new InMemoryLoginAttemptStore(properties.getSlots(), System.currentTimeMillis());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.security.rate-limit", name = "store", havingValue = "redis")
+    public LoginAttemptStore redisLoginAttemptStore(RateLimitProperties properties, StringRedisTemplate redisTemplate) {
+        return new RedisLoginAttemptStore(redisTemplate, properties.getKeyPrefix());
+    }
+
+    @Bean
+    public LoginRateLimiter loginRateLimiter(LoginAttemptStore store,
+                                             RateLimitProperties properties,
+                                             UserService userService,
+                                             MeterRegistry meterRegistry) {
+        return new LoginRateLimiter(store, properties, userService::disableAccount, meterRegistry);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import com.example.demo.common.jdbc.ReadYourWrites;
+import com.example.demo.common.jdbc.ReplicaRoutingDataSource;
+import com.example.demo.config.properties.ReplicaRoutingProperties;
+import com.example.demo.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to read replicas, enabled by
+ * {@code app.jdbc.replicas.enabled}.
+ * <p>
+ * Replaces Boot's single pool with the primary pool (still configured by
+ * {@code spring.datasource.*}) behind a {@link LazyConnectionDataSourceProxy}. The proxy defers
+ * fetching the connection until the first statement, when the transaction's read-only flag is
+ * set, and takes read-only connections from {@link ReplicaRoutingDataSource}. Everything outside
+ * a read-only transaction, including {@code JdbcTemplate} calls, schema initialization and
+ * Flyway, stays on the primary. Reads that must never be stale, such as the credential and
+ * {@code If-Match} lookups in {@code AuthService}, run in a read-write transaction to get there.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.jdbc.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaRoutingProperties properties) {
+        return new ReadYourWrites(properties.getReadYourWritesWindow(), () -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                    ? user.id()
+                    : null;
+        });
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties properties,
+                                                             ReadYourWrites readYourWrites,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Node> nodes = properties.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, replicaPool(name, nodes.get(i), dataSourceProperties, properties, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, properties.getBalancing(), readYourWrites,
+                properties.getRetryDownAfter(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource,
+                                 ReadYourWrites readYourWrites) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(readYourWrites.trackWrites(primary));
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    private static HikariDataSource replicaPool(String name,
+                                               ReplicaRoutingProperties.Node node,
+                                               DataSourceProperties primary,
+                                               ReplicaRoutingProperties properties,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(node.getUrl());
+        pool.setUsername(node.getUsername() != null ? node.getUsername() : primary.determineUsername());
+        pool.setPassword(node.getPassword() != null ? node.getPassword() : primary.determinePassword());
+        pool.setReadOnly(true);
+        pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+        pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        // Start even when a replica is down; reads fail over to the primary meanwhile.
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
@@ -1,20 +1,41 @@
 package com.example.demo.config;
 
+import com.example.demo.config.properties.PasswordHashingProperties;
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.jwt.VerifiedTokenCache;
+import com.example.demo.security.ratelimit.LoginRateLimitFilter;
+import com.example.demo.security.ratelimit.LoginRateLimiter;
+import com.example.demo.security.revocation.TokenRevocationService;
+import com.example.demo.utils.enums.UserRoleEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           VerifiedTokenCache tokenVerifier,
+                                           TokenRevocationService revocationService,
+                                           ObjectProvider<LoginRateLimiter> loginRateLimiter,
+                                           ObjectMapper objectMapper) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Not a bean on purpose: Boot would also register it as a plain servlet filter.
+                .addFilterBefore(new JwtAuthenticationFilter(tokenVerifier, revocationService.index()), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/secured/admin/**").hasRole(UserRoleEnum.ADMIN.name())
                         .requestMatchers("/api/secured/**").authenticated()
                         .anyRequest().permitAll()
                 )
@@ -22,6 +43,14 @@ public class SecurityConfig {
                         .authenticationEntryPoint((request, response, authException) -> response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized: Authentication is required"))
                         .accessDeniedHandler((request, response, accessDeniedException) -> response.sendError(HttpServletResponse.SC_FORBIDDEN, "Access Denied: You don't have permission"))
                 );
+        // Ahead of everything else so throttled attempts cost no token parsing or hashing.
+        loginRateLimiter.ifAvailable(limiter -> http.addFilterBefore(
+                new LoginRateLimitFilter(limiter, objectMapper), JwtAuthenticationFilter.class));
         return http.build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        return new BCryptPasswordEncoder(properties.getBcryptStrength());
+    }
+}
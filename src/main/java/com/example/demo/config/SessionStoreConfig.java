@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import com.example.demo.config.properties.SessionProperties;
+import com.example.demo.session.InMemorySessionStore;
+import com.example.demo.session.RedisSessionStore;
+import com.example.demo.session.SessionStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+
+/**
+ * Selects the session store backend from {@code app.sessions.store}.
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sessions", name = "store", havingValue = "memory", matchIfMissing = true)
+    public SessionStore inMemorySessionStore(SessionProperties properties, MeterRegistry meterRegistry) {
+        return new InMemorySessionStore(properties.getStripes(), properties.getExpiryTick(), Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sessions", name = "store", havingValue = "redis")
+    public SessionStore redisSessionStore(SessionProperties properties, StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        return new RedisSessionStore(redisTemplate, objectMapper, Clock.systemUTC(), properties.getKeyPrefix());
+    }
+}
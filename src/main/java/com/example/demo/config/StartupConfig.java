@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import com.example.demo.services.AuthService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Startup behaviour for the fast-start profile ({@code application-fast-start.yaml}).
+ * <p>
+ * With {@code spring.main.lazy-initialization} a bean is only created when something first
+ * needs it, which would silently switch off anything that works in the background or that nothing
+ * injects. Those beans stay eager: scheduled jobs, lifecycle components (listeners, revocation
+ * sync), startup initializers such as the fast error mode switch, and {@link AuthService}, whose
+ * constructor hashes the timing-equalizing dummy password and should not do so on a user's first
+ * login.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkersStayEager() {
+        return (beanName, beanDefinition, beanType) -> Lifecycle.class.isAssignableFrom(beanType)
+                || SmartInitializingSingleton.class.isAssignableFrom(beanType)
+                || AuthService.class.isAssignableFrom(beanType)
+                || !MethodIntrospector.selectMethods(beanType,
+                (ReflectionUtils.MethodFilter) method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)).isEmpty();
+    }
+
+    /**
+     * Skips migrations during the build's CDS training run ({@code app.startup.training-run}),
+     * which has no database. Flyway cannot simply be disabled there: with AOT the bean is fixed
+     * at build time.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.startup.training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (!trainingRun) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.InMemoryInvalidationChannel;
+import com.example.demo.cache.InvalidationChannel;
+import com.example.demo.cache.PostgresInvalidationChannel;
+import com.example.demo.cache.UserLookupCache;
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.UserCacheProperties;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the user lookup cache to the invalidation channel chosen by {@code app.user-cache.channel}.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.user-cache", name = "channel", havingValue = "postgres", matchIfMissing = true)
+    public PostgresInvalidationChannel postgresInvalidationChannel(DataSourceProperties dataSourceProperties,
+                                                                   UserCacheProperties properties) {
+        return new PostgresInvalidationChannel(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                properties.getNotifyChannel(),
+                properties.getReconnectDelay(),
+                properties.getPublishQueueCapacity());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.user-cache", name = "channel", havingValue = "memory")
+    public InMemoryInvalidationChannel inMemoryInvalidationChannel() {
+        return new InMemoryInvalidationChannel();
+    }
+
+    @Bean
+    public UserLookupCache userLookupCache(UserRepository userRepository,
+                                           InvalidationChannel invalidationChannel,
+                                           UserCacheProperties properties,
+                                           AuthMetrics authMetrics,
+                                           MeterRegistry meterRegistry) {
+        return new UserLookupCache(userRepository, invalidationChannel, properties, authMetrics, meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the write-behind login activity columns of {@code app_user}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.users.activity")
+public class ActivityTrackingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How often coalesced activity is written; also the most that is lost on a crash.
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * Users updated per statement.
+     */
+    private int batchSize = 1000;
+}
@@ -0,0 +1,53 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the asynchronous audit-event pipeline.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Events buffered in memory before backpressure applies (rounded up to a power of two).
+     */
+    private int queueCapacity = 8192;
+
+    /**
+     * Maximum rows per JDBC batch insert.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long the writer idles when the queue is empty.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * What to do with an event when the queue is full.
+     */
+    private Backpressure backpressure = Backpressure.SPILL;
+
+    /**
+     * Longest a producer waits for queue space under {@link Backpressure#BLOCK} before dropping.
+     */
+    private Duration blockTimeout = Duration.ofMillis(50);
+
+    /**
+     * Local NDJSON file used under {@link Backpressure#SPILL} and for failed batches; replayed at startup.
+     */
+    private Path spillPath = Path.of("data/audit-spill.ndjson");
+
+    public enum Backpressure {
+        DROP,
+        BLOCK,
+        SPILL
+    }
+}
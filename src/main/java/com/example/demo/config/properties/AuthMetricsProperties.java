@@ -0,0 +1,17 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for {@link com.example.demo.common.metrics.AuthMetrics}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.metrics.auth")
+public class AuthMetricsProperties {
+
+    /**
+     * When off, the instrumented paths skip clock reads and meter updates entirely.
+     */
+    private boolean enabled = true;
+}
@@ -0,0 +1,42 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for {@link com.example.demo.response.handler.GlobalExceptionHandler}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.errors")
+public class ErrorHandlingProperties {
+
+    /**
+     * Whether unexpected exceptions echo their message in the response payload.
+     * Always off in fast mode.
+     */
+    private boolean exposeExceptionMessages = true;
+
+    private FastMode fastMode = new FastMode();
+
+    @Data
+    public static class FastMode {
+
+        /**
+         * Stackless client-error exceptions and pre-serialized error bodies.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Error codes (e.g. NOT_FOUND) that still capture stack traces in fast mode.
+         */
+        private Set<String> captureStackTraces = new HashSet<>();
+
+        /**
+         * Upper bound on distinct (status, message) bodies kept pre-serialized.
+         */
+        private int maxTemplates = 512;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@code Idempotency-Key} handling on mutating endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Backend holding completed responses: in-process, or any Redis-protocol server shared by
+     * all instances.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a completed response is replayed for its key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Most keys the in-memory backend keeps; the least recently used go first.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long a duplicate waits for the request already in flight before it gets 409.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long the Redis backend keeps a key claimed without a result, in case the claiming
+     * instance dies mid-request.
+     */
+    private Duration claimTtl = Duration.ofSeconds(30);
+
+    /**
+     * How often a duplicate polls the Redis backend while another instance handles the key.
+     */
+    private Duration pollInterval = Duration.ofMillis(50);
+
+    private int maxKeyLength = 255;
+
+    /**
+     * Base64 secret (at least 256 bits) keying request fingerprints and sealing stored
+     * responses. Required with the Redis backend, where all instances must share it; the
+     * in-memory backend generates one per process when it is empty.
+     */
+    private String secret;
+
+    /**
+     * Key prefix used by the Redis backend.
+     */
+    private String keyPrefix = "demo-auth:";
+
+    public enum Store {
+        MEMORY,
+        REDIS
+    }
+}
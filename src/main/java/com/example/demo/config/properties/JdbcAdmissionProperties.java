@@ -0,0 +1,30 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for bounding how many threads may hold or wait on a JDBC connection at once.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.jdbc.admission")
+public class JdbcAdmissionProperties {
+
+    /**
+     * Off unless set. application.yaml binds it to {@code spring.threads.virtual.enabled}, since
+     * request concurrency is unbounded with virtual threads.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Connections that may be checked out at once; 0 uses the Hikari maximum pool size.
+     */
+    private int permits = 0;
+
+    /**
+     * How long a caller waits for a permit before the request fails with a 503.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,62 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for stateless bearer-token authentication.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.jwt")
+public class JwtProperties {
+
+    private String issuer = "demo-auth";
+
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * Allowed clock difference between instances when checking expiry.
+     */
+    private Duration clockSkew = Duration.ofSeconds(30);
+
+    /**
+     * Static HMAC keys by key id, Base64-encoded, at least 256 bits each.
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /**
+     * Key id used to sign new tokens. Defaults to the last configured key.
+     */
+    private String activeKeyId;
+
+    /**
+     * Optional properties file ({@code <kid>=<base64 secret>} lines plus {@code active=<kid>})
+     * that is re-read when it changes, so keys can be rotated without a restart.
+     */
+    private Path keyFile;
+
+    private Duration keyFileCheckInterval = Duration.ofSeconds(30);
+
+    private VerifiedCache verifiedCache = new VerifiedCache();
+
+    @Data
+    public static class VerifiedCache {
+
+        private boolean enabled = true;
+
+        /**
+         * Upper bound on cached token digests.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * Longest a verified token is trusted without re-checking its signature.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the job that fills the normalized login columns of users created before they existed.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.users.login-backfill")
+public class LoginBackfillProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Rows updated per batch; each batch is its own short transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Upper bound on batches per run, so one run cannot monopolise the database.
+     */
+    private int maxBatchesPerRun = 1000;
+
+    /**
+     * Pause between batches, giving autovacuum and replicas room to keep up.
+     */
+    private Duration batchPause = Duration.ofMillis(50);
+
+    /**
+     * Delay between runs until the backfill is complete and usernames are unique ignoring case.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,89 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for account emails: the outbox dispatcher and its SMTP connection pool.
+ * Mails are always written to the outbox; {@link #enabled} only controls sending.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.mail")
+public class MailDispatchProperties {
+
+    private boolean enabled = false;
+
+    private String from = "no-reply@demo-auth.local";
+
+    private Smtp smtp = new Smtp();
+
+    /**
+     * Pooled SMTP connections, which is also the number of sender threads.
+     */
+    private int connections = 8;
+
+    /**
+     * Messages sent at once to one recipient domain by this instance.
+     */
+    private int perDomainConcurrency = 4;
+
+    /**
+     * Rows claimed per statement.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Upper bound on batches per run, so one run cannot monopolise the pool.
+     */
+    private int maxBatchesPerRun = 50;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a claimed row is hidden from other dispatchers; a crashed sender's rows are
+     * picked up again after this.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * Attempts before a mail is marked failed.
+     */
+    private int maxAttempts = 8;
+
+    /**
+     * Delay before the first retry, doubled on every further attempt up to {@link #maxBackoff}.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    /**
+     * How long sent rows are kept, for deduplication and support lookups.
+     */
+    private Duration sentRetention = Duration.ofDays(7);
+
+    @Data
+    public static class Smtp {
+
+        private String host = "localhost";
+
+        private int port = 25;
+
+        private String username;
+
+        private String password;
+
+        private boolean starttls = false;
+
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Connections idle for longer are checked with NOOP before reuse.
+         */
+        private Duration validateAfterIdle = Duration.ofSeconds(30);
+    }
+}
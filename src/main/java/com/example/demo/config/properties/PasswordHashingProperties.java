@@ -0,0 +1,37 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for password hashing and its dedicated executor.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.password")
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt log2 work factor for new hashes. Existing hashes with a different factor are
+     * re-hashed on the next successful login.
+     */
+    private int bcryptStrength = 12;
+
+    /**
+     * Hashing threads; 0 means one per available processor.
+     */
+    private int threads = 0;
+
+    /**
+     * Hash/verify tasks allowed to wait for a thread before new ones are rejected with 503.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Longest a request waits for its hash/verify result before giving up with 503.
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    private boolean rehashOnLogin = true;
+}
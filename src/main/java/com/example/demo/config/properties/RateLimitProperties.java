@@ -0,0 +1,88 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for login/signup rate limiting and brute-force lockout.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Where limiter state lives: per instance, or shared by all instances through any
+     * Redis-protocol server (the same one configured under spring.data.redis).
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * Counter slots of the in-memory store (rounded up to a power of two). Memory is fixed at
+     * 8 bytes per slot per table no matter how many distinct clients show up.
+     */
+    private int slots = 1 << 18;
+
+    private Bucket perIp = new Bucket(30, 30, Duration.ofMinutes(1));
+
+    private Bucket perUsername = new Bucket(10, 5, Duration.ofMinutes(1));
+
+    /**
+     * Consecutive failures for one username before lockouts start.
+     */
+    private int lockoutThreshold = 5;
+
+    /**
+     * First lockout; it doubles with every further failure.
+     */
+    private Duration lockoutBase = Duration.ofSeconds(30);
+
+    private Duration lockoutMax = Duration.ofMinutes(15);
+
+    /**
+     * Consecutive failures after which the account is disabled until an admin re-enables it.
+     */
+    private int disableThreshold = 50;
+
+    /**
+     * Failures older than this no longer count.
+     */
+    private Duration failureWindow = Duration.ofHours(24);
+
+    /**
+     * Key prefix used by the Redis store.
+     */
+    private String keyPrefix = "demo-auth:";
+
+    public enum Store {
+        MEMORY,
+        REDIS
+    }
+
+    /**
+     * Token bucket: up to {@code capacity} requests at once, refilled by {@code refillTokens}
+     * every {@code refillPeriod}.
+     */
+    @Data
+    public static class Bucket {
+        private int capacity;
+        private int refillTokens;
+        private Duration refillPeriod;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, int refillTokens, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillTokens = refillTokens;
+            this.refillPeriod = refillPeriod;
+        }
+
+        public double tokensPerMilli() {
+            return (double) refillTokens / refillPeriod.toMillis();
+        }
+    }
+}
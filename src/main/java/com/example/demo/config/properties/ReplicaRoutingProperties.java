@@ -0,0 +1,57 @@
+package com.example.demo.config.properties;
+
+import com.example.demo.common.jdbc.ReplicaRoutingDataSource.Balancing;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that serve {@code @Transactional(readOnly = true)} work.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.jdbc.replicas")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private Balancing balancing = Balancing.ROUND_ROBIN;
+
+    /**
+     * How long after committing a write a user's reads stay on the primary, so they see it
+     * despite replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * How long a replica that refused a connection is skipped before it is tried again.
+     */
+    private Duration retryDownAfter = Duration.ofSeconds(10);
+
+    /**
+     * Hikari pool size of each replica.
+     */
+    private int maximumPoolSize = 10;
+
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+
+        private String url;
+
+        /**
+         * Defaults to {@code spring.datasource.username}.
+         */
+        private String username;
+
+        /**
+         * Defaults to {@code spring.datasource.password}.
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the login session / device registry.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sessions")
+public class SessionProperties {
+
+    /**
+     * Backend holding sessions: in-process, or any Redis-protocol server (Redis, Dragonfly).
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a session stays listed after login.
+     */
+    private Duration ttl = Duration.ofHours(12);
+
+    /**
+     * Lock stripes of the in-memory backend (rounded up to a power of two).
+     */
+    private int stripes = 64;
+
+    /**
+     * Resolution of the in-memory backend's expiry wheel.
+     */
+    private Duration expiryTick = Duration.ofSeconds(1);
+
+    /**
+     * Key prefix used by the Redis backend.
+     */
+    private String keyPrefix = "demo-auth:";
+
+    public enum Store {
+        MEMORY,
+        REDIS
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the job that removes soft-deleted users after a retention window.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.soft-delete.purge")
+public class SoftDeletePurgeProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a soft-deleted user stays restorable before it is purged.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * Whether purged rows are copied to {@code app_user_archive} or dropped.
+     */
+    private Mode mode = Mode.ARCHIVE;
+
+    /**
+     * Rows moved per statement; each batch is its own short transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Upper bound on batches per run, so one run cannot monopolise the database.
+     */
+    private int maxBatchesPerRun = 200;
+
+    /**
+     * Pause between batches, giving autovacuum and replicas room to keep up.
+     */
+    private Duration batchPause = Duration.ofMillis(100);
+
+    /**
+     * Delay between runs.
+     */
+    private Duration interval = Duration.ofMinutes(15);
+
+    public enum Mode {
+        ARCHIVE,
+        DELETE
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for revoking access tokens before they expire (logout, password change, disabled
+ * accounts). Revocations are kept until every token they cover has expired anyway.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.revocation")
+public class TokenRevocationProperties {
+
+    /**
+     * Revoked token and session ids the prefilter is sized for; it is resized when exceeded.
+     */
+    private long expectedInsertions = 100_000;
+
+    private double falsePositiveRate = 0.001;
+
+    /**
+     * How often revocations made by other instances are read back from the database.
+     */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    /**
+     * How far each sync looks behind the previous one, so rows committed late or written by
+     * an instance with a slightly different clock are still picked up.
+     */
+    private Duration syncOverlap = Duration.ofMinutes(1);
+
+    /**
+     * How often expired revocations are dropped from memory and from the database.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,52 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the user lookup cache and its cross-instance invalidation.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.user-cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 100_000;
+
+    /**
+     * Upper bound on how long an entry is served, even if an invalidation was missed.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How invalidations reach other instances.
+     */
+    private Channel channel = Channel.POSTGRES;
+
+    /**
+     * LISTEN/NOTIFY channel name used by {@link Channel#POSTGRES}.
+     */
+    private String notifyChannel = "user_cache_invalidation";
+
+    /**
+     * Delay before the listener reconnects after losing its connection.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+
+    /**
+     * Invalidations waiting to be sent by {@link Channel#POSTGRES}. When the queue overflows, or
+     * sending fails, queued messages are replaced by one that makes every instance clear its cache.
+     */
+    private int publishQueueCapacity = 10_000;
+
+    public enum Channel {
+        /**
+         * In-process only; for single-instance deployments and tests.
+         */
+        MEMORY,
+        POSTGRES
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the streaming user export.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.users.export")
+public class UserExportProperties {
+
+    /**
+     * Rows the driver fetches per round trip. Together with the buffer below this is all the
+     * export keeps in memory, whatever the table size.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Bytes buffered before being written to the response.
+     */
+    private int bufferSize = 64 * 1024;
+}
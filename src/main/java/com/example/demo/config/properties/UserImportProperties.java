@@ -0,0 +1,34 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bulk user import.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.users.import")
+public class UserImportProperties {
+
+    /**
+     * Rows validated, hashed and inserted together in one statement.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Hashing threads for imports; 0 means half the available processors, leaving the rest
+     * to the login path.
+     */
+    private int hashThreads = 0;
+
+    /**
+     * Per-row errors returned in the response; further failures are only counted.
+     */
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Store passwords that are already BCrypt hashes as-is instead of hashing them again.
+     * Migrations usually carry hashes; they are re-hashed to the current work factor on login.
+     */
+    private boolean acceptEncodedPasswords = true;
+}
@@ -0,0 +1,50 @@
+package com.example.demo.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the Bloom filter that answers username availability checks.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.username-filter")
+public class UsernameFilterProperties {
+
+    /**
+     * When disabled every availability check goes straight to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum number of usernames the filter is sized for.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Target false-positive rate of a freshly built filter.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Headroom applied to the current user count when the filter is rebuilt.
+     */
+    private double growthFactor = 2.0;
+
+    /**
+     * Rebuild once soft-deleted usernames exceed this fraction of the filter's contents.
+     */
+    private double staleRatioThreshold = 0.1;
+
+    /**
+     * Where the filter is persisted between restarts.
+     */
+    private Path snapshotPath = Path.of("data/username-filter.bin");
+
+    /**
+     * Snapshots older than this are ignored and the filter is rebuilt from the database.
+     */
+    private Duration snapshotMaxAge = Duration.ofHours(24);
+}
@@ -1,4 +1,56 @@
 package com.example.demo.controller;
 
+import com.example.demo.common.annotations.Idempotent;
+import com.example.demo.model.dto.AuthTokenResponse;
+import com.example.demo.model.dto.LoginRequest;
+import com.example.demo.model.dto.SignupRequest;
+import com.example.demo.model.dto.UsernameAvailabilityResponse;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.model.StandardApiResponse;
+import com.example.demo.services.AuthService;
+import com.example.demo.services.UsernameAvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
 public class AuthController {
+
+    private final AuthService authService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+
+    @Idempotent
+    @PostMapping("/signup")
+    public ResponseEntity<StandardApiResponse<AuthTokenResponse>> signup(
+            @Valid @RequestBody SignupRequest signupRequest, HttpServletRequest request) {
+        return ApiResponseFactory.success(HttpStatus.CREATED, "User registered", authService.signup(signupRequest, request.getHeader(HttpHeaders.USER_AGENT), request.getRemoteAddr()), request);
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<StandardApiResponse<AuthTokenResponse>> login(
+            @Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        return ApiResponseFactory.success("Login successful", authService.login(loginRequest, request.getHeader(HttpHeaders.USER_AGENT), request.getRemoteAddr()), request);
+    }
+
+    @GetMapping("/username-availability")
+    public ResponseEntity<StandardApiResponse<UsernameAvailabilityResponse>> checkUsernameAvailability(
+            @RequestParam String username, HttpServletRequest request) {
+        if (username.isBlank()) {
+            throw new BadRequestException("Username must not be blank");
+        }
+        boolean available = usernameAvailabilityService.isAvailable(username);
+        return ApiResponseFactory.success(new UsernameAvailabilityResponse(username, available), request);
+    }
 }
@@ -1,4 +1,191 @@
 package com.example.demo.controller;
 
+import com.example.demo.common.annotations.AdminOnly;
+import com.example.demo.common.annotations.Idempotent;
+import com.example.demo.common.web.EntityTag;
+import com.example.demo.model.dto.ChangePasswordRequest;
+import com.example.demo.model.dto.CursorPageResponse;
+import com.example.demo.model.dto.SessionResponse;
+import com.example.demo.model.dto.UserImportResult;
+import com.example.demo.model.dto.UserProfileResponse;
+import com.example.demo.model.dto.UserSummaryResponse;
+import com.example.demo.model.dto.UsernameFilterStats;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.model.StandardApiResponse;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.services.AuthService;
+import com.example.demo.services.SessionService;
+import com.example.demo.services.UserExportService;
+import com.example.demo.services.UserImportService;
+import com.example.demo.services.UserService;
+import com.example.demo.services.UsernameAvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/secured")
+@RequiredArgsConstructor
 public class UserController {
+
+    // Clients may keep the profile but must revalidate it; replaces Spring Security's no-store default.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final UserService userService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+    private final SessionService sessionService;
+    private final AuthService authService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+
+    /**
+     * Answers {@code If-None-Match} with 304 from the user's version alone, before the profile
+     * is loaded or serialized.
+     */
+    @GetMapping("/users/me")
+    public ResponseEntity<StandardApiResponse<UserProfileResponse>> currentUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        if (ifNoneMatch != null) {
+            EntityTag current = userService.currentTag(principal.id());
+            if (current.matchesIfNoneMatch(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(current.toHeader())
+                        .cacheControl(REVALIDATE)
+                        .build();
+            }
+        }
+        UserProfileResponse profile = userService.getProfile(principal.id());
+        return ResponseEntity.ok()
+                .eTag(profile.getEntityTag().toHeader())
+                .cacheControl(REVALIDATE)
+                .body(ApiResponseFactory.success(profile, request).getBody());
+    }
+
+    @GetMapping("/users/me/sessions")
+    public ResponseEntity<StandardApiResponse<List<SessionResponse>>> mySessions(
+            @AuthenticationPrincipal AuthenticatedUser principal, HttpServletRequest request) {
+        List<SessionResponse> sessions = sessionService.list(principal.id()).stream()
+                .map(session -> SessionResponse.from(session, principal.sessionId()))
+                .toList();
+        return ApiResponseFactory.success(sessions, request);
+    }
+
+    @DeleteMapping("/users/me/sessions/{sessionId}")
+    public ResponseEntity<StandardApiResponse<Void>> revokeSession(
+            @AuthenticationPrincipal AuthenticatedUser principal, @PathVariable String sessionId, HttpServletRequest request) {
+        sessionService.revoke(principal.id(), sessionId);
+        return ApiResponseFactory.success("Session revoked", request);
+    }
+
+    @DeleteMapping("/users/me/sessions")
+    public ResponseEntity<StandardApiResponse<Integer>> revokeAllSessions(
+            @AuthenticationPrincipal AuthenticatedUser principal, HttpServletRequest request) {
+        return ApiResponseFactory.success("Sessions revoked", sessionService.revokeAll(principal.id()), request);
+    }
+
+    @Idempotent
+    @PostMapping("/users/me/logout")
+    public ResponseEntity<StandardApiResponse<Void>> logout(
+            @AuthenticationPrincipal AuthenticatedUser principal, HttpServletRequest request) {
+        sessionService.logout(principal.id(), principal.sessionId(), principal.tokenId());
+        return ApiResponseFactory.success("Logged out", request);
+    }
+
+    /**
+     * Changes the caller's password; every existing token, including the one used here, stops
+     * working, so the client has to log in again.
+     */
+    @Idempotent
+    @PutMapping("/users/me/password")
+    public ResponseEntity<StandardApiResponse<Void>> changePassword(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ChangePasswordRequest changePasswordRequest,
+            HttpServletRequest request) {
+        authService.changePassword(principal.id(), changePasswordRequest, ifMatch);
+        return ApiResponseFactory.success("Password changed", request);
+    }
+
+    @AdminOnly
+    @GetMapping("/admin/users")
+    public ResponseEntity<StandardApiResponse<CursorPageResponse<UserSummaryResponse>>> listUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        return ApiResponseFactory.success(userService.listUsers(cursor, size), request);
+    }
+
+    /**
+     * Streams a CSV ({@code text/csv}, with a header row) or NDJSON ({@code application/x-ndjson})
+     * body of accounts into the user table.
+     */
+    @AdminOnly
+    @PostMapping(value = "/admin/users/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StandardApiResponse<UserImportResult>> importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        UserImportResult result = userImportService.importUsers(request.getInputStream(), format);
+        return ApiResponseFactory.success("Import finished", result, request);
+    }
+
+    /**
+     * Streams every user with audit columns as NDJSON (default) or CSV, optionally gzipped.
+     * The body is written directly rather than wrapped in the standard envelope.
+     */
+    @AdminOnly
+    @GetMapping("/admin/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            @RequestParam(defaultValue = "false") boolean includeDeleted,
+                            HttpServletResponse response) throws IOException {
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+        String filename = "users." + exportFormat.name().toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip"
+                : exportFormat == UserExportService.Format.CSV ? "text/csv;charset=UTF-8" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        userExportService.export(response.getOutputStream(), exportFormat, gzip, includeDeleted);
+    }
+
+    @AdminOnly
+    @GetMapping("/admin/users/username-filter")
+    public ResponseEntity<StandardApiResponse<UsernameFilterStats>> usernameFilterStats(HttpServletRequest request) {
+        return ApiResponseFactory.success(usernameAvailabilityService.stats(), request);
+    }
+
+    @AdminOnly
+    @PostMapping("/admin/users/username-filter/rebuild")
+    public ResponseEntity<StandardApiResponse<UsernameFilterStats>> rebuildUsernameFilter(HttpServletRequest request) {
+        return ApiResponseFactory.success("Username filter rebuilt", usernameAvailabilityService.rebuild(), request);
+    }
 }
@@ -0,0 +1,100 @@
+package com.example.demo.idempotency;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Server-side secret behind idempotency entries. Request fingerprints are HMACs under it, so a
+ * stored fingerprint of a body holding a password cannot be brute-forced offline, and responses
+ * written to a shared store are sealed with AES-GCM, so the bearer tokens in them are not kept
+ * in plain form. Both keys are derived from one master secret.
+ */
+public final class IdempotencySecret {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec fingerprintKey;
+    private final SecretKeySpec encryptionKey;
+
+    /**
+     * @param master at least 256 bits
+     */
+    public IdempotencySecret(byte[] master) {
+        if (master.length < 32) {
+            throw new IllegalArgumentException("Idempotency secret must be at least 256 bits");
+        }
+        this.fingerprintKey = new SecretKeySpec(derive(master, "fingerprint"), "HmacSHA256");
+        this.encryptionKey = new SecretKeySpec(derive(master, "response-encryption"), "AES");
+    }
+
+    /**
+     * A random secret for this process only; fine while entries never leave it.
+     */
+    public static IdempotencySecret ephemeral() {
+        byte[] master = new byte[32];
+        RANDOM.nextBytes(master);
+        return new IdempotencySecret(master);
+    }
+
+    /**
+     * @return a fresh MAC for one fingerprint; instances are not thread-safe
+     */
+    public Mac fingerprintMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(fingerprintKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param context bound into the ciphertext, so a sealed value only opens under the same context
+     * @return the IV followed by the ciphertext and tag
+     */
+    public byte[] seal(byte[] plain, String context) {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(context.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(plain);
+            byte[] out = Arrays.copyOf(iv, IV_BYTES + sealed.length);
+            System.arraycopy(sealed, 0, out, IV_BYTES, sealed.length);
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not seal idempotent response", e);
+        }
+    }
+
+    public byte[] open(byte[] sealed, String context) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+            cipher.updateAAD(context.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not open idempotent response", e);
+        }
+    }
+
+    private static byte[] derive(byte[] master, String label) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(master, "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.idempotency;
+
+/**
+ * Holds idempotency keys and the responses of the requests that used them.
+ * <p>
+ * A key is first claimed with an in-flight entry, then either completed with the response or
+ * released when the request failed, so that a retry runs it again.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a request about to run.
+     *
+     * @return {@code null} if the caller now owns the key, otherwise the entry already there,
+     * completed or still in flight
+     */
+    StoredResponse claim(String key, String fingerprint);
+
+    /**
+     * @return the entry for the key, or {@code null} if there is none
+     */
+    StoredResponse find(String key);
+
+    void complete(String key, StoredResponse response);
+
+    void release(String key);
+}
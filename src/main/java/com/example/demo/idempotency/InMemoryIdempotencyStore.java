@@ -0,0 +1,43 @@
+package com.example.demo.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Per-instance {@link IdempotencyStore}, bounded in size and expiring entries after the TTL.
+ * In-flight entries need no expiry of their own: the request that claimed them runs in this
+ * process and always completes or releases them.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, StoredResponse> entries;
+
+    public InMemoryIdempotencyStore(Duration ttl, long maximumSize) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        return entries.asMap().putIfAbsent(key, StoredResponse.inFlight(fingerprint));
+    }
+
+    @Override
+    public StoredResponse find(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        entries.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        entries.invalidate(key);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * {@link IdempotencyStore} shared by all instances through a Redis-protocol server
+ * (Redis, Dragonfly). A claim is {@code SET NX} with a short expiry, so a key claimed by an
+ * instance that died mid-request frees itself; a completed response replaces it with the full TTL.
+ * Response bodies carry bearer tokens, so they are stored sealed by {@link IdempotencySecret}
+ * and only opened on this side.
+ */
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final IdempotencySecret secret;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final Duration claimTtl;
+
+    public RedisIdempotencyStore(StringRedisTemplate redis, ObjectMapper objectMapper, IdempotencySecret secret,
+                                 String keyPrefix, Duration ttl, Duration claimTtl) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.secret = secret;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+        this.claimTtl = claimTtl;
+    }
+
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        Boolean claimed = redis.opsForValue().setIfAbsent(redisKey(key), toJson(StoredResponse.inFlight(fingerprint)), claimTtl);
+        if (Boolean.TRUE.equals(claimed)) {
+            return null;
+        }
+        StoredResponse existing = find(key);
+        // Expired between the two calls: report it as in flight, the caller polls again.
+        return existing != null ? existing : StoredResponse.inFlight(fingerprint);
+    }
+
+    @Override
+    public StoredResponse find(String key) {
+        String redisKey = redisKey(key);
+        String json = redis.opsForValue().get(redisKey);
+        if (json == null) {
+            return null;
+        }
+        StoredResponse stored = fromJson(json);
+        return stored.isComplete()
+                ? new StoredResponse(stored.fingerprint(), stored.status(), secret.open(stored.body(), redisKey))
+                : stored;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        String redisKey = redisKey(key);
+        StoredResponse sealed = new StoredResponse(response.fingerprint(), response.status(),
+                secret.seal(response.body(), redisKey));
+        redis.opsForValue().set(redisKey, toJson(sealed), ttl);
+    }
+
+    @Override
+    public void release(String key) {
+        redis.delete(redisKey(key));
+    }
+
+    private String redisKey(String key) {
+        return keyPrefix + "idempotency:" + key;
+    }
+
+    private String toJson(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private StoredResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * What an idempotency key maps to: the request it was first used for and, once that request
+ * completed, its serialized response.
+ *
+ * @param fingerprint hash of the method, path and body of the first request
+ * @param status      HTTP status of the response, 0 while the request is in flight
+ * @param body        the serialized {@code StandardApiResponse}, {@code null} while in flight
+ */
+public record StoredResponse(String fingerprint, int status, byte[] body) {
+
+    public static StoredResponse inFlight(String fingerprint) {
+        return new StoredResponse(fingerprint, 0, null);
+    }
+
+    @JsonIgnore
+    public boolean isComplete() {
+        return body != null;
+    }
+}
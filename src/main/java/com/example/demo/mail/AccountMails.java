@@ -0,0 +1,45 @@
+package com.example.demo.mail;
+
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.session.DeviceSession;
+
+import java.time.Instant;
+
+/**
+ * Builds the account emails sent through the {@link MailOutbox}.
+ */
+public final class AccountMails {
+
+    private AccountMails() {
+    }
+
+    public static OutboxMail welcome(UserEntity user) {
+        return new OutboxMail(MailKind.WELCOME, user.getEmail(),
+                "Welcome, " + user.getFirstName(),
+                "Hi " + user.getFirstName() + ",\n\n"
+                        + "your account " + user.getUsername() + " has been created.\n"
+                        + "If this was not you, please contact support.\n",
+                "welcome:" + user.getId());
+    }
+
+    public static OutboxMail newDevice(UserEntity user, DeviceSession session) {
+        return new OutboxMail(MailKind.NEW_DEVICE, user.getEmail(),
+                "New sign-in to your account",
+                "Hi " + user.getFirstName() + ",\n\n"
+                        + "your account " + user.getUsername() + " was signed in from a new device.\n\n"
+                        + "Device: " + (session.userAgent() == null ? "unknown" : session.userAgent()) + "\n"
+                        + "IP address: " + session.ipAddress() + "\n"
+                        + "Time: " + session.createdAt() + "\n\n"
+                        + "If this was not you, change your password and sign out all sessions.\n",
+                "new-device:" + session.sessionId());
+    }
+
+    public static OutboxMail passwordChanged(UserEntity user, Instant changedAt) {
+        return new OutboxMail(MailKind.PASSWORD_CHANGED, user.getEmail(),
+                "Your password was changed",
+                "Hi " + user.getFirstName() + ",\n\n"
+                        + "the password of your account " + user.getUsername() + " was changed at " + changedAt + ".\n"
+                        + "All sessions have been signed out. If this was not you, contact support immediately.\n",
+                "password-changed:" + user.getId() + ":" + changedAt.toEpochMilli());
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.demo.mail;
+
+import com.example.demo.config.properties.MailDispatchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the mails queued by {@link MailOutbox}.
+ * <p>
+ * Each batch is claimed in one statement with {@code FOR UPDATE SKIP LOCKED}, which also pushes
+ * the rows' {@code next_attempt_at} out by the lease, so several instances can dispatch at once
+ * and the rows of a sender that dies mid-batch are retried once the lease runs out. The batch is
+ * grouped by recipient domain and sent over pooled SMTP connections, at most
+ * {@code per-domain-concurrency} messages to one domain at a time. Outcomes are written back with
+ * batched updates: sent, retried with exponential backoff, or failed once the server rejects the
+ * mail permanently (5xx) or the attempts run out.
+ * <p>
+ * The Message-ID is derived from the dedupe key, so a mail resent after a lost acknowledgement
+ * carries the same id as the first copy.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final String CLAIM_SQL = "UPDATE mail_outbox o "
+            + "SET attempts = o.attempts + 1, next_attempt_at = now() + make_interval(secs => ?::double precision) "
+            + "FROM (SELECT id FROM mail_outbox WHERE status = 'PENDING' AND next_attempt_at <= now() "
+            + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) c "
+            + "WHERE o.id = c.id "
+            + "RETURNING o.id, o.kind, o.recipient, o.recipient_domain, o.subject, o.body, o.dedupe_key, o.attempts";
+
+    private static final String SENT_SQL =
+            "UPDATE mail_outbox SET status = 'SENT', sent_at = now(), last_error = NULL WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE mail_outbox SET next_attempt_at = now() + make_interval(secs => ?::double precision), last_error = ? WHERE id = ?";
+
+    private static final String FAILED_SQL = "UPDATE mail_outbox SET status = 'FAILED', last_error = ? WHERE id = ?";
+
+    private static final String BACKLOG_SQL =
+            "SELECT count(*), min(created_at) FROM mail_outbox WHERE status = 'PENDING'";
+
+    private static final String PURGE_SQL = "DELETE FROM mail_outbox WHERE id IN "
+            + "(SELECT id FROM mail_outbox WHERE status = 'SENT' AND sent_at < ? LIMIT ?)";
+
+    private static final int PURGE_BATCH_SIZE = 5_000;
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Duration BACKLOG_REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MailDispatchProperties properties;
+    private final SmtpConnectionPool pool;
+    private final ExecutorService senders;
+    private final InternetAddress from;
+    private final String messageIdDomain;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestPendingEpochMillis = new AtomicLong();
+    private volatile long backlogRefreshedAt;
+    private final Map<MailKind, Counter> sent = new EnumMap<>(MailKind.class);
+    private final Map<MailKind, Counter> retried = new EnumMap<>(MailKind.class);
+    private final Map<MailKind, Counter> failed = new EnumMap<>(MailKind.class);
+    private final Timer sendTimer;
+
+    public MailDispatcher(JdbcTemplate jdbcTemplate, MailDispatchProperties properties, MeterRegistry meterRegistry)
+            throws AddressException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.pool = new SmtpConnectionPool(properties.getSmtp(), properties.getConnections());
+        this.senders = Executors.newFixedThreadPool(properties.getConnections(), namedDaemonThreads());
+        this.from = new InternetAddress(properties.getFrom(), true);
+        this.messageIdDomain = MailOutbox.domainOf(properties.getFrom());
+        for (MailKind kind : MailKind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            sent.put(kind, Counter.builder("mail.outbox.sent").tag("kind", tag).register(meterRegistry));
+            retried.put(kind, Counter.builder("mail.outbox.retried").tag("kind", tag).register(meterRegistry));
+            failed.put(kind, Counter.builder("mail.outbox.failed").tag("kind", tag).register(meterRegistry));
+        }
+        this.sendTimer = Timer.builder("mail.send")
+                .description("One SMTP transaction, including borrowing a pooled connection")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.backlog", backlog, AtomicLong::get)
+                .description("Mails waiting to be sent, including those backing off")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.oldest.age.seconds", oldestPendingEpochMillis, this::oldestPendingAgeSeconds)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.poll-interval:PT1S}")
+    public void scheduledDispatch() {
+        if (properties.isEnabled()) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Sends due mails until none are left or the batch limit is reached.
+     *
+     * @return mails attempted by this run, or 0 if a run is already in progress in this instance
+     */
+    public int dispatch() {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        int attempted = 0;
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                List<ClaimedMail> claimed = claim();
+                if (claimed.isEmpty()) {
+                    break;
+                }
+                attempted += claimed.size();
+                record(send(claimed));
+                if (claimed.size() < properties.getBatchSize()) {
+                    break;
+                }
+            }
+            if (System.nanoTime() - backlogRefreshedAt > BACKLOG_REFRESH_INTERVAL.toNanos()) {
+                refreshBacklog();
+            }
+            return attempted;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes sent mails past {@code sent-retention}; their dedupe keys can then be reused.
+     */
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "PT1H")
+    public void purgeSent() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(properties.getSentRetention()));
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, PURGE_BATCH_SIZE);
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        if (purged > 0) {
+            logger.info("Purged {} sent mails from the outbox", purged);
+        }
+    }
+
+    public void refreshBacklog() {
+        jdbcTemplate.query(BACKLOG_SQL, rs -> {
+            backlog.set(rs.getLong(1));
+            Timestamp oldest = rs.getTimestamp(2);
+            oldestPendingEpochMillis.set(oldest == null ? 0 : oldest.getTime());
+        });
+        backlogRefreshedAt = System.nanoTime();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        pool.close();
+    }
+
+    private List<ClaimedMail> claim() {
+        double leaseSeconds = properties.getLease().toMillis() / 1000.0;
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new ClaimedMail(
+                rs.getLong("id"),
+                MailKind.valueOf(rs.getString("kind")),
+                rs.getString("recipient"),
+                rs.getString("recipient_domain"),
+                rs.getString("subject"),
+                rs.getString("body"),
+                rs.getString("dedupe_key"),
+                rs.getInt("attempts")), leaseSeconds, properties.getBatchSize());
+    }
+
+    /**
+     * Sends one claimed batch. Each domain gets up to {@code per-domain-concurrency} lanes that
+     * drain its mails in turn, each lane over one pooled connection.
+     */
+    private Queue<Outcome> send(List<ClaimedMail> claimed) {
+        Map<String, Queue<ClaimedMail>> byDomain = new LinkedHashMap<>();
+        for (ClaimedMail mail : claimed) {
+            byDomain.computeIfAbsent(mail.domain(), domain -> new ConcurrentLinkedQueue<>()).add(mail);
+        }
+        Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (Queue<ClaimedMail> domainMails : byDomain.values()) {
+            int laneCount = Math.min(properties.getPerDomainConcurrency(), domainMails.size());
+            for (int i = 0; i < laneCount; i++) {
+                lanes.add(CompletableFuture.runAsync(() -> drain(domainMails, outcomes), senders));
+            }
+        }
+        CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+        return outcomes;
+    }
+
+    private void drain(Queue<ClaimedMail> mails, Queue<Outcome> outcomes) {
+        Transport transport = null;
+        try {
+            ClaimedMail mail;
+            while ((mail = mails.poll()) != null) {
+                long started = System.nanoTime();
+                try {
+                    if (transport == null) {
+                        transport = pool.borrow();
+                    }
+                    MimeMessage message = toMessage(pool.session(), mail);
+                    transport.sendMessage(message, message.getAllRecipients());
+                    outcomes.add(new Outcome(mail, null, false));
+                } catch (MessagingException e) {
+                    boolean permanent = isPermanent(e);
+                    if (!(e instanceof AddressException) && transport != null) {
+                        pool.discard(transport);
+                        transport = null;
+                    }
+                    outcomes.add(new Outcome(mail, describe(e), permanent));
+                } catch (RuntimeException e) {
+                    // Retried like a transient failure; the lane goes on so earlier sends are still recorded.
+                    logger.warn("Unexpected error sending {} mail {}", mail.kind(), mail.id(), e);
+                    if (transport != null) {
+                        pool.discard(transport);
+                        transport = null;
+                    }
+                    outcomes.add(new Outcome(mail, describe(e), false));
+                } finally {
+                    sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Unsent rows keep their lease and are picked up again when it runs out.
+            Thread.currentThread().interrupt();
+        } finally {
+            if (transport != null) {
+                pool.release(transport);
+            }
+        }
+    }
+
+    private MimeMessage toMessage(Session session, ClaimedMail mail) throws MessagingException {
+        MimeMessage message = new StableIdMimeMessage(session, messageId(mail.dedupeKey()));
+        message.setFrom(from);
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(mail.recipient(), true));
+        message.setSubject(mail.subject(), StandardCharsets.UTF_8.name());
+        message.setText(mail.body(), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    private void record(Queue<Outcome> outcomes) {
+        List<Object[]> sentRows = new ArrayList<>();
+        List<Object[]> retryRows = new ArrayList<>();
+        List<Object[]> failedRows = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            ClaimedMail mail = outcome.mail();
+            if (outcome.error() == null) {
+                sentRows.add(new Object[]{mail.id()});
+                sent.get(mail.kind()).increment();
+            } else if (outcome.permanent() || mail.attempts() >= properties.getMaxAttempts()) {
+                failedRows.add(new Object[]{outcome.error(), mail.id()});
+                failed.get(mail.kind()).increment();
+                logger.warn("Giving up on {} mail {} after {} attempts: {}",
+                        mail.kind(), mail.id(), mail.attempts(), outcome.error());
+            } else {
+                retryRows.add(new Object[]{backoffSeconds(mail.attempts()), outcome.error(), mail.id()});
+                retried.get(mail.kind()).increment();
+            }
+        }
+        if (!sentRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(SENT_SQL, sentRows);
+        }
+        if (!retryRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY_SQL, retryRows);
+        }
+        if (!failedRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAILED_SQL, failedRows);
+        }
+    }
+
+    /**
+     * Exponential backoff from {@code initial-backoff}, capped at {@code max-backoff}, with the
+     * delay drawn from its upper half so retries after an outage do not arrive in lockstep.
+     */
+    private double backoffSeconds(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = attempts >= 31 ? max : Math.min(max, initial << Math.max(0, attempts - 1));
+        long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        return jittered / 1000.0;
+    }
+
+    /**
+     * True for a malformed recipient or a 5xx reply anywhere in the exception chain; such mails
+     * would be rejected again on every retry.
+     */
+    static boolean isPermanent(MessagingException e) {
+        Exception current = e;
+        for (int depth = 0; current != null && depth < 10; depth++) {
+            if (current instanceof AddressException) {
+                return true;
+            }
+            int code = returnCode(current);
+            if (code >= 500 && code < 600) {
+                return true;
+            }
+            current = current instanceof MessagingException messaging ? messaging.getNextException() : null;
+        }
+        return false;
+    }
+
+    private static int returnCode(Exception e) {
+        if (e instanceof SMTPAddressFailedException failed) {
+            return failed.getReturnCode();
+        }
+        if (e instanceof SMTPSendFailedException failed) {
+            return failed.getReturnCode();
+        }
+        if (e instanceof SMTPSenderFailedException failed) {
+            return failed.getReturnCode();
+        }
+        return -1;
+    }
+
+    private static String describe(MessagingException e) {
+        return describe(e.getNextException() != null ? e.getNextException() : e);
+    }
+
+    private static String describe(Exception cause) {
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private String messageId(String dedupeKey) {
+        return "<" + UUID.nameUUIDFromBytes(dedupeKey.getBytes(StandardCharsets.UTF_8)) + "@" + messageIdDomain + ">";
+    }
+
+    private double oldestPendingAgeSeconds(AtomicLong oldestEpochMillis) {
+        long oldest = oldestEpochMillis.get();
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record ClaimedMail(long id, MailKind kind, String recipient, String domain, String subject,
+                               String body, String dedupeKey, int attempts) {
+    }
+
+    private record Outcome(ClaimedMail mail, String error, boolean permanent) {
+    }
+
+    /**
+     * Keeps the Message-ID that {@link MimeMessage#saveChanges()} would otherwise regenerate.
+     */
+    private static final class StableIdMimeMessage extends MimeMessage {
+
+        private final String messageId;
+
+        StableIdMimeMessage(Session session, String messageId) {
+            super(session);
+            this.messageId = messageId;
+        }
+
+        @Override
+        protected void updateMessageID() throws MessagingException {
+            setHeader("Message-ID", messageId);
+        }
+    }
+}
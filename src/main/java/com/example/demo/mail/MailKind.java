@@ -0,0 +1,10 @@
+package com.example.demo.mail;
+
+/**
+ * Kinds of account email, used for metrics and as the prefix of deduplication keys.
+ */
+public enum MailKind {
+    WELCOME,
+    NEW_DEVICE,
+    PASSWORD_CHANGED
+}
@@ -0,0 +1,59 @@
+package com.example.demo.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes account emails to {@code mail_outbox} for {@link MailDispatcher} to send.
+ * <p>
+ * The insert joins the caller's transaction, so a mail exists exactly when the change it is
+ * about commits, and no request ever waits on SMTP. A second mail with the same
+ * {@link OutboxMail#dedupeKey()} is dropped.
+ */
+@Component
+public class MailOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO mail_outbox "
+            + "(kind, recipient, recipient_domain, subject, body, dedupe_key, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 'PENDING', 0, now(), now()) ON CONFLICT (dedupe_key) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<MailKind, Counter> enqueued = new EnumMap<>(MailKind.class);
+    private final Counter duplicates;
+
+    public MailOutbox(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (MailKind kind : MailKind.values()) {
+            enqueued.put(kind, Counter.builder("mail.outbox.enqueued")
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.duplicates = Counter.builder("mail.outbox.duplicates")
+                .description("Mails dropped because one with the same dedupe key was already queued")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false if a mail with the same dedupe key was already queued or sent
+     */
+    public boolean enqueue(OutboxMail mail) {
+        int inserted = jdbcTemplate.update(INSERT_SQL, mail.kind().name(), mail.recipient(), domainOf(mail.recipient()),
+                mail.subject(), mail.body(), mail.dedupeKey());
+        if (inserted == 0) {
+            duplicates.increment();
+            return false;
+        }
+        enqueued.get(mail.kind()).increment();
+        return true;
+    }
+
+    static String domainOf(String recipient) {
+        return recipient.substring(recipient.lastIndexOf('@') + 1).trim().toLowerCase(Locale.ROOT);
+    }
+}
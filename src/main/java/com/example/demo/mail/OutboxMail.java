@@ -0,0 +1,10 @@
+package com.example.demo.mail;
+
+/**
+ * A plain-text email waiting in the outbox.
+ *
+ * @param dedupeKey identifies the event the mail is about; enqueueing the same key twice sends
+ *                  one mail, and the key also fixes the {@code Message-ID} across retries
+ */
+public record OutboxMail(MailKind kind, String recipient, String subject, String body, String dedupeKey) {
+}
@@ -0,0 +1,104 @@
+package com.example.demo.mail;
+
+import com.example.demo.config.properties.MailDispatchProperties;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded pool of connected SMTP transports, so consecutive mails reuse a connection instead
+ * of paying a TCP (and TLS) handshake plus EHLO/AUTH each.
+ * <p>
+ * A transport that fails while sending must be {@link #discard discarded}, not released, since
+ * its protocol state is unknown. Idle transports are checked with NOOP before reuse once they
+ * have been idle long enough for the server to have dropped them.
+ */
+public class SmtpConnectionPool implements AutoCloseable {
+
+    private final Session session;
+    private final MailDispatchProperties.Smtp smtp;
+    private final long validateAfterIdleNanos;
+    private final Semaphore permits;
+    private final BlockingQueue<Pooled> idle;
+
+    public SmtpConnectionPool(MailDispatchProperties.Smtp smtp, int maxConnections) {
+        this.smtp = smtp;
+        this.validateAfterIdleNanos = smtp.getValidateAfterIdle().toNanos();
+        this.permits = new Semaphore(maxConnections);
+        this.idle = new ArrayBlockingQueue<>(maxConnections);
+        Properties properties = new Properties();
+        properties.setProperty("mail.transport.protocol", "smtp");
+        properties.setProperty("mail.smtp.host", smtp.getHost());
+        properties.setProperty("mail.smtp.port", String.valueOf(smtp.getPort()));
+        properties.setProperty("mail.smtp.auth", String.valueOf(smtp.getUsername() != null));
+        properties.setProperty("mail.smtp.starttls.enable", String.valueOf(smtp.isStarttls()));
+        properties.setProperty("mail.smtp.starttls.required", String.valueOf(smtp.isStarttls()));
+        properties.setProperty("mail.smtp.connectiontimeout", String.valueOf(smtp.getConnectTimeout().toMillis()));
+        properties.setProperty("mail.smtp.timeout", String.valueOf(smtp.getReadTimeout().toMillis()));
+        properties.setProperty("mail.smtp.writetimeout", String.valueOf(smtp.getReadTimeout().toMillis()));
+        this.session = Session.getInstance(properties);
+    }
+
+    public Session session() {
+        return session;
+    }
+
+    /**
+     * Waits for a free slot, then hands out an idle connection or opens a new one.
+     */
+    public Transport borrow() throws MessagingException, InterruptedException {
+        permits.acquire();
+        try {
+            Pooled pooled = idle.poll();
+            if (pooled != null && (System.nanoTime() - pooled.releasedAt() < validateAfterIdleNanos
+                    || pooled.transport().isConnected())) {
+                return pooled.transport();
+            }
+            if (pooled != null) {
+                closeQuietly(pooled.transport());
+            }
+            Transport transport = session.getTransport("smtp");
+            transport.connect(smtp.getHost(), smtp.getPort(), smtp.getUsername(), smtp.getPassword());
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Transport transport) {
+        if (!idle.offer(new Pooled(transport, System.nanoTime()))) {
+            closeQuietly(transport);
+        }
+        permits.release();
+    }
+
+    public void discard(Transport transport) {
+        closeQuietly(transport);
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        Pooled pooled;
+        while ((pooled = idle.poll()) != null) {
+            closeQuietly(pooled.transport());
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException | RuntimeException e) {
+            // Nothing left to do with a broken connection.
+        }
+    }
+
+    private record Pooled(Transport transport, long releasedAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.utils.enums.UserRoleEnum;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@Builder
+public class AuthTokenResponse {
+    private final String accessToken;
+    private final String tokenType;
+    private final long expiresIn;
+    private final UUID userId;
+    private final UserRoleEnum role;
+    private final String sessionId;
+}
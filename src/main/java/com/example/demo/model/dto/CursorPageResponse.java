@@ -0,0 +1,17 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private final List<T> items;
+    private final String nextCursor;
+    private final boolean hasMore;
+}
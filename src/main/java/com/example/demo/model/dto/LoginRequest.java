@@ -0,0 +1,17 @@
+package com.example.demo.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class LoginRequest {
+
+    /**
+     * Username or email, in any letter case.
+     */
+    @NotBlank
+    private String username;
+
+    @NotBlank
+    private String password;
+}
@@ -0,0 +1,29 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.session.DeviceSession;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+public class SessionResponse {
+    private final String sessionId;
+    private final String userAgent;
+    private final String ipAddress;
+    private final Instant createdAt;
+    private final Instant expiresAt;
+    private final boolean current;
+
+    public static SessionResponse from(DeviceSession session, String currentSessionId) {
+        return SessionResponse.builder()
+                .sessionId(session.sessionId())
+                .userAgent(session.userAgent())
+                .ipAddress(session.ipAddress())
+                .createdAt(session.createdAt())
+                .expiresAt(session.expiresAt())
+                .current(session.sessionId().equals(currentSessionId))
+                .build();
+    }
+}
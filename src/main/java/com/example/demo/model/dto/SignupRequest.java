@@ -0,0 +1,31 @@
+package com.example.demo.model.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SignupRequest {
+
+    @NotBlank
+    @Size(min = 3, max = 50)
+    // Logins accept a username or an email, so a username must never look like an email.
+    @Pattern(regexp = "[^@]*", message = "must not contain '@'")
+    private String username;
+
+    @NotBlank
+    @Email
+    private String email;
+
+    @NotBlank
+    @Size(min = 8, max = 128)
+    private String password;
+
+    @NotBlank
+    private String firstName;
+
+    @NotBlank
+    private String lastName;
+}
@@ -0,0 +1,12 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserImportError {
+    private final long line;
+    private final String username;
+    private final String message;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class UserImportResult {
+    private final long totalRows;
+    private final long imported;
+    private final long failed;
+    private final List<UserImportError> errors;
+    private final boolean errorsTruncated;
+    private final long durationMillis;
+}
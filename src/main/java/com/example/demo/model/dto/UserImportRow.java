@@ -0,0 +1,36 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.utils.enums.UserRoleEnum;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * One account of a bulk import. Constraints mirror {@link SignupRequest}.
+ */
+@Data
+public class UserImportRow {
+
+    @NotBlank
+    @Size(min = 3, max = 50)
+    @Pattern(regexp = "[^@]*", message = "must not contain '@'")
+    private String username;
+
+    @NotBlank
+    @Email
+    private String email;
+
+    @NotBlank
+    @Size(min = 8, max = 128)
+    private String password;
+
+    @NotBlank
+    private String firstName;
+
+    @NotBlank
+    private String lastName;
+
+    private UserRoleEnum role = UserRoleEnum.USER;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.common.web.EntityTag;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.utils.enums.UserRoleEnum;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Builder
+public class UserProfileResponse {
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final UserRoleEnum role;
+    private final LocalDateTime createdAt;
+    // Sent as the ETag header, not in the body.
+    @JsonIgnore
+    private final EntityTag entityTag;
+
+    public static UserProfileResponse from(UserEntity user) {
+        return UserProfileResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .createdAt(user.getCreatedAt())
+                .entityTag(EntityTag.of(user))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.utils.enums.UserRoleEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row of the admin user listing. Built directly by a JPQL constructor expression, so the
+ * password hash and audit columns are never selected.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummaryResponse {
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final UserRoleEnum role;
+    private final Boolean enabled;
+    private final LocalDateTime createdAt;
+}
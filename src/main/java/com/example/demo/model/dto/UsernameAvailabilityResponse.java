@@ -0,0 +1,11 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UsernameAvailabilityResponse {
+    private final String username;
+    private final boolean available;
+}
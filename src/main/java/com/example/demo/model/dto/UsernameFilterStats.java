@@ -0,0 +1,20 @@
+package com.example.demo.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class UsernameFilterStats {
+    private final long expectedInsertions;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long approximateElements;
+    private final long staleEntries;
+    private final double targetFpp;
+    private final double expectedFpp;
+    private final double observedFpp;
+    private final LocalDateTime builtAt;
+}
@@ -9,19 +9,24 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Entity
 @Table(name = "app_user")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@SQLDelete(sql = "UPDATE user SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE app_user SET is_deleted = true, soft_deleted_at = CURRENT_TIMESTAMP, version = version + 1 "
+        + "WHERE id = ? AND version = ?")
 @Where(clause = "is_deleted = false")
 public class UserEntity extends BaseEntity {
 
     @Column(nullable = false)
     private String email;
 
-    @Column(unique = true, nullable = false)
+    // Unique among live users only: see uk_app_user_username_live in schema.sql.
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
@@ -39,4 +44,43 @@ public class UserEntity extends BaseEntity {
 
     @Column(nullable = false)
     private Boolean enabled = true;
+
+    // Lookup keys for case-insensitive login by username or email; see normalizeLoginIdentifier.
+    // Nullable only until LoginIdentifierBackfillService has filled rows created before they existed.
+    @Column(name = "username_normalized")
+    private String usernameNormalized;
+
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    // Login activity, written in coalesced batches by UserActivityTracker and read-only here:
+    // saving it through the entity would bump version on every login. UserLookupCache does not
+    // carry these fields, so read them from the repository.
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    @Column(name = "last_login_ip", length = 45, insertable = false, updatable = false)
+    private String lastLoginIp;
+
+    // Failed logins since the last successful one.
+    @Column(name = "failed_login_count", insertable = false, updatable = false)
+    private Integer failedLoginCount;
+
+    @Column(name = "last_failed_login_at", insertable = false, updatable = false)
+    private LocalDateTime lastFailedLoginAt;
+
+    /**
+     * The one normalization applied to stored usernames and emails and to login input, so an
+     * equality match on the normalized columns is a case-insensitive match.
+     */
+    public static String normalizeLoginIdentifier(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeLoginIdentifiers() {
+        usernameNormalized = normalizeLoginIdentifier(getUsername());
+        emailNormalized = normalizeLoginIdentifier(getEmail());
+    }
 }
@@ -1,23 +1,101 @@
 package com.example.demo.model.entity.base;
 
-import jakarta.persistence.PrePersist;
-import jakarta.persistence.PreRemove;
-import jakarta.persistence.PreUpdate;
+import com.example.demo.audit.AuditAction;
+import com.example.demo.audit.AuditEventPublisher;
+import com.example.demo.cache.UserLookupCache;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.services.UsernameAvailabilityService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 
+/**
+ * Entity lifecycle hooks shared by every {@link BaseEntity}.
+ * <p>
+ * Hibernate instantiates this listener through Spring's bean container, so collaborators
+ * are injected lazily via {@link ObjectProvider} to avoid a cycle with the
+ * EntityManagerFactory that the repositories themselves depend on.
+ * <p>
+ * Post-callbacks are used so the generated id and the incremented {@code version} are known.
+ * Audit events are only handed to {@link AuditEventPublisher}, which queues them after commit;
+ * nothing here blocks the transaction.
+ */
 public class EntityAuditListener {
 
-    @PrePersist
-    public void prePersist(Object entity) {
-        System.out.println("Before creating: " + entity.getClass().getSimpleName());
+    private ObjectProvider<UsernameAvailabilityService> usernameAvailability;
+    private ObjectProvider<AuditEventPublisher> auditEventPublisher;
+    private ObjectProvider<UserLookupCache> userLookupCache;
+
+    @Autowired
+    public void setUsernameAvailability(ObjectProvider<UsernameAvailabilityService> usernameAvailability) {
+        this.usernameAvailability = usernameAvailability;
+    }
+
+    @Autowired
+    public void setAuditEventPublisher(ObjectProvider<AuditEventPublisher> auditEventPublisher) {
+        this.auditEventPublisher = auditEventPublisher;
+    }
+
+    @Autowired
+    public void setUserLookupCache(ObjectProvider<UserLookupCache> userLookupCache) {
+        this.userLookupCache = userLookupCache;
+    }
+
+    @PostPersist
+    public void postPersist(Object entity) {
+        if (entity instanceof BaseEntity base) {
+            audit(base, AuditAction.CREATE, null, base.getVersion());
+        }
+        if (entity instanceof UserEntity user && usernameAvailability != null) {
+            usernameAvailability.ifAvailable(service -> service.recordUsername(user.getUsername()));
+        }
+    }
+
+    @PostUpdate
+    public void postUpdate(Object entity) {
+        if (entity instanceof BaseEntity base) {
+            Long newVersion = base.getVersion();
+            Long oldVersion = newVersion == null ? null : newVersion - 1;
+            audit(base, base.isSoftDeleted() ? AuditAction.SOFT_DELETE : AuditAction.UPDATE, oldVersion, newVersion);
+        }
+        if (entity instanceof UserEntity user) {
+            invalidateCachedUser(user, user.getVersion());
+            if (user.isSoftDeleted()) {
+                recordUsernameRemoval(user);
+            }
+        }
+    }
+
+    // Removal is rewritten into a soft delete by @SQLDelete, which also bumps the version.
+    @PostRemove
+    public void postRemove(Object entity) {
+        if (entity instanceof BaseEntity base) {
+            Long oldVersion = base.getVersion();
+            audit(base, AuditAction.SOFT_DELETE, oldVersion, oldVersion == null ? null : oldVersion + 1);
+        }
+        if (entity instanceof UserEntity user) {
+            invalidateCachedUser(user, user.getVersion() == null ? null : user.getVersion() + 1);
+            recordUsernameRemoval(user);
+        }
+    }
+
+    private void audit(BaseEntity entity, AuditAction action, Long oldVersion, Long newVersion) {
+        if (auditEventPublisher != null) {
+            auditEventPublisher.ifAvailable(publisher -> publisher.entityChanged(entity, action, oldVersion, newVersion));
+        }
     }
 
-    @PreUpdate
-    public void preUpdate(Object entity) {
-        System.out.println("Before updating: " + entity.getClass().getSimpleName());
+    private void invalidateCachedUser(UserEntity user, Long newVersion) {
+        if (userLookupCache != null) {
+            userLookupCache.ifAvailable(cache -> cache.userChanged(user, newVersion));
+        }
     }
 
-    @PreRemove
-    public void preRemove(Object entity) {
-        System.out.println("Before deleting (soft): " + entity.getClass().getSimpleName());
+    private void recordUsernameRemoval(UserEntity user) {
+        if (usernameAvailability != null) {
+            usernameAvailability.ifAvailable(service -> service.recordRemoval(user.getUsername()));
+        }
     }
 }
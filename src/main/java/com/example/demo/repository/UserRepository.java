@@ -1,4 +1,139 @@
 package com.example.demo.repository;
 
-public interface UserRepository {
+import com.example.demo.model.dto.UserSummaryResponse;
+import com.example.demo.model.entity.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface UserRepository extends JpaRepository<UserEntity, UUID> {
+
+    String USER_SUMMARY = "select new com.example.demo.model.dto.UserSummaryResponse("
+            + "u.id, u.username, u.email, u.firstName, u.lastName, u.role, u.enabled, u.createdAt) "
+            + "from UserEntity u ";
+
+    boolean existsByUsername(String username);
+
+    /**
+     * Case-insensitive username check; an index-only scan of {@code idx_app_user_username_normalized}.
+     *
+     * @param usernameNormalized see {@link UserEntity#normalizeLoginIdentifier}
+     */
+    boolean existsByUsernameNormalized(String usernameNormalized);
+
+    /**
+     * Case-insensitive email check; an index-only scan of {@code idx_app_user_email_normalized}.
+     */
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    Optional<UserEntity> findByUsername(String username);
+
+    /**
+     * Version of a live user without loading the entity; a primary key lookup returning one column.
+     */
+    @Query("select coalesce(u.version, 0) from UserEntity u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Replaces the password hash only if it is still {@code currentHash}, without the
+     * {@code @Version} check: a rehash must neither fail on nor overwrite a concurrent change to
+     * other columns. The version is still bumped so caches and ETags see the change.
+     *
+     * @return 1 if the hash was replaced, 0 if it had already changed
+     */
+    @Modifying
+    @Query(value = "UPDATE app_user SET password = :newHash, version = coalesce(version, 0) + 1 "
+            + "WHERE id = :id AND password = :currentHash", nativeQuery = true)
+    int replacePasswordHash(@Param("id") UUID id, @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash);
+
+    /**
+     * Users whose username or email matches the normalized identifier: an exact username match
+     * first, then other username matches, then email matches, oldest first within each. One round
+     * trip; Postgres answers it with a BitmapOr over {@code idx_app_user_username_normalized} and
+     * {@code idx_app_user_email_normalized}.
+     */
+    @Query("select u from UserEntity u where u.usernameNormalized = :normalized or u.emailNormalized = :normalized "
+            + "order by case when u.username = :username then 0 when u.usernameNormalized = :normalized then 1 else 2 end, "
+            + "u.createdAt")
+    List<UserEntity> findLoginCandidates(@Param("username") String username,
+                                         @Param("normalized") String normalized,
+                                         Limit limit);
+
+    /**
+     * Resolves a login identifier, either a username or an email in any letter case. A username
+     * typed exactly as stored always wins. Otherwise an identifier only resolves when it names one
+     * account: usernames created before signup compared them case-insensitively may differ only in
+     * case, and emails are not unique, so picking one of several would let one account shadow
+     * another or lock it out.
+     */
+    default Optional<UserEntity> findByLoginIdentifier(String identifier) {
+        return resolveLoginIdentifier(identifier, true);
+    }
+
+    /**
+     * Like {@link #findByLoginIdentifier}, but for an identifier whose letter case has been lost,
+     * such as the normalized key of the login rate limiter: usernames that differ only in case
+     * resolve to none of them, even if one is stored in lower case.
+     */
+    default Optional<UserEntity> findByNormalizedLoginIdentifier(String identifier) {
+        return resolveLoginIdentifier(identifier, false);
+    }
+
+    private Optional<UserEntity> resolveLoginIdentifier(String identifier, boolean exactUsernameWins) {
+        String username = identifier.trim();
+        String normalized = UserEntity.normalizeLoginIdentifier(identifier);
+        List<UserEntity> candidates = findLoginCandidates(username, normalized, Limit.of(2));
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        UserEntity first = candidates.get(0);
+        if (candidates.size() == 1 || exactUsernameWins && username.equals(first.getUsername())) {
+            return Optional.of(first);
+        }
+        // A username match outranks an email match; two of a kind are ambiguous.
+        boolean firstIsUsername = normalized.equals(first.getUsernameNormalized());
+        boolean secondIsUsername = normalized.equals(candidates.get(1).getUsernameNormalized());
+        return firstIsUsername && !secondIsUsername ? Optional.of(first) : Optional.empty();
+    }
+
+    /**
+     * Streams every live username. Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("select u.username from UserEntity u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    Stream<String> streamAllUsernames();
+
+    /**
+     * Streams usernames created at or after the given instant. Must be consumed inside a transaction.
+     */
+    @Query("select u.username from UserEntity u where u.createdAt >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    Stream<String> streamUsernamesCreatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * First page of the admin listing, newest first. Served by {@code idx_app_user_created_at_id}.
+     */
+    @Query(USER_SUMMARY + "order by u.createdAt desc, u.id desc")
+    List<UserSummaryResponse> findSummariesNewestFirst(Limit limit);
+
+    /**
+     * Page following the row {@code (createdAt, id)}. The row-value comparison lets the index
+     * seek straight to the position instead of skipping rows as OFFSET does.
+     */
+    @Query(USER_SUMMARY + "where (u.createdAt, u.id) < (:createdAt, :id) order by u.createdAt desc, u.id desc")
+    List<UserSummaryResponse> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") UUID id,
+                                                  Limit limit);
 }
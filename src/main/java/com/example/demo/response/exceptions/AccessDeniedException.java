@@ -3,7 +3,9 @@ package com.example.demo.response.exceptions;
 import org.springframework.http.HttpStatus;
 
 public class AccessDeniedException extends BaseException {
+    private static final String ERROR_CODE = "FORBIDDEN";
+
     public AccessDeniedException(String message) {
-        super(message, "FORBIDDEN", HttpStatus.FORBIDDEN);
+        super(message, ERROR_CODE, HttpStatus.FORBIDDEN, null, FastErrorMode.captureStackTrace(ERROR_CODE));
     }
 }
@@ -3,7 +3,9 @@ package com.example.demo.response.exceptions;
 import org.springframework.http.HttpStatus;
 
 public class BadRequestException extends BaseException {
+    private static final String ERROR_CODE = "BAD_REQUEST";
+
     public BadRequestException(String message) {
-        super(message, "BAD_REQUEST", HttpStatus.BAD_REQUEST);
+        super(message, ERROR_CODE, HttpStatus.BAD_REQUEST, null, FastErrorMode.captureStackTrace(ERROR_CODE));
     }
 }
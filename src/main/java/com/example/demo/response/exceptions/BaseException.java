@@ -8,16 +8,25 @@ public class BaseException extends RuntimeException {
     private final Object debugInfo;
 
     public BaseException(String message, String errorCode, HttpStatus status, Object debugInfo) {
-        super(message);
-        this.errorCode = errorCode;
-        this.status = status;
-        this.debugInfo = debugInfo;
+        this(message, errorCode, status, debugInfo, true);
     }
 
     public BaseException(String message, String errorCode, HttpStatus status) {
         this(message, errorCode, status, null);
     }
 
+    /**
+     * @param writableStackTrace false skips filling in the stack trace, which dominates the
+     *                           cost of constructing an exception
+     */
+    protected BaseException(String message, String errorCode, HttpStatus status, Object debugInfo,
+                            boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+        this.errorCode = errorCode;
+        this.status = status;
+        this.debugInfo = debugInfo;
+    }
+
     public String getErrorCode() {
         return errorCode;
     }
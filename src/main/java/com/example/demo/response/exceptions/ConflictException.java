@@ -0,0 +1,11 @@
+package com.example.demo.response.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends BaseException {
+    private static final String ERROR_CODE = "CONFLICT";
+
+    public ConflictException(String message) {
+        super(message, ERROR_CODE, HttpStatus.CONFLICT, null, FastErrorMode.captureStackTrace(ERROR_CODE));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.response.exceptions;
+
+import java.util.Set;
+
+/**
+ * Process-wide switch for the allocation-light error path.
+ * <p>
+ * Exceptions are created with {@code new} all over the code base, so whether they capture a
+ * stack trace has to be decided statically. When fast mode is on, the common client errors
+ * (401, 403, 404, 400) are created stackless unless their error code is listed for capture.
+ * Configured once at startup from {@code app.errors.fast-mode.*}.
+ */
+public final class FastErrorMode {
+
+    private static volatile boolean enabled;
+    private static volatile Set<String> capturedErrorCodes = Set.of();
+
+    private FastErrorMode() {
+    }
+
+    public static void configure(boolean fastModeEnabled, Set<String> captureStackTracesFor) {
+        capturedErrorCodes = Set.copyOf(captureStackTracesFor);
+        enabled = fastModeEnabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true if an exception with the given error code should fill in its stack trace
+     */
+    public static boolean captureStackTrace(String errorCode) {
+        return !enabled || capturedErrorCodes.contains(errorCode);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.response.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends BaseException {
+    private static final String ERROR_CODE = "PRECONDITION_FAILED";
+
+    public PreconditionFailedException(String message) {
+        super(message, ERROR_CODE, HttpStatus.PRECONDITION_FAILED, null, FastErrorMode.captureStackTrace(ERROR_CODE));
+    }
+}
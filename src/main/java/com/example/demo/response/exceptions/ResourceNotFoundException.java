@@ -3,7 +3,9 @@ package com.example.demo.response.exceptions;
 import org.springframework.http.HttpStatus;
 
 public class ResourceNotFoundException extends BaseException {
+    private static final String ERROR_CODE = "NOT_FOUND";
+
     public ResourceNotFoundException(String message) {
-        super(message, "NOT_FOUND", HttpStatus.NOT_FOUND);
+        super(message, ERROR_CODE, HttpStatus.NOT_FOUND, null, FastErrorMode.captureStackTrace(ERROR_CODE));
     }
 }
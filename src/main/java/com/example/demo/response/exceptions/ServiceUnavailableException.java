@@ -0,0 +1,11 @@
+package com.example.demo.response.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends BaseException {
+    private static final String ERROR_CODE = "SERVICE_UNAVAILABLE";
+
+    public ServiceUnavailableException(String message) {
+        super(message, ERROR_CODE, HttpStatus.SERVICE_UNAVAILABLE, null, FastErrorMode.captureStackTrace(ERROR_CODE));
+    }
+}
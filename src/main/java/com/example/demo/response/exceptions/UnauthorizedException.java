@@ -3,7 +3,9 @@ package com.example.demo.response.exceptions;
 import org.springframework.http.HttpStatus;
 
 public class UnauthorizedException extends BaseException {
+    private static final String ERROR_CODE = "UNAUTHORIZED";
+
     public UnauthorizedException(String message) {
-        super(message, "UNAUTHORIZED", HttpStatus.UNAUTHORIZED);
+        super(message, ERROR_CODE, HttpStatus.UNAUTHORIZED, null, FastErrorMode.captureStackTrace(ERROR_CODE));
     }
 }
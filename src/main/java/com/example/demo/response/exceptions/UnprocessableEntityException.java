@@ -0,0 +1,11 @@
+package com.example.demo.response.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class UnprocessableEntityException extends BaseException {
+    private static final String ERROR_CODE = "UNPROCESSABLE_ENTITY";
+
+    public UnprocessableEntityException(String message) {
+        super(message, ERROR_CODE, HttpStatus.UNPROCESSABLE_ENTITY, null, FastErrorMode.captureStackTrace(ERROR_CODE));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.response.handler;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pre-serialized JSON bodies for common error responses.
+ * <p>
+ * Produces the same document as a {@link com.example.demo.response.model.StandardApiResponse}
+ * without a payload, but the constant part (message, status code, success flag) is encoded once
+ * per distinct (status, message) pair; a response only copies it and splices in the escaped
+ * request path and a timestamp that is formatted at most once per second.
+ */
+public class ErrorResponseTemplates {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final byte[] TIMESTAMP_PREFIX = ",\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrentMap<TemplateKey, byte[]> templates = new ConcurrentHashMap<>();
+    private final int maxTemplates;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+    public ErrorResponseTemplates(int maxTemplates) {
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * Renders an error body for the given status, message and path.
+     *
+     * @return the response, or null if the template cache is full and the caller should
+     * fall back to building the envelope normally
+     */
+    public ResponseEntity<byte[]> render(HttpStatus status, String message, String path) {
+        byte[] head = template(status, message);
+        if (head == null) {
+            return null;
+        }
+        byte[] escapedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        byte[] timestamp = currentTimestamp();
+
+        byte[] body = new byte[head.length + escapedPath.length + 1 + TIMESTAMP_PREFIX.length + timestamp.length + SUFFIX.length];
+        int offset = 0;
+        System.arraycopy(head, 0, body, offset, head.length);
+        offset += head.length;
+        System.arraycopy(escapedPath, 0, body, offset, escapedPath.length);
+        offset += escapedPath.length;
+        body[offset++] = '"';
+        System.arraycopy(TIMESTAMP_PREFIX, 0, body, offset, TIMESTAMP_PREFIX.length);
+        offset += TIMESTAMP_PREFIX.length;
+        System.arraycopy(timestamp, 0, body, offset, timestamp.length);
+        offset += timestamp.length;
+        System.arraycopy(SUFFIX, 0, body, offset, SUFFIX.length);
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private byte[] template(HttpStatus status, String message) {
+        TemplateKey key = new TemplateKey(status, message);
+        byte[] head = templates.get(key);
+        if (head != null || templates.size() >= maxTemplates) {
+            return head;
+        }
+        return templates.computeIfAbsent(key, ErrorResponseTemplates::encodeHead);
+    }
+
+    // Everything up to and including the opening quote of the path value.
+    private static byte[] encodeHead(TemplateKey key) {
+        String json = "{\"payload\":null"
+                + ",\"message\":" + (key.message() == null ? "null" : "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(key.message())) + "\"")
+                + ",\"statusCode\":" + key.status().value()
+                + ",\"success\":false"
+                + ",\"path\":\"";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.epochSecond() != second) {
+            String formatted = LocalDateTime.ofEpochSecond(second, 0, zone.getRules().getOffset(Instant.ofEpochSecond(second)))
+                    .format(TIMESTAMP_FORMAT);
+            cached = new CachedTimestamp(second, formatted.getBytes(StandardCharsets.UTF_8));
+            cachedTimestamp = cached;
+        }
+        return cached.formatted();
+    }
+
+    private record TemplateKey(HttpStatus status, String message) {
+    }
+
+    private record CachedTimestamp(long epochSecond, byte[] formatted) {
+    }
+}
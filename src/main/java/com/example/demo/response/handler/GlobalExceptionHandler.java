@@ -1,18 +1,76 @@
 package com.example.demo.response.handler;
 
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.ErrorHandlingProperties;
 import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.exceptions.AccessDeniedException;
+import com.example.demo.response.exceptions.BadRequestException;
 import com.example.demo.response.exceptions.BaseException;
+import com.example.demo.response.exceptions.ResourceNotFoundException;
+import com.example.demo.response.exceptions.UnauthorizedException;
 import com.example.demo.response.model.StandardApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final String INTERNAL_ERROR_MESSAGE = "Internal server error";
+
+    // Client errors that dominate under credential-stuffing load and are served from templates in fast mode.
+    private static final Set<Class<? extends BaseException>> TEMPLATED_EXCEPTIONS = Set.of(
+            UnauthorizedException.class,
+            AccessDeniedException.class,
+            ResourceNotFoundException.class,
+            BadRequestException.class
+    );
+
+    private final boolean fastMode;
+    private final boolean exposeExceptionMessages;
+    private final ErrorResponseTemplates templates;
+    private final AuthMetrics authMetrics;
+
+    public GlobalExceptionHandler(ErrorHandlingProperties properties, AuthMetrics authMetrics) {
+        this.authMetrics = authMetrics;
+        this.fastMode = properties.getFastMode().isEnabled();
+        this.exposeExceptionMessages = properties.isExposeExceptionMessages() && !fastMode;
+        this.templates = new ErrorResponseTemplates(properties.getFastMode().getMaxTemplates());
+    }
+
     @ExceptionHandler(BaseException.class)
-    public ResponseEntity<StandardApiResponse<Object>> handleBaseException(BaseException ex, HttpServletRequest request) {
+    public ResponseEntity<?> handleBaseException(BaseException ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        try {
+            return renderBaseException(ex, request);
+        } finally {
+            authMetrics.recordError(started, ex.getErrorCode());
+        }
+    }
+
+    private ResponseEntity<?> renderBaseException(BaseException ex, HttpServletRequest request) {
+        if (fastMode && ex.getDebugInfo() == null && TEMPLATED_EXCEPTIONS.contains(ex.getClass())) {
+            ResponseEntity<byte[]> rendered = templates.render(ex.getStatus(), ex.getMessage(), request.getRequestURI());
+            if (rendered != null) {
+                return rendered;
+            }
+        }
         return ApiResponseFactory.error(
                 ex.getStatus(),
                 ex.getMessage(),
@@ -21,12 +79,89 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<StandardApiResponse<Map<String, String>>> handleValidationException(
+            MethodArgumentNotValidException ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (FieldError fieldError : ex.getBindingResult().getFieldErrors()) {
+            fieldErrors.putIfAbsent(fieldError.getField(), fieldError.getDefaultMessage());
+        }
+        ResponseEntity<StandardApiResponse<Map<String, String>>> response =
+                ApiResponseFactory.error(HttpStatus.BAD_REQUEST, "Validation failed", fieldErrors, request);
+        authMetrics.recordError(started, "VALIDATION_FAILED");
+        return response;
+    }
+
+    /**
+     * No database connection became available in time; the client should back off and retry.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<StandardApiResponse<Void>> handleConnectionUnavailable(Exception ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        logger.warn("No database connection for {} {}: {}", request.getMethod(), request.getRequestURI(), ex.getMessage());
+        ResponseEntity<StandardApiResponse<Void>> response =
+                ApiResponseFactory.error(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, please retry", request);
+        authMetrics.recordError(started, "SERVICE_UNAVAILABLE");
+        return response;
+    }
+
+    /**
+     * A concurrent update won the {@code @Version} check. With {@code If-Match} the client
+     * asked for exactly this precondition, so it gets 412; otherwise 409.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<StandardApiResponse<Void>> handleOptimisticLockFailure(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        boolean conditional = request.getHeader(HttpHeaders.IF_MATCH) != null;
+        HttpStatus status = conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        ResponseEntity<StandardApiResponse<Void>> response =
+                ApiResponseFactory.error(status, "Resource was modified concurrently, reload and retry", request);
+        authMetrics.recordError(started, conditional ? "PRECONDITION_FAILED" : "CONFLICT");
+        return response;
+    }
+
+    /**
+     * A unique constraint or other integrity check rejected the write, typically a duplicate
+     * submitted concurrently; not a server fault.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<StandardApiResponse<Void>> handleDataIntegrityViolation(
+            DataIntegrityViolationException ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        logger.debug("Integrity violation on {} {}: {}", request.getMethod(), request.getRequestURI(), ex.getMessage());
+        ResponseEntity<StandardApiResponse<Void>> response =
+                ApiResponseFactory.error(HttpStatus.CONFLICT, "Request conflicts with existing data", request);
+        authMetrics.recordError(started, "CONFLICT");
+        return response;
+    }
+
     // Optionally handle other exceptions too
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<StandardApiResponse<Object>> handleGenericException(Exception ex, HttpServletRequest request) {
+    public ResponseEntity<?> handleGenericException(Exception ex, HttpServletRequest request) {
+        long started = authMetrics.start();
+        try {
+            return renderGenericException(ex, request);
+        } finally {
+            authMetrics.recordError(started, "INTERNAL_ERROR");
+        }
+    }
+
+    private ResponseEntity<?> renderGenericException(Exception ex, HttpServletRequest request) {
+        logger.error("Unhandled exception on {} {}", request.getMethod(), request.getRequestURI(), ex);
+        if (!exposeExceptionMessages) {
+            if (fastMode) {
+                ResponseEntity<byte[]> rendered = templates.render(HttpStatus.BAD_REQUEST, INTERNAL_ERROR_MESSAGE, request.getRequestURI());
+                if (rendered != null) {
+                    return rendered;
+                }
+            }
+            return ApiResponseFactory.error(INTERNAL_ERROR_MESSAGE, null, request);
+        }
         return ApiResponseFactory.error(
-                "Internal server error",
-                ex.getMessage(), // You may want to hide in prod
+                INTERNAL_ERROR_MESSAGE,
+                ex.getMessage(),
                 request
         );
     }
@@ -0,0 +1,18 @@
+package com.example.demo.security;
+
+import com.example.demo.utils.enums.UserRoleEnum;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal reconstructed from a verified access token, without touching the database.
+ * {@link #getName()} returns the username so JPA auditing keeps recording usernames.
+ */
+public record AuthenticatedUser(UUID id, String username, UserRoleEnum role, String tokenId, String sessionId) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
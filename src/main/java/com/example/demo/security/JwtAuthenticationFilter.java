@@ -0,0 +1,64 @@
+package com.example.demo.security;
+
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.security.jwt.JwtClaims;
+import com.example.demo.security.jwt.VerifiedTokenCache;
+import com.example.demo.security.revocation.RevocationIndex;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>}.
+ * <p>
+ * The principal is rebuilt from the token's claims alone, so secured requests never hit the
+ * database. Invalid and revoked tokens leave the request unauthenticated; the security chain's
+ * entry point then answers 401 for protected paths.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final VerifiedTokenCache tokenVerifier;
+    private final RevocationIndex revocationIndex;
+
+    public JwtAuthenticationFilter(VerifiedTokenCache tokenVerifier, RevocationIndex revocationIndex) {
+        this.tokenVerifier = tokenVerifier;
+        this.revocationIndex = revocationIndex;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            try {
+                JwtClaims claims = tokenVerifier.verify(header.substring(BEARER_PREFIX.length()).trim());
+                // Checked on every request, not cached with the signature, so revocation is immediate.
+                if (revocationIndex.isRevoked(claims)) {
+                    throw new UnauthorizedException("Token has been revoked");
+                }
+                AuthenticatedUser principal = new AuthenticatedUser(
+                        claims.userId(), claims.username(), claims.role(), claims.tokenId(), claims.sessionId());
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + claims.role().name())));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            } catch (UnauthorizedException e) {
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
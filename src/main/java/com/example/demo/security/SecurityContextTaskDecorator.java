@@ -0,0 +1,45 @@
+package com.example.demo.security;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+
+/**
+ * Carries the caller's {@link SecurityContext} and logging MDC into tasks run on Spring's
+ * task executors, so auditing sees the same principal on a worker thread as on the request
+ * thread. Each task gets its own copy of the context, and the worker's previous state is
+ * restored afterwards, which matters for pooled platform threads.
+ */
+public class SecurityContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext caller = SecurityContextHolder.getContext();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            SecurityContext previous = SecurityContextHolder.getContext();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(caller.getAuthentication());
+            SecurityContextHolder.setContext(context);
+            setMdc(mdc);
+            try {
+                runnable.run();
+            } finally {
+                SecurityContextHolder.setContext(previous);
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
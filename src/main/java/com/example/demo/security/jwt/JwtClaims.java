@@ -0,0 +1,27 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.utils.enums.UserRoleEnum;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Verified contents of an access token.
+ *
+ * @param keyId     id of the key that signed the token
+ * @param tokenId   unique token id ({@code jti})
+ * @param sessionId login session the token belongs to ({@code sid}), or null
+ * @param issuedAt  issue time to the millisecond ({@code iat_ms}); tokens without it fall back
+ *                  to the whole second of {@code iat}
+ */
+public record JwtClaims(
+        UUID userId,
+        String username,
+        UserRoleEnum role,
+        String tokenId,
+        String sessionId,
+        String keyId,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,156 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.config.properties.JwtProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * HMAC keys used to sign and verify access tokens.
+ * <p>
+ * Keys come from {@code app.security.jwt.keys} and, optionally, a key file that is polled for
+ * changes. Rotation without a restart: add the new key to the file and point {@code active} at
+ * it; tokens signed with the previous key stay valid for as long as that key remains listed.
+ * Removing a key immediately invalidates every token it signed.
+ * <p>
+ * With no keys configured a random key is generated, which only works for a single instance.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String ACTIVE_ENTRY = "active";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final JwtProperties properties;
+    private final CopyOnWriteArrayList<Consumer<Set<String>>> removalListeners = new CopyOnWriteArrayList<>();
+    private volatile KeySet keySet;
+    private volatile FileTime keyFileModified;
+
+    public JwtKeyRing(JwtProperties properties) {
+        this.properties = properties;
+        this.keySet = load();
+    }
+
+    public String activeKeyId() {
+        return keySet.activeKeyId();
+    }
+
+    public SecretKeySpec signingKey() {
+        KeySet current = keySet;
+        return current.keys().get(current.activeKeyId());
+    }
+
+    /**
+     * @return the verification key for the given id, or null if it is unknown or was removed
+     */
+    public SecretKeySpec verificationKey(String keyId) {
+        return keyId == null ? null : keySet.keys().get(keyId);
+    }
+
+    /**
+     * Registers a callback invoked with the ids of keys that were removed on reload.
+     */
+    public void onKeysRemoved(Consumer<Set<String>> listener) {
+        removalListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.key-file-check-interval:PT30S}")
+    public void reloadIfChanged() {
+        Path keyFile = properties.getKeyFile();
+        if (keyFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(keyFile);
+            if (modified.equals(keyFileModified)) {
+                return;
+            }
+            KeySet previous = keySet;
+            KeySet reloaded = load();
+            keySet = reloaded;
+            logger.info("JWT keys reloaded from {}, active key {}", keyFile, reloaded.activeKeyId());
+
+            Set<String> removed = new HashSet<>(previous.keys().keySet());
+            removed.removeAll(reloaded.keys().keySet());
+            if (!removed.isEmpty()) {
+                removalListeners.forEach(listener -> listener.accept(Set.copyOf(removed)));
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.error("Could not reload JWT keys from {}, keeping current keys", keyFile, e);
+        }
+    }
+
+    private KeySet load() {
+        Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+        properties.getKeys().forEach((kid, secret) -> keys.put(kid, decode(kid, secret)));
+        String active = properties.getActiveKeyId();
+
+        Path keyFile = properties.getKeyFile();
+        if (keyFile != null && Files.isRegularFile(keyFile)) {
+            Properties fileKeys = new Properties();
+            try (Reader reader = Files.newBufferedReader(keyFile)) {
+                keyFileModified = Files.getLastModifiedTime(keyFile);
+                fileKeys.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read JWT key file " + keyFile, e);
+            }
+            for (String kid : fileKeys.stringPropertyNames()) {
+                if (!ACTIVE_ENTRY.equals(kid)) {
+                    keys.put(kid, decode(kid, fileKeys.getProperty(kid)));
+                }
+            }
+            active = fileKeys.getProperty(ACTIVE_ENTRY, active);
+        }
+
+        if (keys.isEmpty()) {
+            logger.warn("No JWT keys configured, generating an ephemeral key; tokens will not survive a restart "
+                    + "or validate on other instances");
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            keys.put("ephemeral", new SecretKeySpec(secret, ALGORITHM));
+            active = "ephemeral";
+        }
+        if (active == null || active.isBlank()) {
+            active = keys.keySet().stream().reduce((first, second) -> second).orElseThrow();
+        }
+        if (!keys.containsKey(active)) {
+            throw new IllegalStateException("Active JWT key '" + active + "' is not configured");
+        }
+        return new KeySet(Map.copyOf(keys), active);
+    }
+
+    private static SecretKeySpec decode(String kid, String secret) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("JWT key '" + kid + "' is not valid Base64", e);
+        }
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("JWT key '" + kid + "' must be at least 256 bits");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    private record KeySet(Map<String, SecretKeySpec> keys, String activeKeyId) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.utils.enums.UserRoleEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues and verifies compact HS256 JWS access tokens.
+ * <p>
+ * Tokens carry the user id ({@code sub}), username, {@link UserRoleEnum} role, a unique
+ * {@code jti}, the login session id ({@code sid}) and the signing key id in the header, so secured requests can be authenticated
+ * without a database lookup.
+ */
+@Service
+public class JwtService {
+
+    private static final String INVALID_TOKEN = "Invalid or expired token";
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final JwtKeyRing keyRing;
+    private final JwtProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public JwtService(JwtKeyRing keyRing, JwtProperties properties, ObjectMapper objectMapper) {
+        this.keyRing = keyRing;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Issues a signed access token for the given user.
+     *
+     * @param sessionId login session to bind the token to, or null
+     */
+    public String issue(UserEntity user, String sessionId) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(properties.getAccessTokenTtl());
+        String keyId = keyRing.activeKeyId();
+
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "HS256");
+        header.put("typ", "JWT");
+        header.put("kid", keyId);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", properties.getIssuer());
+        claims.put("sub", user.getId().toString());
+        claims.put("usr", user.getUsername());
+        claims.put("role", user.getRole().name());
+        claims.put("jti", UUID.randomUUID().toString());
+        if (sessionId != null) {
+            claims.put("sid", sessionId);
+        }
+        claims.put("iat", now.getEpochSecond());
+        // Private claim: revocation cutoffs need better than iat's second precision.
+        claims.put("iat_ms", now.toEpochMilli());
+        claims.put("exp", expiresAt.getEpochSecond());
+
+        try {
+            String signingInput = ENCODER.encodeToString(objectMapper.writeValueAsBytes(header))
+                    + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            byte[] signature = sign(keyRing.signingKey(), signingInput);
+            return signingInput + "." + ENCODER.encodeToString(signature);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize token", e);
+        }
+    }
+
+    /**
+     * Verifies signature, issuer and expiry.
+     *
+     * @throws UnauthorizedException if the token is malformed, forged, or expired
+     */
+    public JwtClaims verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new UnauthorizedException(INVALID_TOKEN);
+        }
+        try {
+            Map<String, Object> header = decodeJson(token.substring(0, firstDot));
+            if (!"HS256".equals(header.get("alg"))) {
+                throw new UnauthorizedException(INVALID_TOKEN);
+            }
+            String keyId = (String) header.get("kid");
+            SecretKeySpec key = keyRing.verificationKey(keyId);
+            if (key == null) {
+                throw new UnauthorizedException(INVALID_TOKEN);
+            }
+            byte[] expected = sign(key, token.substring(0, secondDot));
+            byte[] actual = DECODER.decode(token.substring(secondDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                throw new UnauthorizedException(INVALID_TOKEN);
+            }
+
+            Map<String, Object> claims = decodeJson(token.substring(firstDot + 1, secondDot));
+            Instant expiresAt = Instant.ofEpochSecond(((Number) claims.get("exp")).longValue());
+            if (!properties.getIssuer().equals(claims.get("iss"))
+                    || expiresAt.plus(properties.getClockSkew()).isBefore(Instant.now())) {
+                throw new UnauthorizedException(INVALID_TOKEN);
+            }
+            return new JwtClaims(
+                    UUID.fromString((String) claims.get("sub")),
+                    (String) claims.get("usr"),
+                    UserRoleEnum.valueOf((String) claims.get("role")),
+                    (String) claims.get("jti"),
+                    (String) claims.get("sid"),
+                    keyId,
+                    issuedAt(claims),
+                    expiresAt);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof UnauthorizedException unauthorized) {
+                throw unauthorized;
+            }
+            throw new UnauthorizedException(INVALID_TOKEN);
+        }
+    }
+
+    private static Instant issuedAt(Map<String, Object> claims) {
+        Object millis = claims.get("iat_ms");
+        return millis instanceof Number number
+                ? Instant.ofEpochMilli(number.longValue())
+                : Instant.ofEpochSecond(((Number) claims.get("iat")).longValue());
+    }
+
+    private Map<String, Object> decodeJson(String base64Url) throws IOException {
+        return objectMapper.readValue(DECODER.decode(base64Url), CLAIMS_TYPE);
+    }
+
+    private static byte[] sign(SecretKeySpec key, String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC unavailable", e);
+        }
+    }
+}
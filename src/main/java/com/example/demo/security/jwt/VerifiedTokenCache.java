@@ -0,0 +1,108 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Front of {@link JwtService#verify(String)} that remembers tokens it has already verified.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token (never the token itself), bounded in
+ * size, and expire after the configured TTL or when the token itself expires, whichever is
+ * first. Hot clients sending the same token therefore skip JSON parsing and the HMAC check.
+ * Entries signed by a key that is removed from {@link JwtKeyRing} are dropped immediately.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final AuthMetrics authMetrics;
+    private final boolean enabled;
+    private final Cache<TokenDigest, JwtClaims> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              JwtKeyRing keyRing,
+                              JwtProperties properties,
+                              AuthMetrics authMetrics,
+                              MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.authMetrics = authMetrics;
+        JwtProperties.VerifiedCache settings = properties.getVerifiedCache();
+        this.enabled = settings.isEnabled();
+        long ttlNanos = settings.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfter(new Expiry<TokenDigest, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, JwtClaims claims, long currentTime) {
+                        long untilExpiry = Duration.between(Instant.now(), claims.expiresAt()).toNanos();
+                        return Math.max(0, Math.min(ttlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        keyRing.onKeysRemoved(removed -> cache.asMap().values().removeIf(claims -> removed.contains(claims.keyId())));
+    }
+
+    /**
+     * @return the token's claims, from cache when it was verified recently
+     * @throws com.example.demo.response.exceptions.UnauthorizedException if the token is invalid
+     */
+    public JwtClaims verify(String token) {
+        long started = authMetrics.start();
+        TokenDigest digest = enabled ? TokenDigest.of(token) : null;
+        JwtClaims claims = enabled ? cache.getIfPresent(digest) : null;
+        if (claims != null) {
+            authMetrics.recordTokenVerification(started, true, true);
+            return claims;
+        }
+        try {
+            claims = jwtService.verify(token);
+        } catch (UnauthorizedException e) {
+            authMetrics.recordTokenVerification(started, false, false);
+            throw e;
+        }
+        if (enabled) {
+            cache.put(digest, claims);
+        }
+        authMetrics.recordTokenVerification(started, false, true);
+        return claims;
+    }
+
+    private record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+                ByteBuffer buffer = ByteBuffer.wrap(hash);
+                return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 unavailable", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * Consecutive login failures recorded for a key.
+ *
+ * @param lastFailureMillis epoch millis of the most recent failure, 0 if none
+ * @param shared            the count may include failures of other keys that share storage with
+ *                          this one, so it is good for throttling but not for acting on the account
+ */
+public record FailureState(int failures, long lastFailureMillis, boolean shared) {
+
+    public static final FailureState NONE = new FailureState(0, 0);
+
+    public FailureState(int failures, long lastFailureMillis) {
+        this(failures, lastFailureMillis, false);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single-instance {@link LoginAttemptStore} in two fixed-size, lock-free tables.
+ * <p>
+ * Keys are hashed with a per-process random seed onto a fixed number of slots, and each slot
+ * packs its whole state into one {@code long} updated by compare-and-set. Memory therefore
+ * never grows with the number of distinct IPs or usernames an attacker sends. Keys that
+ * collide share a slot, which can only make limits stricter; the secret seed keeps an
+ * attacker from choosing keys that collide with a victim's. A third table remembers which key
+ * started a slot's failure count, so a count that another key added to is reported as
+ * {@link FailureState#shared() shared} and never disables the wrong account.
+ * <p>
+ * Slot layout: the high 40 bits hold a timestamp in millis since the store was created, the
+ * low 24 bits hold bucket tokens in 1/256 units or a failure count.
+ */
+public class InMemoryLoginAttemptStore implements LoginAttemptStore {
+
+    private static final int VALUE_BITS = 24;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final int TOKEN_SCALE = 256;
+
+    private final AtomicLongArray buckets;
+    private final AtomicLongArray failures;
+    // Full hash of the key that started the slot's failure count (never 0), or 0 once another key joined.
+    private final AtomicLongArray failureOwners;
+    private final int mask;
+    private final long seed;
+    private final long epochMillis;
+
+    public InMemoryLoginAttemptStore(int slots, long nowMillis) {
+        int size = Integer.highestOneBit(Math.max(2, slots) - 1) << 1;
+        this.buckets = new AtomicLongArray(size);
+        this.failures = new AtomicLongArray(size);
+        this.failureOwners = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.seed = new SecureRandom().nextLong();
+        // Zero is reserved for "never used", so the clock starts at 1.
+        this.epochMillis = nowMillis - 1;
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitProperties.Bucket bucket, long nowMillis) {
+        int slot = slot(key);
+        long now = nowMillis - epochMillis;
+        long capacity = Math.min((long) bucket.getCapacity() * TOKEN_SCALE, VALUE_MASK);
+        double refillPerMilli = bucket.tokensPerMilli() * TOKEN_SCALE;
+        while (true) {
+            long current = buckets.get(slot);
+            long tokens;
+            long last;
+            if (current == 0) {
+                tokens = capacity;
+                last = now;
+            } else {
+                last = current >>> VALUE_BITS;
+                tokens = current & VALUE_MASK;
+                long refill = (long) (Math.max(0, now - last) * refillPerMilli);
+                if (refill > 0) {
+                    // Only move the clock when something was added, so slow refill rates still accrue.
+                    tokens = Math.min(capacity, tokens + refill);
+                    last = now;
+                }
+            }
+            if (tokens < TOKEN_SCALE) {
+                return Math.max(1, (long) Math.ceil((TOKEN_SCALE - tokens) / refillPerMilli));
+            }
+            long next = (last << VALUE_BITS) | (tokens - TOKEN_SCALE);
+            if (buckets.compareAndSet(slot, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public FailureState failures(String key) {
+        long current = failures.get(slot(key));
+        if (current == 0) {
+            return FailureState.NONE;
+        }
+        return new FailureState((int) (current & VALUE_MASK), (current >>> VALUE_BITS) + epochMillis);
+    }
+
+    @Override
+    public FailureState recordFailure(String key, long windowMillis, long nowMillis) {
+        long hash = hash(key);
+        int slot = (int) hash & mask;
+        long owner = hash | 1;
+        long now = nowMillis - epochMillis;
+        while (true) {
+            long current = failures.get(slot);
+            long count = current & VALUE_MASK;
+            long last = current >>> VALUE_BITS;
+            if (current == 0 || now - last > windowMillis) {
+                count = 0;
+            }
+            count = Math.min(VALUE_MASK, count + 1);
+            long next = (now << VALUE_BITS) | count;
+            if (failures.compareAndSet(slot, current, next)) {
+                boolean shared;
+                if (count == 1) {
+                    failureOwners.set(slot, owner);
+                    shared = false;
+                } else {
+                    shared = failureOwners.accumulateAndGet(slot, owner, (was, mine) -> was == mine ? was : 0) != owner;
+                }
+                return new FailureState((int) count, nowMillis, shared);
+            }
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        failures.set(slot(key), 0);
+    }
+
+    private int slot(String key) {
+        return (int) hash(key) & mask;
+    }
+
+    private long hash(String key) {
+        long hash = seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
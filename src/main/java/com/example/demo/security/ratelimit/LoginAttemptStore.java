@@ -0,0 +1,28 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+
+/**
+ * State behind {@link LoginRateLimiter}: token buckets and failure counters by key.
+ * Implementations must be safe for concurrent use and bounded in memory.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if a token was taken, otherwise milliseconds until one will be available
+     */
+    long tryConsume(String key, RateLimitProperties.Bucket bucket, long nowMillis);
+
+    FailureState failures(String key);
+
+    /**
+     * Counts a failure, starting over if the previous one is older than {@code windowMillis}.
+     *
+     * @return the state after counting
+     */
+    FailureState recordFailure(String key, long windowMillis, long nowMillis);
+
+    void reset(String key);
+}
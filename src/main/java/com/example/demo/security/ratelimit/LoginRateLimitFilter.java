@@ -0,0 +1,183 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies {@link LoginRateLimiter} to the public auth endpoints before any password hashing
+ * happens: signup is limited per client IP, login per IP and per username, and the outcome of
+ * each login attempt feeds the username's lockout state.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String SIGNUP_PATH = "/api/auth/signup";
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    private final LoginRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !LOGIN_PATH.equals(path) && !SIGNUP_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LoginRateLimiter.Decision decision = rateLimiter.checkIp(request.getRemoteAddr());
+        if (!decision.allowed()) {
+            reject(request, response, decision);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!LOGIN_PATH.equals(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            // A login body is tiny; anything bigger could only be hiding the username from us.
+            write(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+        String username = username(body);
+        if (username != null) {
+            decision = rateLimiter.checkUsername(username);
+            if (!decision.allowed()) {
+                reject(request, response, decision);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+
+        if (username != null) {
+            int status = response.getStatus();
+            if (status == HttpServletResponse.SC_UNAUTHORIZED) {
+                rateLimiter.loginFailed(username);
+            } else if (status >= 200 && status < 300) {
+                rateLimiter.loginSucceeded(username);
+            }
+        }
+    }
+
+    private String username(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).path("username");
+            // Normalized like the lookup, so case variants of one login share a limit and a lockout.
+            return username.isTextual() && !username.asText().isBlank()
+                    ? UserEntity.normalizeLoginIdentifier(username.asText())
+                    : null;
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller; only the IP limit applies to them.
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, LoginRateLimiter.Decision decision)
+            throws IOException {
+        long seconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        write(request, response, HttpStatus.TOO_MANY_REQUESTS, decision.message());
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponseFactory.error(status, message, request).getBody());
+    }
+
+    /**
+     * Replays the already consumed body to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new IllegalStateException("async read not supported on buffered login body");
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
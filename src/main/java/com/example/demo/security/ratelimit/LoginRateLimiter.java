@@ -0,0 +1,120 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Login throttling policy: token buckets per client IP and per username, plus an exponential
+ * lockout once a username keeps failing. Past a hard threshold the account itself is disabled.
+ */
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    /**
+     * Outcome of a check; {@code retryAfterMillis} is 0 when allowed.
+     */
+    public record Decision(boolean allowed, long retryAfterMillis, String message) {
+
+        static final Decision ALLOWED = new Decision(true, 0, null);
+
+        static Decision rejected(long retryAfterMillis, String message) {
+            return new Decision(false, retryAfterMillis, message);
+        }
+    }
+
+    private final LoginAttemptStore store;
+    private final RateLimitProperties properties;
+    private final Consumer<String> accountDisabler;
+    private final Counter ipRejections;
+    private final Counter usernameRejections;
+    private final Counter lockoutRejections;
+    private final Counter disabledAccounts;
+
+    /**
+     * @param accountDisabler disables the account with the given username
+     */
+    public LoginRateLimiter(LoginAttemptStore store,
+                            RateLimitProperties properties,
+                            Consumer<String> accountDisabler,
+                            MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.accountDisabler = accountDisabler;
+        this.ipRejections = rejections(meterRegistry, "ip");
+        this.usernameRejections = rejections(meterRegistry, "username");
+        this.lockoutRejections = rejections(meterRegistry, "lockout");
+        this.disabledAccounts = Counter.builder("login.accounts.disabled")
+                .description("Accounts disabled after too many failed logins")
+                .register(meterRegistry);
+    }
+
+    public Decision checkIp(String ip) {
+        long wait = store.tryConsume("ip:" + ip, properties.getPerIp(), System.currentTimeMillis());
+        if (wait > 0) {
+            ipRejections.increment();
+            return Decision.rejected(wait, "Too many requests, please retry later");
+        }
+        return Decision.ALLOWED;
+    }
+
+    public Decision checkUsername(String username) {
+        String key = usernameKey(username);
+        long now = System.currentTimeMillis();
+        long lockedFor = lockedForMillis(store.failures(key), now);
+        if (lockedFor > 0) {
+            lockoutRejections.increment();
+            return Decision.rejected(lockedFor, "Too many failed login attempts, please retry later");
+        }
+        long wait = store.tryConsume(key, properties.getPerUsername(), now);
+        if (wait > 0) {
+            usernameRejections.increment();
+            return Decision.rejected(wait, "Too many login attempts, please retry later");
+        }
+        return Decision.ALLOWED;
+    }
+
+    public void loginFailed(String username) {
+        FailureState state = store.recordFailure(usernameKey(username),
+                properties.getFailureWindow().toMillis(), System.currentTimeMillis());
+        // Exactly at the threshold, so concurrent failures past it do not repeat the update.
+        if (state.failures() == properties.getDisableThreshold()) {
+            if (state.shared()) {
+                // Other usernames' failures are in this count; the lockout still throttles them all.
+                logger.warn("Not disabling account {}: its failure count is shared with other usernames", username);
+                return;
+            }
+            logger.warn("Disabling account {} after {} consecutive failed logins", username, state.failures());
+            disabledAccounts.increment();
+            accountDisabler.accept(username);
+        }
+    }
+
+    public void loginSucceeded(String username) {
+        store.reset(usernameKey(username));
+    }
+
+    private long lockedForMillis(FailureState state, long now) {
+        int over = state.failures() - properties.getLockoutThreshold();
+        if (over < 0 || now - state.lastFailureMillis() > properties.getFailureWindow().toMillis()) {
+            return 0;
+        }
+        long max = properties.getLockoutMax().toMillis();
+        long lockout = over >= 62 ? max : Math.min(max, properties.getLockoutBase().toMillis() << Math.min(over, 30));
+        return Math.max(0, state.lastFailureMillis() + lockout - now);
+    }
+
+    private static String usernameKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("login.ratelimit.rejected").tag("reason", reason).register(meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * {@link LoginAttemptStore} shared by all instances through a Redis-protocol server
+ * (Redis, Dragonfly). Each operation is one atomic Lua script on a small hash, and every
+ * key expires once it would be back to its initial state, so memory tracks active clients.
+ */
+public class RedisLoginAttemptStore implements LoginAttemptStore {
+
+    private static final RedisScript<Long> CONSUME = new DefaultRedisScript<>("""
+            local state = redis.call('HMGET', KEYS[1], 't', 'ts')
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local now = tonumber(ARGV[3])
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            if tokens < 1 then
+                return math.ceil((1 - tokens) / rate)
+            end
+            redis.call('HSET', KEYS[1], 't', tostring(tokens - 1), 'ts', ARGV[3])
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RECORD_FAILURE = new DefaultRedisScript<>("""
+            local state = redis.call('HMGET', KEYS[1], 'n', 'ts')
+            local count = tonumber(state[1]) or 0
+            local ts = tonumber(state[2]) or 0
+            local now = tonumber(ARGV[2])
+            if now - ts > tonumber(ARGV[1]) then
+                count = 0
+            end
+            count = count + 1
+            redis.call('HSET', KEYS[1], 'n', count, 'ts', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return count
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final String keyPrefix;
+
+    public RedisLoginAttemptStore(StringRedisTemplate redis, String keyPrefix) {
+        this.redis = redis;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitProperties.Bucket bucket, long nowMillis) {
+        double rate = bucket.tokensPerMilli();
+        long ttlMillis = Math.max(1, (long) Math.ceil(bucket.getCapacity() / rate));
+        Long wait = redis.execute(CONSUME, List.of(keyPrefix + "login-bucket:" + key),
+                String.valueOf(bucket.getCapacity()), String.valueOf(rate), String.valueOf(nowMillis), String.valueOf(ttlMillis));
+        return wait == null ? 0 : wait;
+    }
+
+    @Override
+    public FailureState failures(String key) {
+        List<Object> state = redis.opsForHash().multiGet(failureKey(key), List.of("n", "ts"));
+        if (state.get(0) == null || state.get(1) == null) {
+            return FailureState.NONE;
+        }
+        return new FailureState(Integer.parseInt((String) state.get(0)), Long.parseLong((String) state.get(1)));
+    }
+
+    @Override
+    public FailureState recordFailure(String key, long windowMillis, long nowMillis) {
+        Long count = redis.execute(RECORD_FAILURE, List.of(failureKey(key)),
+                String.valueOf(windowMillis), String.valueOf(nowMillis));
+        return new FailureState(count == null ? 1 : count.intValue(), nowMillis);
+    }
+
+    @Override
+    public void reset(String key) {
+        redis.delete(failureKey(key));
+    }
+
+    private String failureKey(String key) {
+        return keyPrefix + "login-failures:" + key;
+    }
+}
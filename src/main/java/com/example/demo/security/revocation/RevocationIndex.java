@@ -0,0 +1,127 @@
+package com.example.demo.security.revocation;
+
+import com.example.demo.common.bloom.BloomFilter;
+import com.example.demo.security.jwt.JwtClaims;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of every revocation that can still matter, checked on each authenticated request.
+ * <p>
+ * Two kinds of entries are held. Revoked token ids and session ids sit in an exact map with the
+ * second they stop mattering, fronted by a {@link BloomFilter} so the common case (a token that was
+ * never revoked) costs a few bit probes and no map lookup. Per-user cutoffs reject every token
+ * issued at or before the cutoff millisecond, which covers password changes and disabled accounts
+ * without knowing the individual tokens. Cutoffs are compared at millisecond precision (see
+ * {@link JwtClaims#issuedAt()}), so a login right after a password change keeps its new token.
+ * <p>
+ * Lookups never lock. Writers and {@link #sweep(long)} serialize on one lock so a rebuilt filter
+ * can never miss an id added while it was being built.
+ */
+public class RevocationIndex {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long cutoffRetentionMillis;
+    private final ConcurrentHashMap<String, Long> revokedIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Long> userCutoffs = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile BloomFilter filter;
+
+    /**
+     * @param cutoffRetention how long after a user cutoff tokens issued before it can still be
+     *                        presented, i.e. the access token lifetime plus clock skew
+     */
+    public RevocationIndex(long expectedInsertions, double falsePositiveRate, Duration cutoffRetention) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.cutoffRetentionMillis = cutoffRetention.toMillis();
+        this.filter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        if (!userCutoffs.isEmpty()) {
+            Long cutoff = userCutoffs.get(claims.userId());
+            if (cutoff != null && claims.issuedAt().toEpochMilli() <= cutoff) {
+                return true;
+            }
+        }
+        BloomFilter current = filter;
+        return isListed(current, claims.tokenId()) || isListed(current, claims.sessionId());
+    }
+
+    /**
+     * Revokes a token id or session id until the given second.
+     */
+    public void revokeId(String id, long expiresAtEpochSecond) {
+        writeLock.lock();
+        try {
+            // Map first, so a filter hit always finds the entry.
+            revokedIds.merge(id, expiresAtEpochSecond, Math::max);
+            BloomFilter current = filter;
+            current.put(id);
+            if (current.approximateElementCount() > current.expectedInsertions()) {
+                rebuild();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Revokes every token of the user issued at or before the given millisecond.
+     */
+    public void revokeUser(UUID userId, long cutoffEpochMilli) {
+        userCutoffs.merge(userId, cutoffEpochMilli, Math::max);
+    }
+
+    /**
+     * Drops entries that can no longer match an unexpired token and, if any ids went, rebuilds
+     * the prefilter so it does not silt up.
+     *
+     * @return number of entries removed
+     */
+    public int sweep(long nowEpochSecond) {
+        int removed = 0;
+        for (var entry : userCutoffs.entrySet()) {
+            if (entry.getValue() + cutoffRetentionMillis < nowEpochSecond * 1000
+                    && userCutoffs.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        writeLock.lock();
+        try {
+            int before = revokedIds.size();
+            revokedIds.values().removeIf(expiresAt -> expiresAt < nowEpochSecond);
+            int removedIds = before - revokedIds.size();
+            if (removedIds > 0) {
+                rebuild();
+            }
+            return removed + removedIds;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int revokedIdCount() {
+        return revokedIds.size();
+    }
+
+    public int userCutoffCount() {
+        return userCutoffs.size();
+    }
+
+    private boolean isListed(BloomFilter current, String id) {
+        return id != null && current.mightContain(id) && revokedIds.containsKey(id);
+    }
+
+    // Caller holds writeLock.
+    private void rebuild() {
+        BloomFilter fresh = BloomFilter.create(Math.max(expectedInsertions, revokedIds.size() * 2L), falsePositiveRate);
+        revokedIds.keySet().forEach(fresh::put);
+        filter = fresh;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.security.revocation;
+
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.config.properties.TokenRevocationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Revokes access tokens before they expire and keeps every instance's {@link RevocationIndex}
+ * in step.
+ * <p>
+ * A revocation is applied to the local index straight away and written to
+ * {@code token_revocation}, joining the caller's transaction if there is one. Other instances
+ * pick it up on their next sync, which re-reads a short overlap window each time so a row that
+ * committed late is not missed; applying a row twice is harmless. On startup the index is loaded
+ * before the web server accepts requests. Rows are kept only as long as a token they cover could
+ * still be presented.
+ */
+@Service
+public class TokenRevocationService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO token_revocation (kind, subject, revoked_at, expires_at) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT kind, subject, revoked_at, expires_at FROM token_revocation WHERE revoked_at >= ? AND expires_at > ?";
+    private static final String PURGE_SQL = "DELETE FROM token_revocation WHERE expires_at < ?";
+
+    enum Kind {
+        TOKEN,
+        SESSION,
+        USER
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenRevocationProperties properties;
+    private final Duration retention;
+    private final RevocationIndex index;
+    private final Map<Kind, Counter> revocations = new EnumMap<>(Kind.class);
+
+    private volatile boolean running;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate,
+                                  TokenRevocationProperties properties,
+                                  JwtProperties jwtProperties,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.retention = jwtProperties.getAccessTokenTtl().plus(jwtProperties.getClockSkew());
+        this.index = new RevocationIndex(properties.getExpectedInsertions(), properties.getFalsePositiveRate(), retention);
+        for (Kind kind : Kind.values()) {
+            revocations.put(kind, Counter.builder("token.revocations")
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("token.revocation.index.ids", index, RevocationIndex::revokedIdCount)
+                .description("Revoked token and session ids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("token.revocation.index.users", index, RevocationIndex::userCutoffCount)
+                .description("Per-user revocation cutoffs held in memory")
+                .register(meterRegistry);
+    }
+
+    public RevocationIndex index() {
+        return index;
+    }
+
+    /**
+     * Revokes a single access token, e.g. on logout.
+     */
+    public void revokeToken(String tokenId) {
+        revoke(Kind.TOKEN, tokenId);
+    }
+
+    /**
+     * Revokes every access token issued for a login session.
+     */
+    public void revokeSession(String sessionId) {
+        revoke(Kind.SESSION, sessionId);
+    }
+
+    /**
+     * Revokes every access token the user holds right now; tokens issued later are unaffected.
+     */
+    public void revokeUser(UUID userId) {
+        revoke(Kind.USER, userId.toString());
+    }
+
+    @Override
+    public void start() {
+        // Fail startup rather than serve tokens that were revoked while we were down.
+        lastSync = load(Instant.EPOCH);
+        running = true;
+        logger.info("Loaded {} revoked ids and {} user cutoffs", index.revokedIdCount(), index.userCutoffCount());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Ahead of the web server, which starts in the last phase.
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval:PT1S}")
+    public void sync() {
+        if (!running) {
+            return;
+        }
+        try {
+            lastSync = load(lastSync.minus(properties.getSyncOverlap()));
+        } catch (DataAccessException e) {
+            // lastSync stays put, so the next run covers this window too.
+            logger.warn("Could not sync token revocations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.security.revocation.sweep-interval:PT1M}",
+            fixedDelayString = "${app.security.revocation.sweep-interval:PT1M}")
+    public void sweep() {
+        Instant now = Instant.now();
+        index.sweep(now.getEpochSecond());
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(now));
+        } catch (DataAccessException e) {
+            logger.warn("Could not purge expired token revocations: {}", e.getMessage());
+        }
+    }
+
+    private void revoke(Kind kind, String subject) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(retention);
+        apply(kind, subject, now, expiresAt);
+        jdbcTemplate.update(INSERT_SQL, kind.name(), subject, Timestamp.from(now), Timestamp.from(expiresAt));
+        revocations.get(kind).increment();
+    }
+
+    /**
+     * @return when this load started, the lower bound for the next one
+     */
+    private Instant load(Instant since) {
+        Instant started = Instant.now();
+        jdbcTemplate.query(SELECT_SQL, this::applyRow, Timestamp.from(since), Timestamp.from(started));
+        return started;
+    }
+
+    private void applyRow(ResultSet rs) throws SQLException {
+        Kind kind;
+        try {
+            kind = Kind.valueOf(rs.getString("kind"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring token revocation of unknown kind {}", rs.getString("kind"));
+            return;
+        }
+        apply(kind, rs.getString("subject"),
+                rs.getTimestamp("revoked_at").toInstant(), rs.getTimestamp("expires_at").toInstant());
+    }
+
+    private void apply(Kind kind, String subject, Instant revokedAt, Instant expiresAt) {
+        if (kind == Kind.USER) {
+            index.revokeUser(UUID.fromString(subject), revokedAt.toEpochMilli());
+        } else {
+            index.revokeId(subject, expiresAt.getEpochSecond());
+        }
+    }
+}
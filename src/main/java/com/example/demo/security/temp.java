@@ -1,4 +0,0 @@
-package com.example.demo.security;
-
-public class temp {
-}
@@ -1,4 +1,228 @@
 package com.example.demo.services;
 
+import com.example.demo.activity.UserActivityTracker;
+import com.example.demo.cache.UserLookupCache;
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.common.web.EntityTag;
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.mail.AccountMails;
+import com.example.demo.mail.MailOutbox;
+import com.example.demo.model.dto.AuthTokenResponse;
+import com.example.demo.model.dto.ChangePasswordRequest;
+import com.example.demo.model.dto.LoginRequest;
+import com.example.demo.model.dto.SignupRequest;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.exceptions.PreconditionFailedException;
+import com.example.demo.response.exceptions.ResourceNotFoundException;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.security.jwt.JwtService;
+import com.example.demo.session.DeviceSession;
+import com.example.demo.utils.enums.UserRoleEnum;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
 public class AuthService {
+
+    private static final String INVALID_CREDENTIALS = "Invalid username or password";
+
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtService jwtService;
+    private final SessionService sessionService;
+    private final JwtProperties jwtProperties;
+    private final AuthMetrics authMetrics;
+    private final LoginIdentifierBackfillService loginBackfill;
+    private final MailOutbox mailOutbox;
+    private final UserActivityTracker activityTracker;
+    // Short read-write transactions: a user change together with the mail announcing it, and
+    // credential reads, which must not be served by a lagging read replica (app.jdbc.replicas).
+    private final TransactionTemplate transactionTemplate;
+    // Compared against when the user does not exist, so both paths cost one hash verification.
+    private final String dummyHash;
+
+    public AuthService(UserRepository userRepository,
+                       UserLookupCache userLookupCache,
+                       PasswordHashingService passwordHashingService,
+                       JwtService jwtService,
+                       SessionService sessionService,
+                       JwtProperties jwtProperties,
+                       AuthMetrics authMetrics,
+                       LoginIdentifierBackfillService loginBackfill,
+                       MailOutbox mailOutbox,
+                       UserActivityTracker activityTracker,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtService = jwtService;
+        this.sessionService = sessionService;
+        this.jwtProperties = jwtProperties;
+        this.authMetrics = authMetrics;
+        this.loginBackfill = loginBackfill;
+        this.mailOutbox = mailOutbox;
+        this.activityTracker = activityTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dummyHash = passwordHashingService.hash("dummy-password-for-timing");
+    }
+
+    // Not transactional either: the hash is computed before the insert's transaction starts.
+    public AuthTokenResponse signup(SignupRequest request, String userAgent, String ipAddress) {
+        if (userRepository.existsByUsernameNormalized(UserEntity.normalizeLoginIdentifier(request.getUsername()))
+                || userRepository.existsByUsername(request.getUsername())) {
+            throw new BadRequestException("Username is already taken");
+        }
+        // Email login needs the email to identify one account; a second signup must not claim it.
+        if (userRepository.existsByEmailNormalized(UserEntity.normalizeLoginIdentifier(request.getEmail()))) {
+            throw new BadRequestException("Email is already registered");
+        }
+        UserEntity user = new UserEntity();
+        user.setUsername(request.getUsername());
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordHashingService.hash(request.getPassword()));
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setRole(UserRoleEnum.USER);
+        user.setEnabled(true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                mailOutbox.enqueue(AccountMails.welcome(user));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent signup took the name between the check above and the insert.
+            throw new BadRequestException("Username is already taken");
+        }
+        return issueToken(user, userAgent, ipAddress);
+    }
+
+    // Deliberately not transactional: no connection is held while waiting on the hashing executor.
+    public AuthTokenResponse login(LoginRequest request, String userAgent, String ipAddress) {
+        long started = authMetrics.start();
+        AuthMetrics.LoginOutcome outcome = AuthMetrics.LoginOutcome.ERROR;
+        try {
+            AuthTokenResponse response = authenticate(request, userAgent, ipAddress);
+            outcome = AuthMetrics.LoginOutcome.SUCCESS;
+            return response;
+        } catch (UnauthorizedException e) {
+            outcome = AuthMetrics.LoginOutcome.REJECTED;
+            throw e;
+        } finally {
+            authMetrics.recordLogin(started, outcome);
+        }
+    }
+
+    private AuthTokenResponse authenticate(LoginRequest request, String userAgent, String ipAddress) {
+        UserEntity user = findLoginUser(request.getUsername());
+        if (user == null) {
+            passwordHashingService.matches(request.getPassword(), dummyHash);
+            throw new UnauthorizedException(INVALID_CREDENTIALS);
+        }
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            activityTracker.loginFailed(user.getId());
+            throw new UnauthorizedException(INVALID_CREDENTIALS);
+        }
+        if (!Boolean.TRUE.equals(user.getEnabled())) {
+            throw new UnauthorizedException("Account is disabled");
+        }
+        activityTracker.loginSucceeded(user.getId(), ipAddress);
+        // The plain password is only available here, so this is where a changed work factor is applied.
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            rehash(user, passwordHashingService.hash(request.getPassword()));
+        }
+        boolean knownDevice = sessionService.list(user.getId()).stream()
+                .anyMatch(session -> Objects.equals(session.userAgent(), userAgent));
+        DeviceSession session = sessionService.open(user.getId(), userAgent, ipAddress);
+        if (!knownDevice) {
+            mailOutbox.enqueue(AccountMails.newDevice(user, session));
+        }
+        return issueToken(user, session);
+    }
+
+    /**
+     * Replaces the password and signs the user out everywhere, including the calling session.
+     * Not transactional, for the same reason as {@link #login}.
+     *
+     * @param ifMatch {@code If-Match} header, or null for an unconditional change. The save
+     *                merges the entity with the version checked here, so a change committed in
+     *                between still fails through {@code @Version}.
+     */
+    public void changePassword(UUID userId, ChangePasswordRequest request, String ifMatch) {
+        // Read on the primary, like findLoginUser: the version and password must be current.
+        UserEntity user = transactionTemplate.execute(status -> userRepository.findById(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (ifMatch != null && !EntityTag.of(user).matchesIfMatch(ifMatch)) {
+            throw new PreconditionFailedException("User has been modified since it was read");
+        }
+        if (!passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())) {
+            throw new BadRequestException("Current password is incorrect");
+        }
+        if (request.getNewPassword().equals(request.getCurrentPassword())) {
+            throw new BadRequestException("New password must differ from the current one");
+        }
+        user.setPassword(passwordHashingService.hash(request.getNewPassword()));
+        Instant changedAt = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user);
+            mailOutbox.enqueue(AccountMails.passwordChanged(user, changedAt));
+        });
+        sessionService.revokeAll(userId);
+    }
+
+    /**
+     * Stores a rehashed password with a targeted update rather than saving the detached cache
+     * copy, which could be stale and would either fail on {@code @Version} or write back old
+     * columns. A concurrent password change wins; the rehash is simply dropped.
+     */
+    private void rehash(UserEntity user, String newHash) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.replacePasswordHash(user.getId(), user.getPassword(), newHash) == 1) {
+                long newVersion = (user.getVersion() == null ? 0 : user.getVersion()) + 1;
+                user.setPassword(newHash);
+                user.setVersion(newVersion);
+                userLookupCache.userChanged(user, newVersion);
+            }
+        });
+    }
+
+    /**
+     * Runs in a read-write transaction so that, with replica routing, the password and enabled
+     * flag come from the primary: a replica behind a password change or a disable would let the
+     * old credentials in.
+     */
+    private UserEntity findLoginUser(String identifier) {
+        return transactionTemplate.execute(status -> {
+            Optional<UserEntity> user = userLookupCache.findByLoginIdentifier(identifier);
+            if (user.isEmpty() && !loginBackfill.isComplete()) {
+                // Rows created before the normalized columns existed are only found by exact username.
+                user = userLookupCache.findByUsername(identifier);
+            }
+            return user.orElse(null);
+        });
+    }
+
+    private AuthTokenResponse issueToken(UserEntity user, String userAgent, String ipAddress) {
+        return issueToken(user, sessionService.open(user.getId(), userAgent, ipAddress));
+    }
+
+    private AuthTokenResponse issueToken(UserEntity user, DeviceSession session) {
+        return AuthTokenResponse.builder()
+                .accessToken(jwtService.issue(user, session.sessionId()))
+                .tokenType("Bearer")
+                .expiresIn(jwtProperties.getAccessTokenTtl().toSeconds())
+                .userId(user.getId())
+                .role(user.getRole())
+                .sessionId(session.sessionId())
+                .build();
+    }
 }
@@ -0,0 +1,230 @@
+package com.example.demo.services;
+
+import com.example.demo.config.properties.LoginBackfillProperties;
+import com.example.demo.model.entity.UserEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fills {@code username_normalized} and {@code email_normalized} for users created before those
+ * columns existed. New and updated rows get them from {@link UserEntity} and the import path.
+ * <p>
+ * Rows are claimed in small batches with {@code FOR UPDATE SKIP LOCKED}, each batch in its own
+ * transaction, so only the rows being updated are ever locked and several instances can run the
+ * job at once. The values are computed with {@link UserEntity#normalizeLoginIdentifier} rather
+ * than SQL {@code lower()}, whose result depends on the database collation.
+ * <p>
+ * Once a run finds nothing left, the job adds {@value #UNIQUE_USERNAME_INDEX}, which makes live
+ * usernames unique ignoring case; until then signup only checks before it inserts. Usernames
+ * that already differ only in case are logged, and the index is retried each run until they are
+ * renamed. After that the job stops querying.
+ */
+@Service
+public class LoginIdentifierBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginIdentifierBackfillService.class);
+
+    // Served by the partial idx_app_user_login_backfill, which is empty once the job is done.
+    private static final String CLAIM_BATCH_SQL = "SELECT id, username, email FROM app_user "
+            + "WHERE username_normalized IS NULL OR email_normalized IS NULL LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_SQL =
+            "UPDATE app_user SET username_normalized = ?, email_normalized = ? WHERE id = ?";
+
+    private static final String UNIQUE_USERNAME_INDEX = "uk_app_user_username_normalized_live";
+
+    private static final String COLLISIONS_SQL = "SELECT username_normalized FROM app_user "
+            + "WHERE is_deleted = false AND username_normalized IS NOT NULL "
+            + "GROUP BY username_normalized HAVING count(*) > 1 ORDER BY username_normalized LIMIT 20";
+
+    private static final String INDEX_VALID_SQL = "SELECT i.indisvalid FROM pg_index i "
+            + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = '" + UNIQUE_USERNAME_INDEX + "'";
+
+    // Session-level advisory lock (any key unique to this job), so only one instance builds or
+    // drops the index at a time.
+    private static final long UNIQUE_INDEX_LOCK = 0x6c6f67696e5f756eL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoginBackfillProperties properties;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final Counter backfilledRows;
+
+    private volatile boolean complete;
+    private volatile boolean usernamesUnique;
+
+    public LoginIdentifierBackfillService(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          LoginBackfillProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.backfilledRows = Counter.builder("users.login.backfill.rows")
+                .description("Users whose normalized login columns were filled in")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true once every row has its normalized login columns, so lookups on them are complete
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Scheduled(initialDelayString = "PT5S", fixedDelayString = "${app.users.login-backfill.interval:PT1M}")
+    public void scheduledBackfill() {
+        if (properties.isEnabled() && !complete) {
+            backfill();
+        }
+        if (properties.isEnabled() && complete && !usernamesUnique) {
+            enforceUniqueUsernames();
+        }
+    }
+
+    /**
+     * Runs one pass, stopping when nothing is left or the batch limit is reached.
+     *
+     * @return rows filled by this pass, or 0 if a pass is already running in this instance
+     */
+    public long backfill() {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        long filled = 0;
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                Integer updated = transactionTemplate.execute(status -> runBatch());
+                int count = updated == null ? 0 : updated;
+                filled += count;
+                backfilledRows.increment(count);
+                if (count < properties.getBatchSize()) {
+                    // Rows skipped because another instance holds them are picked up next run.
+                    complete = nothingLeft();
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+            if (filled > 0) {
+                logger.info("Filled normalized login columns for {} users{}", filled, complete ? ", backfill complete" : "");
+            }
+            return filled;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Adds {@value #UNIQUE_USERNAME_INDEX} unless live usernames still differ only in case. Runs
+     * outside a transaction, as {@code CREATE INDEX CONCURRENTLY} requires; a build that fails,
+     * for instance because a colliding signup raced it, leaves an invalid index that the next
+     * call drops and rebuilds.
+     *
+     * @return true once the index exists and is valid
+     */
+    public boolean enforceUniqueUsernames() {
+        Boolean unique = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                if (!queryBoolean(statement, "SELECT pg_try_advisory_lock(" + UNIQUE_INDEX_LOCK + ")")) {
+                    return false;
+                }
+                try {
+                    return createUniqueUsernameIndex(statement);
+                } finally {
+                    statement.execute("SELECT pg_advisory_unlock(" + UNIQUE_INDEX_LOCK + ")");
+                }
+            }
+        });
+        usernamesUnique = Boolean.TRUE.equals(unique);
+        return usernamesUnique;
+    }
+
+    private boolean createUniqueUsernameIndex(Statement statement) throws SQLException {
+        Boolean valid = null;
+        try (ResultSet rs = statement.executeQuery(INDEX_VALID_SQL)) {
+            if (rs.next()) {
+                valid = rs.getBoolean(1);
+            }
+        }
+        if (Boolean.TRUE.equals(valid)) {
+            return true;
+        }
+        List<String> collisions = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(COLLISIONS_SQL)) {
+            while (rs.next()) {
+                collisions.add(rs.getString(1));
+            }
+        }
+        if (!collisions.isEmpty()) {
+            logger.warn("Usernames are not unique ignoring case until all but one account of each is renamed: {}",
+                    collisions);
+            return false;
+        }
+        if (valid != null) {
+            statement.execute("DROP INDEX CONCURRENTLY " + UNIQUE_USERNAME_INDEX);
+        }
+        try {
+            statement.execute("CREATE UNIQUE INDEX CONCURRENTLY " + UNIQUE_USERNAME_INDEX
+                    + " ON app_user (username_normalized) WHERE is_deleted = false");
+        } catch (SQLException e) {
+            logger.warn("Could not create {}, retrying on the next run: {}", UNIQUE_USERNAME_INDEX, e.getMessage());
+            return false;
+        }
+        logger.info("Created {}: live usernames are now unique ignoring case", UNIQUE_USERNAME_INDEX);
+        return true;
+    }
+
+    private static boolean queryBoolean(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private int runBatch() {
+        List<Object[]> updates = new ArrayList<>(properties.getBatchSize());
+        jdbcTemplate.query(CLAIM_BATCH_SQL, rs -> {
+            updates.add(new Object[]{
+                    UserEntity.normalizeLoginIdentifier(rs.getString("username")),
+                    UserEntity.normalizeLoginIdentifier(rs.getString("email")),
+                    rs.getObject("id")});
+        }, properties.getBatchSize());
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        return updates.size();
+    }
+
+    private boolean nothingLeft() {
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM app_user WHERE username_normalized IS NULL OR email_normalized IS NULL)",
+                Boolean.class);
+        return !Boolean.TRUE.equals(pending);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.services;
+
+import com.example.demo.config.properties.SessionProperties;
+import com.example.demo.response.exceptions.ResourceNotFoundException;
+import com.example.demo.security.revocation.TokenRevocationService;
+import com.example.demo.session.DeviceSession;
+import com.example.demo.session.SessionStore;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class SessionService {
+
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+
+    private final SessionStore sessionStore;
+    private final SessionProperties properties;
+    private final TokenRevocationService revocationService;
+
+    public SessionService(SessionStore sessionStore, SessionProperties properties, TokenRevocationService revocationService) {
+        this.sessionStore = sessionStore;
+        this.properties = properties;
+        this.revocationService = revocationService;
+    }
+
+    /**
+     * Registers a new session for a successful login or signup.
+     */
+    public DeviceSession open(UUID userId, String userAgent, String ipAddress) {
+        Instant now = Instant.now();
+        DeviceSession session = new DeviceSession(
+                UUID.randomUUID().toString(),
+                userId,
+                truncate(userAgent),
+                ipAddress,
+                now,
+                now.plus(properties.getTtl()));
+        sessionStore.save(session);
+        return session;
+    }
+
+    public List<DeviceSession> list(UUID userId) {
+        return sessionStore.listByUser(userId);
+    }
+
+    /**
+     * Removes the session and revokes every access token issued for it.
+     */
+    public void revoke(UUID userId, String sessionId) {
+        if (!sessionStore.revoke(userId, sessionId)) {
+            throw new ResourceNotFoundException("Session not found");
+        }
+        revocationService.revokeSession(sessionId);
+    }
+
+    /**
+     * Removes all of the user's sessions and revokes every access token they currently hold.
+     */
+    public int revokeAll(UUID userId) {
+        int revoked = sessionStore.revokeAll(userId);
+        revocationService.revokeUser(userId);
+        return revoked;
+    }
+
+    /**
+     * Ends the session the presented token belongs to, or just that token if it has no session.
+     */
+    public void logout(UUID userId, String sessionId, String tokenId) {
+        if (sessionId == null) {
+            revocationService.revokeToken(tokenId);
+            return;
+        }
+        // The session may already have expired from the registry; its tokens are revoked regardless.
+        sessionStore.revoke(userId, sessionId);
+        revocationService.revokeSession(sessionId);
+    }
+
+    private static String truncate(String userAgent) {
+        if (userAgent == null || userAgent.length() <= MAX_USER_AGENT_LENGTH) {
+            return userAgent;
+        }
+        return userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.services;
+
+import com.example.demo.config.properties.SoftDeletePurgeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Purges users that have been soft deleted for longer than the retention window.
+ * <p>
+ * Work is done in bounded batches, each a single statement in its own transaction, oldest
+ * deletions first via {@code idx_app_user_soft_deleted_at}. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so a purge never waits on a row someone else holds and
+ * several instances can run the job at once without coordination.
+ */
+@Service
+public class SoftDeletePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurgeService.class);
+
+    private static final String CLAIM_BATCH = "WITH doomed AS ("
+            + "SELECT id FROM app_user WHERE is_deleted = true AND soft_deleted_at < ? "
+            + "ORDER BY soft_deleted_at LIMIT ? FOR UPDATE SKIP LOCKED), "
+            + "moved AS (DELETE FROM app_user u USING doomed d WHERE u.id = d.id RETURNING u.*) ";
+
+    // Counts the deleted rows, not the inserted ones: a row already archived still leaves app_user.
+    private static final String ARCHIVE_BATCH_SQL = CLAIM_BATCH
+            + ", archived AS (INSERT INTO app_user_archive (id, username, soft_deleted_at, archived_at, data) "
+            + "SELECT m.id, m.username, m.soft_deleted_at, now(), to_jsonb(m) - 'password' FROM moved m "
+            + "ON CONFLICT (id) DO NOTHING) "
+            + "SELECT count(*) FROM moved";
+
+    private static final String DELETE_BATCH_SQL = CLAIM_BATCH + "SELECT count(*) FROM moved";
+
+    private static final String BACKLOG_SQL =
+            "SELECT count(*) FROM app_user WHERE is_deleted = true AND soft_deleted_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SoftDeletePurgeProperties properties;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lastRunPurged = new AtomicLong();
+    private final Counter purgedRows;
+    private final Counter batches;
+    private final Timer runDuration;
+
+    public SoftDeletePurgeService(JdbcTemplate jdbcTemplate,
+                                  SoftDeletePurgeProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.purgedRows = Counter.builder("softdelete.purge.rows")
+                .tag("mode", properties.getMode().name().toLowerCase(Locale.ROOT))
+                .description("Soft-deleted users removed from app_user")
+                .register(meterRegistry);
+        this.batches = Counter.builder("softdelete.purge.batches").register(meterRegistry);
+        this.runDuration = Timer.builder("softdelete.purge.duration").register(meterRegistry);
+        Gauge.builder("softdelete.purge.backlog", backlog, AtomicLong::get)
+                .description("Rows past retention still waiting to be purged, as of the last run")
+                .register(meterRegistry);
+        Gauge.builder("softdelete.purge.last.run.rows", lastRunPurged, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.soft-delete.purge.interval:PT15M}",
+            fixedDelayString = "${app.soft-delete.purge.interval:PT15M}")
+    public void scheduledPurge() {
+        if (properties.isEnabled()) {
+            purge();
+        }
+    }
+
+    /**
+     * Runs one purge pass, stopping when nothing is left or the batch limit is reached.
+     *
+     * @return rows purged by this pass, or 0 if a pass is already running in this instance
+     */
+    public long purge() {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        long purged = 0;
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()));
+            String sql = properties.getMode() == SoftDeletePurgeProperties.Mode.ARCHIVE ? ARCHIVE_BATCH_SQL : DELETE_BATCH_SQL;
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                int moved = runBatch(sql, cutoff);
+                batches.increment();
+                purged += moved;
+                purgedRows.increment(moved);
+                if (moved < properties.getBatchSize()) {
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+            Long remaining = jdbcTemplate.queryForObject(BACKLOG_SQL, Long.class, cutoff);
+            backlog.set(remaining == null ? 0 : remaining);
+            lastRunPurged.set(purged);
+            if (purged > 0) {
+                logger.info("Purged {} soft-deleted users ({}), {} remaining past retention",
+                        purged, properties.getMode(), backlog.get());
+            }
+            return purged;
+        } finally {
+            runDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            runLock.unlock();
+        }
+    }
+
+    private int runBatch(String sql, Timestamp cutoff) {
+        Integer moved = jdbcTemplate.queryForObject(sql, Integer.class, cutoff, properties.getBatchSize());
+        return moved == null ? 0 : moved;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
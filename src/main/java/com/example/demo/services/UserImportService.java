@@ -0,0 +1,528 @@
+package com.example.demo.services;
+
+import com.example.demo.audit.AuditAction;
+import com.example.demo.audit.AuditEvent;
+import com.example.demo.audit.AuditEventPublisher;
+import com.example.demo.config.properties.UserImportProperties;
+import com.example.demo.model.dto.UserImportError;
+import com.example.demo.model.dto.UserImportResult;
+import com.example.demo.model.dto.UserImportRow;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.exceptions.ServiceUnavailableException;
+import com.example.demo.utils.enums.UserRoleEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports large numbers of accounts from a streamed CSV or NDJSON body.
+ * <p>
+ * Rows are read and validated incrementally, in batches of {@code app.users.import.batch-size}.
+ * Each batch's passwords are hashed in parallel, then the batch is written with a single
+ * {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO NOTHING RETURNING} statement,
+ * bypassing JPA entirely. Invalid rows, and usernames or emails that are taken ignoring case, as
+ * signup rejects them, are reported per line without aborting the import; rows inserted before a
+ * failure stay committed.
+ * <p>
+ * Audit columns, the normalized login columns, the initial {@code version}, the audit trail and
+ * the username filter are filled the same way the JPA path fills them. Only one import runs at a time.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[abxy]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final String ENTITY_TYPE = UserEntity.class.getSimpleName();
+    private static final Long INITIAL_VERSION = 0L;
+
+    private static final String INSERT_SQL = "INSERT INTO app_user (id, username, email, password, first_name, last_name, "
+            + "role, enabled, created_at, updated_at, created_by, updated_by, is_deleted, version, "
+            + "username_normalized, email_normalized) "
+            + "SELECT t.id, t.username, t.email, t.password, t.first_name, t.last_name, t.role, true, ?, ?, ?, ?, false, 0, "
+            + "t.username_normalized, t.email_normalized "
+            + "FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) "
+            + "AS t(id, username, email, password, first_name, last_name, role, username_normalized, email_normalized) "
+            + "ON CONFLICT DO NOTHING RETURNING username";
+
+    // One BitmapOr over idx_app_user_username_normalized and idx_app_user_email_normalized.
+    private static final String TAKEN_SQL = "SELECT username_normalized, email_normalized FROM app_user "
+            + "WHERE is_deleted = false AND (username_normalized = ANY (?) OR email_normalized = ANY (?))";
+
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("username", "email", "password", "firstname", "lastname");
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuditorAware<String> auditorAware;
+    private final AuditEventPublisher auditEventPublisher;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+    private final UserImportProperties properties;
+    private final ExecutorService hashExecutor;
+    private final ReentrantLock importLock = new ReentrantLock();
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             AuditorAware<String> auditorAware,
+                             AuditEventPublisher auditEventPublisher,
+                             UsernameAvailabilityService usernameAvailabilityService,
+                             UserImportProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.auditorAware = auditorAware;
+        this.auditEventPublisher = auditEventPublisher;
+        this.usernameAvailabilityService = usernameAvailabilityService;
+        this.properties = properties;
+        int threads = properties.getHashThreads() > 0
+                ? properties.getHashThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashExecutor = Executors.newFixedThreadPool(threads, namedDaemonThreads());
+        this.importedRows = Counter.builder("users.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.failedRows = Counter.builder("users.import.rows").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    public UserImportResult importUsers(InputStream body, Format format) {
+        if (!importLock.tryLock()) {
+            throw new ServiceUnavailableException("Another import is already running");
+        }
+        try {
+            return doImport(body, format);
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    private UserImportResult doImport(InputStream body, Format format) {
+        long started = System.nanoTime();
+        String actor = auditorAware.getCurrentAuditor().orElse(null);
+        Progress progress = new Progress(properties.getMaxReportedErrors());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            List<ParsedRow> batch = new ArrayList<>(properties.getBatchSize());
+            ParsedRow row;
+            while ((row = rows.next()) != null) {
+                progress.totalRows++;
+                String error = row.error() != null ? row.error() : validate(row.row());
+                if (error != null) {
+                    progress.fail(row, error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= properties.getBatchSize()) {
+                    writeBatch(batch, actor, progress);
+                    batch.clear();
+                }
+            }
+            writeBatch(batch, actor, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import body", e);
+        }
+
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("User import by {}: {} rows, {} imported, {} failed in {} ms",
+                actor, progress.totalRows, progress.imported, progress.failed, durationMillis);
+        return UserImportResult.builder()
+                .totalRows(progress.totalRows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .durationMillis(durationMillis)
+                .build();
+    }
+
+    private String validate(UserImportRow row) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeBatch(List<ParsedRow> batch, String actor, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Duplicates inside one statement would make RETURNING ambiguous; the first occurrence wins.
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ParsedRow> distinct = new ArrayList<>(batch.size());
+        for (ParsedRow row : batch) {
+            String username = UserEntity.normalizeLoginIdentifier(row.row().getUsername());
+            String email = UserEntity.normalizeLoginIdentifier(row.row().getEmail());
+            if (seenUsernames.contains(username)) {
+                progress.fail(row, "Duplicate username in import");
+            } else if (seenEmails.contains(email)) {
+                progress.fail(row, "Duplicate email in import");
+            } else {
+                seenUsernames.add(username);
+                seenEmails.add(email);
+                distinct.add(row);
+            }
+        }
+
+        // Checked before hashing, so rejected rows cost no bcrypt work. A concurrent signup can
+        // still take a username before the insert; ON CONFLICT reports that row below.
+        Taken taken = findTaken(seenUsernames, seenEmails);
+        List<ParsedRow> unique = new ArrayList<>(distinct.size());
+        for (ParsedRow row : distinct) {
+            if (taken.usernames().contains(UserEntity.normalizeLoginIdentifier(row.row().getUsername()))) {
+                progress.fail(row, "Username is already taken");
+            } else if (taken.emails().contains(UserEntity.normalizeLoginIdentifier(row.row().getEmail()))) {
+                progress.fail(row, "Email is already registered");
+            } else {
+                unique.add(row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashAll(unique);
+        int size = unique.size();
+        UUID[] ids = new UUID[size];
+        String[] usernames = new String[size];
+        String[] emails = new String[size];
+        String[] firstNames = new String[size];
+        String[] lastNames = new String[size];
+        String[] roles = new String[size];
+        String[] usernamesNormalized = new String[size];
+        String[] emailsNormalized = new String[size];
+        for (int i = 0; i < size; i++) {
+            UserImportRow row = unique.get(i).row();
+            ids[i] = UUID.randomUUID();
+            usernames[i] = row.getUsername();
+            emails[i] = row.getEmail();
+            firstNames[i] = row.getFirstName();
+            lastNames[i] = row.getLastName();
+            roles[i] = (row.getRole() == null ? UserRoleEnum.USER : row.getRole()).name();
+            usernamesNormalized[i] = UserEntity.normalizeLoginIdentifier(row.getUsername());
+            emailsNormalized[i] = UserEntity.normalizeLoginIdentifier(row.getEmail());
+        }
+        String[] passwords = hashes.toArray(String[]::new);
+
+        // Same clock and precision as @CreationTimestamp / @UpdateTimestamp on the JPA path.
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Set<String> inserted = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setTimestamp(1, timestamp);
+            statement.setTimestamp(2, timestamp);
+            statement.setString(3, actor);
+            statement.setString(4, actor);
+            statement.setArray(5, connection.createArrayOf("uuid", ids));
+            statement.setArray(6, textArray(connection, usernames));
+            statement.setArray(7, textArray(connection, emails));
+            statement.setArray(8, textArray(connection, passwords));
+            statement.setArray(9, textArray(connection, firstNames));
+            statement.setArray(10, textArray(connection, lastNames));
+            statement.setArray(11, textArray(connection, roles));
+            statement.setArray(12, textArray(connection, usernamesNormalized));
+            statement.setArray(13, textArray(connection, emailsNormalized));
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        Instant occurredAt = now.atZone(ZoneId.systemDefault()).toInstant();
+        for (int i = 0; i < size; i++) {
+            if (inserted.contains(usernames[i])) {
+                progress.imported++;
+                importedRows.increment();
+                usernameAvailabilityService.recordUsername(usernames[i]);
+                auditEventPublisher.publish(new AuditEvent(
+                        ENTITY_TYPE, ids[i], AuditAction.CREATE, actor, null, INITIAL_VERSION, occurredAt));
+            } else {
+                progress.fail(unique.get(i), "Username is already taken");
+            }
+        }
+    }
+
+    private Taken findTaken(Set<String> usernames, Set<String> emails) {
+        Taken taken = new Taken(new HashSet<>(), new HashSet<>());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TAKEN_SQL);
+            statement.setArray(1, textArray(connection, usernames.toArray(String[]::new)));
+            statement.setArray(2, textArray(connection, emails.toArray(String[]::new)));
+            return statement;
+        }, rs -> {
+            // Either column may match; only values from this batch are of interest.
+            String username = rs.getString(1);
+            String email = rs.getString(2);
+            if (usernames.contains(username)) {
+                taken.usernames().add(username);
+            }
+            if (emails.contains(email)) {
+                taken.emails().add(email);
+            }
+        });
+        return taken;
+    }
+
+    private List<String> hashAll(List<ParsedRow> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            String password = row.row().getPassword();
+            if (properties.isAcceptEncodedPasswords() && BCRYPT_HASH.matcher(password).matches()) {
+                futures.add(CompletableFuture.completedFuture(password));
+            } else {
+                futures.add(hashExecutor.submit(() -> passwordEncoder.encode(password)));
+            }
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Import interrupted");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private static Array textArray(Connection connection, String[] values) throws SQLException {
+        return connection.createArrayOf("text", values);
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Progress {
+        private final int maxReportedErrors;
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        private Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(ParsedRow row, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportError(row.line(), row.row() == null ? null : row.row().getUsername(), message));
+            }
+        }
+    }
+
+    /**
+     * Normalized usernames and emails of a batch that live users already have.
+     */
+    private record Taken(Set<String> usernames, Set<String> emails) {
+    }
+
+    /**
+     * A row as read from the body, or the reason it could not be parsed.
+     */
+    private record ParsedRow(long line, UserImportRow row, String error) {
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row, or null at end of input
+         */
+        ParsedRow next() throws IOException;
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(line, objectMapper.readValue(text, UserImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 style CSV with a header row naming the columns (case-insensitive, {@code _} ignored).
+     * Quoted fields may contain commas and doubled quotes, but not line breaks.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            line++;
+            if (header == null) {
+                throw new BadRequestException("CSV body is empty");
+            }
+            List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            if (names == null) {
+                throw new BadRequestException("CSV header has an unterminated quoted field");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : CSV_REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new BadRequestException("CSV header is missing column: " + required);
+                }
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> fields = split(text);
+                if (fields == null) {
+                    return new ParsedRow(line, null, "Unterminated quoted field");
+                }
+                UserImportRow row = new UserImportRow();
+                row.setUsername(field(fields, "username"));
+                row.setEmail(field(fields, "email"));
+                row.setPassword(field(fields, "password"));
+                row.setFirstName(field(fields, "firstname"));
+                row.setLastName(field(fields, "lastname"));
+                String role = field(fields, "role");
+                if (role != null && !role.isBlank()) {
+                    try {
+                        row.setRole(UserRoleEnum.valueOf(role.trim().toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        return new ParsedRow(line, row, "role: unknown role " + role);
+                    }
+                }
+                return new ParsedRow(line, row, null);
+            }
+            return null;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= fields.size() ? null : fields.get(index);
+        }
+
+        // Returns null if a quoted field is not closed on this line.
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
@@ -1,4 +1,88 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.UserLookupCache;
+import com.example.demo.common.pagination.KeysetCursor;
+import com.example.demo.common.web.EntityTag;
+import com.example.demo.model.dto.CursorPageResponse;
+import com.example.demo.model.dto.UserProfileResponse;
+import com.example.demo.model.dto.UserSummaryResponse;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.response.exceptions.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
 public class UserService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final SessionService sessionService;
+
+    public UserProfileResponse getProfile(UUID userId) {
+        return userLookupCache.findById(userId)
+                .map(UserProfileResponse::from)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    /**
+     * Tag of the user's current state, without loading the entity when it is not cached.
+     */
+    public EntityTag currentTag(UUID userId) {
+        return userLookupCache.findVersion(userId)
+                .map(version -> new EntityTag(userId, version))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    /**
+     * Disables a live account and revokes its sessions and tokens; a no-op when no user matches.
+     *
+     * @param identifier username or email in any letter case; usernames that differ only in case
+     *                   match none of them, so one account's failures never disable another
+     */
+    @Transactional
+    public void disableAccount(String identifier) {
+        userRepository.findByNormalizedLoginIdentifier(identifier).ifPresent(user -> {
+            if (Boolean.TRUE.equals(user.getEnabled())) {
+                user.setEnabled(false);
+                userRepository.save(user);
+                sessionService.revokeAll(user.getId());
+            }
+        });
+    }
+
+    /**
+     * Lists users newest first using keyset pagination.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserSummaryResponse> listUsers(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query.
+        Limit limit = Limit.of(pageSize + 1);
+        List<UserSummaryResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findSummariesNewestFirst(limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = userRepository.findSummariesBefore(position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummaryResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            UserSummaryResponse last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(List.copyOf(items), nextCursor, hasMore);
+    }
 }
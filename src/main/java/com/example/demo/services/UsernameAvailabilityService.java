@@ -0,0 +1,324 @@
+package com.example.demo.services;
+
+import com.example.demo.common.bloom.BloomFilter;
+import com.example.demo.config.properties.UsernameFilterProperties;
+import com.example.demo.model.dto.UsernameFilterStats;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username taken?" without a database round trip for the common case.
+ * <p>
+ * A Bloom filter over all live usernames is loaded from a snapshot (or rebuilt from
+ * {@link UserRepository}) at startup. Usernames are keyed by
+ * {@link UserEntity#normalizeLoginIdentifier}, since signup rejects a name that differs from a
+ * taken one only in case. A negative answer from the filter is definitive;
+ * only a possible hit falls back to the database. New users are added as they are
+ * persisted; soft-deleted usernames cannot be removed from a Bloom filter, so they are
+ * counted as stale entries and trigger a rebuild once they pass a configured ratio.
+ */
+@Service
+public class UsernameAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameAvailabilityService.class);
+
+    // Tolerance for clock skew and in-flight transactions when catching up from a snapshot.
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(5);
+
+    // Leads the snapshot file. Older snapshots, keyed by the raw username, start with their build
+    // time instead and are rebuilt: a filter missing the normalized keys would answer "available".
+    private static final long SNAPSHOT_FORMAT = 0x55534e46_00000002L;
+
+    private final UserRepository userRepository;
+    private final UsernameFilterProperties properties;
+    // Read-write on purpose: routed to the primary, so a rebuild sees users a lagging replica has not.
+    private final TransactionTemplate primaryTransaction;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Orders recordUsername against the filter swap, so no username lands only in the retired filter.
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter pending;
+    private volatile Instant builtAt;
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final Counter definitelyAvailable;
+    private final Counter databaseFallbacks;
+    private final Counter falsePositiveCounter;
+
+    public UsernameAvailabilityService(UserRepository userRepository,
+                                       UsernameFilterProperties properties,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+
+        this.definitelyAvailable = Counter.builder("username.filter.checks")
+                .tag("result", "filter_negative")
+                .description("Availability checks answered by the Bloom filter alone")
+                .register(meterRegistry);
+        this.databaseFallbacks = Counter.builder("username.filter.checks")
+                .tag("result", "database_fallback")
+                .description("Availability checks that needed a database lookup")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("username.filter.false.positives")
+                .description("Filter hits that the database reported as free")
+                .register(meterRegistry);
+        Gauge.builder("username.filter.fpp.expected", this, s -> s.filter == null ? Double.NaN : s.filter.expectedFpp())
+                .description("False-positive probability implied by the filter's fill ratio")
+                .register(meterRegistry);
+        Gauge.builder("username.filter.fpp.observed", this, UsernameAvailabilityService::observedFpp)
+                .description("False positives divided by all checks for names not in the database")
+                .register(meterRegistry);
+        Gauge.builder("username.filter.elements", this, s -> s.filter == null ? 0 : s.filter.approximateElementCount())
+                .register(meterRegistry);
+        Gauge.builder("username.filter.stale.entries", staleEntries, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the persisted filter, or builds a new one, once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!properties.isEnabled()) {
+            logger.info("Username filter disabled, availability checks go to the database");
+            return;
+        }
+        if (!loadSnapshot()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return true if no live user holds the given username in any letter case
+     */
+    public boolean isAvailable(String username) {
+        String normalized = UserEntity.normalizeLoginIdentifier(username);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(normalized)) {
+            filterNegatives.increment();
+            definitelyAvailable.increment();
+            return true;
+        }
+        databaseFallbacks.increment();
+        // The same check as signup; the exact match covers rows the login backfill has not reached.
+        boolean taken = userRepository.existsByUsernameNormalized(normalized)
+                || userRepository.existsByUsername(username);
+        if (!taken && current != null) {
+            falsePositives.increment();
+            falsePositiveCounter.increment();
+        }
+        return !taken;
+    }
+
+    /**
+     * Records a newly persisted username, in the letter case it was stored with.
+     */
+    public void recordUsername(String username) {
+        String normalized = UserEntity.normalizeLoginIdentifier(username);
+        swapLock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(normalized);
+            }
+            BloomFilter building = pending;
+            if (building != null) {
+                building.put(normalized);
+            }
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    /**
+     * Records that a username is no longer held by a live user.
+     */
+    public void recordRemoval(String username) {
+        if (filter != null) {
+            staleEntries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the database, sized for the current user count plus headroom,
+     * and persists it. Lookups keep using the old filter until the new one is complete.
+     */
+    public UsernameFilterStats rebuild() {
+        rebuildLock.lock();
+        try {
+            long users = userRepository.count();
+            long capacity = Math.max(properties.getExpectedInsertions(), (long) (users * properties.getGrowthFactor()));
+            BloomFilter fresh = BloomFilter.create(capacity, properties.getFalsePositiveRate());
+            Instant startedAt = Instant.now();
+            long started = System.nanoTime();
+
+            pending = fresh;
+            try {
+                primaryTransaction.executeWithoutResult(status -> {
+                    try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                        usernames.map(UserEntity::normalizeLoginIdentifier).forEach(fresh::put);
+                    }
+                });
+                swapLock.lock();
+                try {
+                    filter = fresh;
+                    pending = null;
+                } finally {
+                    swapLock.unlock();
+                }
+                builtAt = startedAt;
+                staleEntries.set(0);
+            } finally {
+                pending = null;
+            }
+            logger.info("Username filter rebuilt: {} users, {} bits, k={} in {} ms",
+                    users, fresh.bitSize(), fresh.hashFunctions(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+            saveSnapshot();
+            return stats();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds when too many stale entries accumulated or the filter outgrew its sizing.
+     */
+    @Scheduled(fixedDelayString = "${app.username-filter.maintenance-interval:PT5M}",
+            initialDelayString = "${app.username-filter.maintenance-interval:PT5M}")
+    public void maintain() {
+        BloomFilter current = filter;
+        if (current == null || rebuildLock.isLocked()) {
+            return;
+        }
+        long elements = Math.max(1, current.approximateElementCount());
+        boolean tooStale = (double) staleEntries.get() / elements > properties.getStaleRatioThreshold();
+        boolean overfull = elements > current.expectedInsertions()
+                || current.expectedFpp() > current.targetFpp() * 2;
+        if (tooStale || overfull) {
+            logger.info("Username filter needs rebuild (stale={}, overfull={})", tooStale, overfull);
+            rebuild();
+        }
+    }
+
+    public UsernameFilterStats stats() {
+        BloomFilter current = filter;
+        UsernameFilterStats.UsernameFilterStatsBuilder builder = UsernameFilterStats.builder()
+                .staleEntries(staleEntries.get())
+                .observedFpp(observedFpp());
+        if (current != null) {
+            builder.expectedInsertions(current.expectedInsertions())
+                    .bitSize(current.bitSize())
+                    .hashFunctions(current.hashFunctions())
+                    .approximateElements(current.approximateElementCount())
+                    .targetFpp(current.targetFpp())
+                    .expectedFpp(current.expectedFpp())
+                    .builtAt(LocalDateTime.ofInstant(builtAt, ZoneId.systemDefault()));
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (filter != null) {
+            saveSnapshot();
+        }
+    }
+
+    private double observedFpp() {
+        long fp = falsePositives.sum();
+        long negatives = filterNegatives.sum() + fp;
+        return negatives == 0 ? 0.0 : (double) fp / negatives;
+    }
+
+    private boolean loadSnapshot() {
+        Path path = properties.getSnapshotPath();
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        BloomFilter loaded;
+        Instant snapshotBuiltAt;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readLong() != SNAPSHOT_FORMAT) {
+                logger.info("Username filter snapshot {} is in an older format, rebuilding", path);
+                return false;
+            }
+            snapshotBuiltAt = Instant.ofEpochMilli(data.readLong());
+            loaded = BloomFilter.readFrom(in);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable username filter snapshot {}", path, e);
+            return false;
+        }
+        if (snapshotBuiltAt.isBefore(Instant.now().minus(properties.getSnapshotMaxAge()))) {
+            logger.info("Username filter snapshot from {} is too old, rebuilding", snapshotBuiltAt);
+            return false;
+        }
+
+        // Add users created after the snapshot; the created_at overlap covers skew and late commits.
+        LocalDateTime since = LocalDateTime.ofInstant(snapshotBuiltAt.minus(CATCH_UP_OVERLAP), ZoneId.systemDefault());
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<String> usernames = userRepository.streamUsernamesCreatedSince(since)) {
+                usernames.map(UserEntity::normalizeLoginIdentifier).forEach(loaded::put);
+            }
+        });
+        filter = loaded;
+        builtAt = snapshotBuiltAt;
+        logger.info("Username filter loaded from snapshot {} (~{} entries)", path, loaded.approximateElementCount());
+        return true;
+    }
+
+    private void saveSnapshot() {
+        BloomFilter current = filter;
+        Path path = properties.getSnapshotPath();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "username-filter", ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeLong(SNAPSHOT_FORMAT);
+                data.writeLong(builtAt.toEpochMilli());
+                current.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not persist username filter to {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.session;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A login session and the device it was opened from.
+ *
+ * @param sessionId id carried in the access token's {@code sid} claim
+ */
+public record DeviceSession(
+        String sessionId,
+        UUID userId,
+        String userAgent,
+        String ipAddress,
+        Instant createdAt,
+        Instant expiresAt
+) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo.session;
+
+import com.example.demo.common.concurrent.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-instance {@link SessionStore}.
+ * <p>
+ * Sessions are grouped per user and the users are spread over lock stripes, so operations on
+ * different users rarely contend and per-user operations never look at other users' sessions.
+ * Expiry is driven by a {@link HierarchicalTimingWheel} instead of scanning all sessions.
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    private static final Comparator<DeviceSession> NEWEST_FIRST =
+            Comparator.comparing(DeviceSession::createdAt).reversed();
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final HierarchicalTimingWheel<DeviceSession> expiryWheel;
+    private final Clock clock;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter expired;
+
+    public InMemorySessionStore(int stripeCount, Duration expiryTick, Clock clock, MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = size - 1;
+        this.clock = clock;
+        // 64 slots x 4 levels spans 64^4 ticks, about 194 days at one-second ticks.
+        this.expiryWheel = new HierarchicalTimingWheel<>(expiryTick.toMillis(), 64, 4, clock.millis());
+        this.expired = Counter.builder("sessions.expired")
+                .description("Sessions removed by the expiry wheel")
+                .register(meterRegistry);
+        Gauge.builder("sessions.active", active, AtomicInteger::get)
+                .tag("store", "memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(DeviceSession session) {
+        Stripe stripe = stripeFor(session.userId());
+        stripe.lock.lock();
+        try {
+            DeviceSession previous = stripe.byUser
+                    .computeIfAbsent(session.userId(), id -> new LinkedHashMap<>())
+                    .put(session.sessionId(), session);
+            if (previous == null) {
+                active.incrementAndGet();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        expiryWheel.schedule(session, session.expiresAt().toEpochMilli());
+    }
+
+    @Override
+    public Optional<DeviceSession> find(UUID userId, String sessionId) {
+        Stripe stripe = stripeFor(userId);
+        stripe.lock.lock();
+        try {
+            Map<String, DeviceSession> sessions = stripe.byUser.get(userId);
+            DeviceSession session = sessions == null ? null : sessions.get(sessionId);
+            return session == null || session.isExpired(clock.instant()) ? Optional.empty() : Optional.of(session);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public List<DeviceSession> listByUser(UUID userId) {
+        List<DeviceSession> result = new ArrayList<>();
+        Stripe stripe = stripeFor(userId);
+        stripe.lock.lock();
+        try {
+            Map<String, DeviceSession> sessions = stripe.byUser.get(userId);
+            if (sessions != null) {
+                // The wheel may lag by a tick; hide anything already past its deadline.
+                Instant now = clock.instant();
+                for (DeviceSession session : sessions.values()) {
+                    if (!session.isExpired(now)) {
+                        result.add(session);
+                    }
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    @Override
+    public boolean revoke(UUID userId, String sessionId) {
+        Stripe stripe = stripeFor(userId);
+        stripe.lock.lock();
+        try {
+            Map<String, DeviceSession> sessions = stripe.byUser.get(userId);
+            if (sessions == null || sessions.remove(sessionId) == null) {
+                return false;
+            }
+            if (sessions.isEmpty()) {
+                stripe.byUser.remove(userId);
+            }
+            active.decrementAndGet();
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        Stripe stripe = stripeFor(userId);
+        stripe.lock.lock();
+        try {
+            Map<String, DeviceSession> sessions = stripe.byUser.remove(userId);
+            int removed = sessions == null ? 0 : sessions.size();
+            active.addAndGet(-removed);
+            return removed;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the expiry wheel to the current time. Entries for sessions that were revoked or
+     * replaced in the meantime are ignored.
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.expiry-tick:PT1S}")
+    public void expire() {
+        expiryWheel.advanceTo(clock.millis(), (scheduled, deadline) -> {
+            Stripe stripe = stripeFor(scheduled.userId());
+            stripe.lock.lock();
+            try {
+                Map<String, DeviceSession> sessions = stripe.byUser.get(scheduled.userId());
+                if (sessions != null && sessions.remove(scheduled.sessionId(), scheduled)) {
+                    if (sessions.isEmpty()) {
+                        stripe.byUser.remove(scheduled.userId());
+                    }
+                    active.decrementAndGet();
+                    expired.increment();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    public int size() {
+        return active.get();
+    }
+
+    private Stripe stripeFor(UUID userId) {
+        int hash = userId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<UUID, Map<String, DeviceSession>> byUser = new HashMap<>();
+    }
+}
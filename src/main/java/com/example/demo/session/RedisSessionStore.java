@@ -0,0 +1,138 @@
+package com.example.demo.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link SessionStore} on any Redis-protocol server (Redis, Dragonfly, KeyDB), shared by all
+ * application instances.
+ * <p>
+ * Each session is a JSON string under {@code session:{userId}:<sid>} that expires on its own,
+ * and {@code user-sessions:{userId}} is a sorted set of the user's session ids scored by expiry
+ * time. Listing and revoke-all read only that set, so they cost O(sessions of the user); stale
+ * members are trimmed with {@code ZREMRANGEBYSCORE} as they are read. The {@code {userId}}
+ * hash tag keeps a user's keys on one cluster slot so the multi-key commands stay legal.
+ */
+public class RedisSessionStore implements SessionStore {
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final String keyPrefix;
+
+    public RedisSessionStore(StringRedisTemplate redis, ObjectMapper objectMapper, Clock clock, String keyPrefix) {
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void save(DeviceSession session) {
+        String json = toJson(session);
+        Duration ttl = Duration.between(clock.instant(), session.expiresAt());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        String indexKey = indexKey(session.userId());
+        redis.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.opsForValue().set(sessionKey(session.userId(), session.sessionId()), json, ttl);
+                operations.opsForZSet().add(indexKey, session.sessionId(), session.expiresAt().toEpochMilli());
+                operations.opsForZSet().removeRangeByScore(indexKey, Double.NEGATIVE_INFINITY, clock.millis());
+                // Sessions share one TTL, so the newest one always outlives the rest of the index.
+                operations.expire(indexKey, ttl);
+                return operations.exec();
+            }
+        });
+    }
+
+    @Override
+    public Optional<DeviceSession> find(UUID userId, String sessionId) {
+        String json = redis.opsForValue().get(sessionKey(userId, sessionId));
+        return Optional.ofNullable(json).map(this::fromJson);
+    }
+
+    @Override
+    public List<DeviceSession> listByUser(UUID userId) {
+        List<String> ids = liveSessionIds(userId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> values = redis.opsForValue().multiGet(ids.stream().map(id -> sessionKey(userId, id)).toList());
+        List<DeviceSession> sessions = new ArrayList<>(ids.size());
+        if (values != null) {
+            for (String json : values) {
+                if (json != null) {
+                    sessions.add(fromJson(json));
+                }
+            }
+        }
+        return sessions;
+    }
+
+    @Override
+    public boolean revoke(UUID userId, String sessionId) {
+        Boolean deleted = redis.delete(sessionKey(userId, sessionId));
+        redis.opsForZSet().remove(indexKey(userId), sessionId);
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        List<String> ids = liveSessionIds(userId);
+        List<String> keys = new ArrayList<>(ids.size() + 1);
+        ids.forEach(id -> keys.add(sessionKey(userId, id)));
+        keys.add(indexKey(userId));
+        Long deleted = redis.delete(keys);
+        // The index key itself is counted when it existed.
+        return deleted == null ? 0 : (int) Math.max(0, deleted - 1);
+    }
+
+    // Newest first: the score is the expiry time and every session gets the same TTL.
+    private List<String> liveSessionIds(UUID userId) {
+        String indexKey = indexKey(userId);
+        redis.opsForZSet().removeRangeByScore(indexKey, Double.NEGATIVE_INFINITY, clock.millis());
+        Set<String> ids = redis.opsForZSet().reverseRange(indexKey, 0, -1);
+        return ids == null ? List.of() : List.copyOf(ids);
+    }
+
+    private String sessionKey(UUID userId, String sessionId) {
+        return keyPrefix + "session:{" + userId + "}:" + sessionId;
+    }
+
+    private String indexKey(UUID userId) {
+        return keyPrefix + "user-sessions:{" + userId + "}";
+    }
+
+    private String toJson(DeviceSession session) {
+        try {
+            return objectMapper.writeValueAsString(session);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize session", e);
+        }
+    }
+
+    private DeviceSession fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, DeviceSession.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read session", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.session;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Registry of live login sessions, indexed per user.
+ * <p>
+ * Every operation is addressed by user id, so listing and revoking cost O(sessions of that
+ * user) regardless of how many sessions exist overall. Expired sessions are never returned.
+ */
+public interface SessionStore {
+
+    void save(DeviceSession session);
+
+    Optional<DeviceSession> find(UUID userId, String sessionId);
+
+    /**
+     * @return the user's live sessions, most recently created first
+     */
+    List<DeviceSession> listByUser(UUID userId);
+
+    /**
+     * @return true if the session existed
+     */
+    boolean revoke(UUID userId, String sessionId);
+
+    /**
+     * @return number of sessions removed
+     */
+    int revokeAll(UUID userId);
+}
@@ -3,5 +3,27 @@ package com.example.demo.utils.enums;
 public enum UserRoleEnum {
     ADMIN,
     USER,
-    MODERATOR
+    MODERATOR;
+
+    private static final int[] GRANTED = new int[values().length];
+
+    static {
+        GRANTED[USER.ordinal()] = USER.bit();
+        GRANTED[MODERATOR.ordinal()] = MODERATOR.bit() | USER.bit();
+        GRANTED[ADMIN.ordinal()] = ADMIN.bit() | MODERATOR.bit() | USER.bit();
+    }
+
+    /**
+     * Bit identifying this role in a role mask.
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Mask of every role this role satisfies, following ADMIN > MODERATOR > USER.
+     */
+    public int grantedMask() {
+        return GRANTED[ordinal()];
+    }
 }
@@ -0,0 +1,76 @@
+-- Full schema as Hibernate's ddl-auto plus schema.sql produce it, for profiles that run Flyway
+-- (fast-start) instead. Existing databases built by the default profile are baselined at this
+-- version, so this script only ever runs against an empty database. Later changes go into new
+-- V<n>__*.sql files and, while the default profile still uses it, into schema.sql as well.
+
+CREATE TABLE app_user (
+    id                  UUID         NOT NULL PRIMARY KEY,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    created_by          VARCHAR(100),
+    updated_by          VARCHAR(100),
+    is_deleted          BOOLEAN      NOT NULL,
+    soft_deleted_at     TIMESTAMP(6),
+    soft_deleted_by     VARCHAR(100),
+    version             BIGINT,
+    email               VARCHAR(255) NOT NULL,
+    username            VARCHAR(255) NOT NULL,
+    password            VARCHAR(255) NOT NULL,
+    role                VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'USER', 'MODERATOR')),
+    first_name          VARCHAR(255) NOT NULL,
+    last_name           VARCHAR(255) NOT NULL,
+    enabled             BOOLEAN      NOT NULL,
+    username_normalized VARCHAR(255),
+    email_normalized    VARCHAR(255)
+);
+
+-- Usernames are unique among live users only, so a soft-deleted account frees its name.
+CREATE UNIQUE INDEX uk_app_user_username_live ON app_user (username) WHERE is_deleted = false;
+
+-- Keyset pagination of the admin user listing; partial to match the entity's soft-delete filter.
+CREATE INDEX idx_app_user_created_at_id ON app_user (created_at DESC, id DESC) WHERE is_deleted = false;
+
+-- Drives the purge job; only soft-deleted rows are indexed.
+CREATE INDEX idx_app_user_soft_deleted_at ON app_user (soft_deleted_at) WHERE is_deleted = true;
+
+-- Case-insensitive login by username or email; see UserEntity.normalizeLoginIdentifier.
+CREATE INDEX idx_app_user_username_normalized ON app_user (username_normalized) INCLUDE (id) WHERE is_deleted = false;
+CREATE INDEX idx_app_user_email_normalized ON app_user (email_normalized) INCLUDE (id) WHERE is_deleted = false;
+CREATE INDEX idx_app_user_login_backfill ON app_user (id) WHERE username_normalized IS NULL OR email_normalized IS NULL;
+
+CREATE TABLE audit_event (
+    id          BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(100) NOT NULL,
+    entity_id   UUID,
+    action      VARCHAR(20)  NOT NULL,
+    actor       VARCHAR(100),
+    old_version BIGINT,
+    new_version BIGINT,
+    occurred_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX idx_audit_event_entity ON audit_event (entity_type, entity_id);
+CREATE INDEX idx_audit_event_occurred_at ON audit_event (occurred_at);
+
+-- Purged users, kept as JSON (without the password hash) so the archive survives schema changes.
+CREATE TABLE app_user_archive (
+    id              UUID PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL,
+    soft_deleted_at TIMESTAMP,
+    archived_at     TIMESTAMP    NOT NULL,
+    data            JSONB        NOT NULL
+);
+
+CREATE INDEX idx_app_user_archive_archived_at ON app_user_archive (archived_at);
+
+-- Access tokens revoked before expiry; see TokenRevocationService.
+CREATE TABLE token_revocation (
+    id         BIGSERIAL PRIMARY KEY,
+    kind       VARCHAR(16)  NOT NULL,
+    subject    VARCHAR(100) NOT NULL,
+    revoked_at TIMESTAMPTZ  NOT NULL,
+    expires_at TIMESTAMPTZ  NOT NULL
+);
+
+CREATE INDEX idx_token_revocation_revoked_at ON token_revocation (revoked_at);
+CREATE INDEX idx_token_revocation_expires_at ON token_revocation (expires_at);
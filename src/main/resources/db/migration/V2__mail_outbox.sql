@@ -0,0 +1,20 @@
+-- Account emails waiting for MailDispatcher; see MailOutbox. Databases baselined at V1 from the
+-- default profile already have the table from schema.sql, hence IF NOT EXISTS.
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    kind             VARCHAR(40)  NOT NULL,
+    recipient        VARCHAR(320) NOT NULL,
+    recipient_domain VARCHAR(255) NOT NULL,
+    subject          VARCHAR(255) NOT NULL,
+    body             TEXT         NOT NULL,
+    dedupe_key       VARCHAR(200) NOT NULL UNIQUE,
+    status           VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+    attempts         INT          NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMPTZ  NOT NULL,
+    created_at       TIMESTAMPTZ  NOT NULL,
+    sent_at          TIMESTAMPTZ,
+    last_error       VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due ON mail_outbox (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_sent_at ON mail_outbox (sent_at) WHERE status = 'SENT';
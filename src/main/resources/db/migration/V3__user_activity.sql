@@ -0,0 +1,9 @@
+-- Login activity written behind by UserActivityTracker; see schema.sql for the fillfactor.
+-- Same statements as schema.sql, which baselined databases have already run: the default is set
+-- separately, so existing rows keep NULL, which the tracker reads as 0, in both profiles.
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP(6);
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_login_ip VARCHAR(45);
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS failed_login_count INTEGER;
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_failed_login_at TIMESTAMP(6);
+ALTER TABLE app_user ALTER COLUMN failed_login_count SET DEFAULT 0;
+ALTER TABLE app_user SET (fillfactor = 90);
@@ -0,0 +1,109 @@
+-- Tables and indexes that are not managed by Hibernate's ddl-auto.
+-- Runs on every start (spring.sql.init), so every statement must be idempotent.
+-- The fast-start profile uses db/migration instead; keep the two in step.
+
+CREATE TABLE IF NOT EXISTS audit_event (
+    id          BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(100) NOT NULL,
+    entity_id   UUID,
+    action      VARCHAR(20)  NOT NULL,
+    actor       VARCHAR(100),
+    old_version BIGINT,
+    new_version BIGINT,
+    occurred_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_event_entity ON audit_event (entity_type, entity_id);
+CREATE INDEX IF NOT EXISTS idx_audit_event_occurred_at ON audit_event (occurred_at);
+
+-- Keyset pagination of the admin user listing; partial to match the entity's soft-delete filter.
+CREATE INDEX IF NOT EXISTS idx_app_user_created_at_id ON app_user (created_at DESC, id DESC) WHERE is_deleted = false;
+
+-- Usernames are unique among live users only, so a soft-deleted account frees its name.
+-- Replaces the column-level unique constraint older Hibernate runs created. The DO body is a
+-- plain string literal so the script splitter does not cut it at its semicolons.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_app_user_username_live ON app_user (username) WHERE is_deleted = false;
+DO '
+DECLARE
+    uk_name text;
+BEGIN
+    FOR uk_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = ''app_user''::regclass
+          AND c.contype = ''u''
+          AND cardinality(c.conkey) = 1
+          AND a.attname = ''username''
+    LOOP
+        EXECUTE format(''ALTER TABLE app_user DROP CONSTRAINT %I'', uk_name);
+    END LOOP;
+END';
+
+-- Drives the purge job; only soft-deleted rows are indexed.
+CREATE INDEX IF NOT EXISTS idx_app_user_soft_deleted_at ON app_user (soft_deleted_at) WHERE is_deleted = true;
+
+-- Purged users, kept as JSON (without the password hash) so the archive survives schema changes.
+CREATE TABLE IF NOT EXISTS app_user_archive (
+    id              UUID PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL,
+    soft_deleted_at TIMESTAMP,
+    archived_at     TIMESTAMP    NOT NULL,
+    data            JSONB        NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_app_user_archive_archived_at ON app_user_archive (archived_at);
+
+-- Access tokens revoked before expiry: kind TOKEN or SESSION holds the jti / sid, USER holds the
+-- user id and revokes everything issued up to revoked_at. Rows are dropped once expires_at passes.
+CREATE TABLE IF NOT EXISTS token_revocation (
+    id         BIGSERIAL PRIMARY KEY,
+    kind       VARCHAR(16)  NOT NULL,
+    subject    VARCHAR(100) NOT NULL,
+    revoked_at TIMESTAMPTZ  NOT NULL,
+    expires_at TIMESTAMPTZ  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocation_revoked_at ON token_revocation (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_token_revocation_expires_at ON token_revocation (expires_at);
+
+-- Case-insensitive login by username or email. Both columns hold UserEntity.normalizeLoginIdentifier
+-- values; id is included so existence checks are index-only scans. Emails are not unique.
+-- Usernames become unique ignoring case once LoginIdentifierBackfillService has filled every row
+-- and added uk_app_user_username_normalized_live, which waits until no live usernames collide.
+CREATE INDEX IF NOT EXISTS idx_app_user_username_normalized ON app_user (username_normalized) INCLUDE (id) WHERE is_deleted = false;
+CREATE INDEX IF NOT EXISTS idx_app_user_email_normalized ON app_user (email_normalized) INCLUDE (id) WHERE is_deleted = false;
+
+-- Rows still waiting for LoginIdentifierBackfillService; empty once the backfill has finished.
+CREATE INDEX IF NOT EXISTS idx_app_user_login_backfill ON app_user (id) WHERE username_normalized IS NULL OR email_normalized IS NULL;
+
+-- Account emails written in the same transaction as the change they announce and sent by
+-- MailDispatcher. dedupe_key makes enqueueing idempotent; sent rows are kept for sent-retention.
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    kind             VARCHAR(40)  NOT NULL,
+    recipient        VARCHAR(320) NOT NULL,
+    recipient_domain VARCHAR(255) NOT NULL,
+    subject          VARCHAR(255) NOT NULL,
+    body             TEXT         NOT NULL,
+    dedupe_key       VARCHAR(200) NOT NULL UNIQUE,
+    status           VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+    attempts         INT          NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMPTZ  NOT NULL,
+    created_at       TIMESTAMPTZ  NOT NULL,
+    sent_at          TIMESTAMPTZ,
+    last_error       VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due ON mail_outbox (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_sent_at ON mail_outbox (sent_at) WHERE status = 'SENT';
+
+-- Login activity, written behind by UserActivityTracker without touching version. None of these
+-- columns is indexed and pages keep 10% free space, so the updates can stay HOT (heap-only):
+-- no index entries and less WAL per flush.
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP(6);
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_login_ip VARCHAR(45);
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS failed_login_count INTEGER;
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS last_failed_login_at TIMESTAMP(6);
+ALTER TABLE app_user ALTER COLUMN failed_login_count SET DEFAULT 0;
+ALTER TABLE app_user SET (fillfactor = 90);
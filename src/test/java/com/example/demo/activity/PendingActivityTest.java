@@ -0,0 +1,70 @@
+package com.example.demo.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PendingActivityTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void failuresAccumulateUntilASuccess() {
+        PendingActivity activity = PendingActivity.failure(T0)
+                .then(PendingActivity.failure(T0.plusSeconds(1)))
+                .then(PendingActivity.failure(T0.plusSeconds(2)));
+
+        assertThat(activity.failedDelta()).isEqualTo(3);
+        assertThat(activity.resetFailures()).isFalse();
+        assertThat(activity.lastFailedAt()).isEqualTo(T0.plusSeconds(2));
+        assertThat(activity.lastLoginAt()).isNull();
+        assertThat(activity.events()).isEqualTo(3);
+    }
+
+    @Test
+    void aSuccessRestartsTheFailureCount() {
+        PendingActivity activity = PendingActivity.failure(T0)
+                .then(PendingActivity.failure(T0.plusSeconds(1)))
+                .then(PendingActivity.success(T0.plusSeconds(2), "10.0.0.1"))
+                .then(PendingActivity.failure(T0.plusSeconds(3)));
+
+        assertThat(activity.resetFailures()).isTrue();
+        assertThat(activity.failedDelta()).isEqualTo(1);
+        assertThat(activity.lastLoginAt()).isEqualTo(T0.plusSeconds(2));
+        assertThat(activity.lastLoginIp()).isEqualTo("10.0.0.1");
+        assertThat(activity.lastFailedAt()).isEqualTo(T0.plusSeconds(3));
+        assertThat(activity.events()).isEqualTo(4);
+    }
+
+    @Test
+    void laterLoginWinsTimeAndAddress() {
+        PendingActivity activity = PendingActivity.success(T0, "10.0.0.1")
+                .then(PendingActivity.success(T0.plusSeconds(1), "10.0.0.2"));
+
+        assertThat(activity.lastLoginAt()).isEqualTo(T0.plusSeconds(1));
+        assertThat(activity.lastLoginIp()).isEqualTo("10.0.0.2");
+        assertThat(activity.failedDelta()).isEqualTo(0);
+    }
+
+    @Test
+    void keepsEarlierValuesTheLaterActivityDoesNotSet() {
+        PendingActivity activity = PendingActivity.success(T0, "10.0.0.1")
+                .then(PendingActivity.failure(T0.plusSeconds(1)));
+
+        assertThat(activity.lastLoginAt()).isEqualTo(T0);
+        assertThat(activity.lastLoginIp()).isEqualTo("10.0.0.1");
+        assertThat(activity.resetFailures()).isTrue();
+        assertThat(activity.failedDelta()).isEqualTo(1);
+    }
+
+    @Test
+    void orderMatters() {
+        PendingActivity failures = PendingActivity.failure(T0).then(PendingActivity.failure(T0.plusSeconds(1)));
+        PendingActivity success = PendingActivity.success(T0.plusSeconds(2), "10.0.0.1");
+
+        assertThat(failures.then(success).failedDelta()).isEqualTo(0);
+        assertThat(success.then(failures).failedDelta()).isEqualTo(2);
+    }
+}
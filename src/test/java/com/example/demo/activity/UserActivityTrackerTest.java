@@ -0,0 +1,186 @@
+package com.example.demo.activity;
+
+import com.example.demo.config.properties.ActivityTrackingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserActivityTrackerTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private ActivityTrackingProperties properties;
+    private RecordingJdbcTemplate jdbc;
+    private UserActivityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ActivityTrackingProperties();
+        jdbc = new RecordingJdbcTemplate();
+        tracker = new UserActivityTracker(jdbc, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void coalescesEachUsersActivityIntoOneRow() {
+        tracker.loginFailed(alice);
+        tracker.loginFailed(alice);
+        tracker.loginSucceeded(bob, "10.0.0.2");
+        tracker.loginSucceeded(bob, "10.0.0.3");
+
+        assertThat(tracker.flush()).isEqualTo(2);
+
+        assertThat(jdbc.statements).hasSize(1);
+        Map<UUID, Row> rows = jdbc.statements.get(0);
+        assertThat(rows.get(alice).failedDelta()).isEqualTo(2);
+        assertThat(rows.get(alice).resetFailures()).isFalse();
+        assertThat(rows.get(bob).lastLoginIp()).isEqualTo("10.0.0.3");
+        assertThat(rows.get(bob).resetFailures()).isTrue();
+        assertThat(tracker.flush()).isEqualTo(0);
+    }
+
+    @Test
+    void writesInBatchesOfTheConfiguredSize() {
+        properties.setBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            tracker.loginSucceeded(UUID.randomUUID(), "10.0.0.1");
+        }
+
+        assertThat(tracker.flush()).isEqualTo(5);
+        assertThat(jdbc.statements).hasSize(3);
+    }
+
+    @Test
+    void failedFlushIsRetriedBeforeActivityThatArrivedDuringIt() {
+        tracker.loginFailed(alice);
+        tracker.loginFailed(alice);
+        // The user logs in successfully while the flush carrying the two failures is failing.
+        jdbc.failNext(() -> tracker.loginSucceeded(alice, "10.0.0.9"));
+
+        assertThat(tracker.flush()).isEqualTo(0);
+        assertThat(tracker.flush()).isEqualTo(1);
+
+        Row row = jdbc.statements.get(0).get(alice);
+        // The success came last: the count restarts instead of keeping the two failures.
+        assertThat(row.resetFailures()).isTrue();
+        assertThat(row.failedDelta()).isEqualTo(0);
+        assertThat(row.lastLoginIp()).isEqualTo("10.0.0.9");
+        assertThat(row.lastFailedAt()).isNotNull();
+    }
+
+    @Test
+    void failuresAfterAFailedFlushOfASuccessStillCount() {
+        tracker.loginSucceeded(alice, "10.0.0.1");
+        jdbc.failNext(() -> tracker.loginFailed(alice));
+
+        tracker.flush();
+        tracker.flush();
+
+        Row row = jdbc.statements.get(0).get(alice);
+        assertThat(row.resetFailures()).isTrue();
+        assertThat(row.failedDelta()).isEqualTo(1);
+        assertThat(row.lastLoginIp()).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    void stopWritesWhatIsPending() {
+        tracker.start();
+        tracker.loginSucceeded(alice, "10.0.0.1");
+
+        tracker.stop();
+
+        assertThat(jdbc.statements).hasSize(1);
+        assertThat(tracker.isRunning()).isFalse();
+    }
+
+    @Test
+    void disabledTrackingRecordsNothing() {
+        properties.setEnabled(false);
+
+        tracker.loginSucceeded(alice, "10.0.0.1");
+        tracker.loginFailed(alice);
+
+        assertThat(tracker.flush()).isEqualTo(0);
+        assertThat(jdbc.statements).isEmpty();
+    }
+
+    record Row(Timestamp lastLoginAt, String lastLoginIp, boolean resetFailures, int failedDelta, Timestamp lastFailedAt) {
+    }
+
+    /**
+     * Runs the flush statement creator against proxies and records the unnest arrays by user.
+     */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<Map<UUID, Row>> statements = new ArrayList<>();
+        private Runnable failNext;
+
+        void failNext(Runnable duringFailedFlush) {
+            this.failNext = duringFailedFlush;
+        }
+
+        @Override
+        public int update(PreparedStatementCreator creator) {
+            if (failNext != null) {
+                Runnable during = failNext;
+                failNext = null;
+                during.run();
+                throw new QueryTimeoutException("statement timeout");
+            }
+            Map<Integer, Object[]> arrays = new HashMap<>();
+            try {
+                creator.createPreparedStatement(connection(arrays));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            Map<UUID, Row> rows = new HashMap<>();
+            Object[] ids = arrays.get(1);
+            for (int i = 0; i < ids.length; i++) {
+                rows.put((UUID) ids[i], new Row((Timestamp) arrays.get(2)[i], (String) arrays.get(3)[i],
+                        (Boolean) arrays.get(4)[i], (Integer) arrays.get(5)[i], (Timestamp) arrays.get(6)[i]));
+            }
+            statements.add(rows);
+            return rows.size();
+        }
+
+        private static Connection connection(Map<Integer, Object[]> arrays) {
+            PreparedStatement statement = proxy(PreparedStatement.class, (method, args) -> {
+                if (method.equals("setArray")) {
+                    arrays.put((Integer) args[0], (Object[]) ((Array) args[1]).getArray());
+                }
+                return null;
+            });
+            return proxy(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> statement;
+                case "createArrayOf" -> proxy(Array.class, (arrayMethod, ignored) ->
+                        arrayMethod.equals("getArray") ? args[1] : null);
+                default -> null;
+            });
+        }
+
+        private interface Handler {
+            Object handle(String method, Object[] args) throws Exception;
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(method.getName(), args)));
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.services.PasswordHashingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * End-to-end throughput of the auth API: boots the whole application on an embedded Postgres
+ * and drives a weighted mix of signup, login, token refresh, profile reads and admin listing
+ * over HTTP, through Tomcat, the security filter chain and the controllers.
+ * <p>
+ * Throughput and p50/p95/p99 latency per operation are written to {@code bench.report}
+ * (JSON). The run fails when throughput drops, or p95/p99 latency rises, against
+ * {@code bench.baseline} by more than {@code bench.tolerance}; latency must also be worse by at
+ * least {@code bench.latencySlackMs} so sub-millisecond jitter does not count. Without a baseline
+ * the test fails when {@code bench.requireBaseline} is set, as the benchmark profile does, and is
+ * otherwise reported as skipped, so a missing file never passes as a green gate. Record a baseline
+ * on the machine that runs the suite with {@code -Dbench.updateBaseline=true} (see the profile in
+ * pom.xml). Everything runs offline: the embedded Postgres binaries ship in a jar and the
+ * in-memory stores are used.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=AuthThroughputBenchmarkTest}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.security.rate-limit.enabled=false",
+        "app.mail.enabled=false",
+        "logging.level.root=WARN"
+})
+class AuthThroughputBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 20_000);
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 16);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("bench.warmupSeconds", 10));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("bench.seconds", 30));
+    private static final String MIX = System.getProperty("bench.mix", "signup=5,login=15,refresh=10,profile=60,admin=10");
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("bench.tolerance", "0.20"));
+    private static final double LATENCY_SLACK_MS = Double.parseDouble(System.getProperty("bench.latencySlackMs", "2"));
+    private static final Path REPORT = Path.of(System.getProperty("bench.report", "target/benchmark/auth-throughput.json"));
+    private static final Path BASELINE = Path.of(System.getProperty("bench.baseline",
+            "src/test/resources/benchmark/auth-throughput-baseline.json"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("bench.updateBaseline");
+    private static final boolean REQUIRE_BASELINE = Boolean.getBoolean("bench.requireBaseline");
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthThroughputBenchmarkTest.class);
+
+    private static final String PASSWORD = "bench-password-1";
+    private static final String USER_AGENT = "auth-throughput-bench";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    private String adminToken;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        postgres.registerDataSource(registry);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        // One hash for every seeded user; computing USERS bcrypt hashes would dominate the setup.
+        String hash = passwordHashingService.hash(PASSWORD);
+        jdbcTemplate.update("INSERT INTO app_user (id, username, email, password, first_name, last_name, role, enabled, "
+                + "created_at, updated_at, is_deleted, version, username_normalized, email_normalized) "
+                + "SELECT gen_random_uuid(), 'bench' || g, 'bench' || g || '@example.com', ?, 'Bench', 'User', "
+                + "CASE WHEN g = 0 THEN 'ADMIN' ELSE 'USER' END, true, now(), now(), false, 0, "
+                + "'bench' || g, 'bench' || g || '@example.com' FROM generate_series(0, ?) g", hash, USERS);
+        jdbcTemplate.execute("ANALYZE app_user");
+        adminToken = login("bench0").token();
+    }
+
+    @AfterAll
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void authMixMeetsBaseline() throws Exception {
+        Map<Operation, Integer> weights = parseMix(MIX);
+        Operation[] wheel = weights.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+
+        long started = System.nanoTime();
+        long measureFrom = started + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASURE.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Recorder>> results = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            int client = i;
+            results.add(clients.submit(() -> runClient(client, wheel, measureFrom, measureUntil)));
+        }
+        Recorder total = new Recorder();
+        for (Future<Recorder> result : results) {
+            total.merge(result.get());
+        }
+        clients.shutdown();
+
+        Map<String, Object> report = report(total, weights);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writeValue(REPORT.toFile(), report);
+        logger.warn("Auth throughput report written to {}:\n{}", REPORT, objectMapper.writeValueAsString(report));
+
+        for (Operation operation : weights.keySet()) {
+            assertThat(total.errors(operation)).as("%s errors", operation.key()).isZero();
+            assertThat(total.count(operation)).as("%s requests", operation.key()).isPositive();
+        }
+
+        if (UPDATE_BASELINE) {
+            Files.createDirectories(BASELINE.toAbsolutePath().getParent());
+            Files.copy(REPORT, BASELINE, StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Baseline written to {}", BASELINE);
+            return;
+        }
+        if (!Files.exists(BASELINE)) {
+            String missing = "No baseline at " + BASELINE + "; run with -Dbench.updateBaseline=true to record one";
+            if (REQUIRE_BASELINE) {
+                fail(missing);
+            }
+            assumeTrue(false, missing);
+        }
+        List<String> regressions = compare(objectMapper.readTree(REPORT.toFile()), objectMapper.readTree(BASELINE.toFile()));
+        assertThat(regressions).as("regressions against " + BASELINE).isEmpty();
+    }
+
+    private Recorder runClient(int client, Operation[] wheel, long measureFrom, long measureUntil) throws Exception {
+        Recorder recorder = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Each client keeps one signed-in user, as a real client keeps its token.
+        Session session = login("bench" + (1 + client % USERS));
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            int status;
+            try {
+                status = switch (operation) {
+                    case SIGNUP -> signup();
+                    case LOGIN -> login("bench" + (1 + random.nextInt(USERS))).status();
+                    case REFRESH -> {
+                        Session refreshed = refresh(session);
+                        session = refreshed.status() == 200 ? refreshed : session;
+                        yield refreshed.status();
+                    }
+                    case PROFILE -> send(get("/api/secured/users/me", session.token()));
+                    case ADMIN_LIST -> send(get("/api/secured/admin/users?size=20", adminToken));
+                };
+            } catch (IOException e) {
+                status = -1;
+            }
+            if (now >= measureFrom) {
+                recorder.record(operation, System.nanoTime() - now, status >= 200 && status < 300);
+            }
+        }
+        return recorder;
+    }
+
+    private int signup() throws Exception {
+        String username = "s" + UUID.randomUUID().toString().replace("-", "").substring(0, 20);
+        String body = objectMapper.writeValueAsString(Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", PASSWORD,
+                "firstName", "Bench",
+                "lastName", "Signup"));
+        return send(post("/api/auth/signup", body, null));
+    }
+
+    private Session login(String username) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "password", PASSWORD));
+        HttpResponse<String> response = http.send(post("/api/auth/login", body, null), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return new Session(username, null, response.statusCode());
+        }
+        return new Session(username, objectMapper.readTree(response.body()).path("payload").path("accessToken").asText(), 200);
+    }
+
+    /**
+     * There is no refresh-token endpoint; a client rotates its access token by signing in again
+     * from the same device and logging out the old session.
+     */
+    private Session refresh(Session current) throws Exception {
+        Session next = login(current.username());
+        if (next.status() != 200) {
+            return next;
+        }
+        int logout = send(post("/api/secured/users/me/logout", "", current.token()));
+        return logout == 200 ? next : new Session(current.username(), null, logout);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("User-Agent", USER_AGENT);
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private Map<String, Object> report(Recorder recorder, Map<Operation, Integer> weights) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Operation operation : weights.keySet()) {
+            long[] latencies = recorder.latencies(operation);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("weight", weights.get(operation));
+            stats.put("requests", latencies.length);
+            stats.put("errors", recorder.errors(operation));
+            stats.put("throughputPerSecond", round(latencies.length / (double) MEASURE.toSeconds()));
+            stats.put("p50Ms", percentileMillis(latencies, 0.50));
+            stats.put("p95Ms", percentileMillis(latencies, 0.95));
+            stats.put("p99Ms", percentileMillis(latencies, 0.99));
+            operations.put(operation.key(), stats);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("clients", CLIENTS);
+        report.put("users", USERS);
+        report.put("warmupSeconds", WARMUP.toSeconds());
+        report.put("measureSeconds", MEASURE.toSeconds());
+        report.put("mix", MIX);
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("totalThroughputPerSecond", round(recorder.total() / (double) MEASURE.toSeconds()));
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static List<String> compare(JsonNode current, JsonNode baseline) {
+        List<String> regressions = new ArrayList<>();
+        checkThroughput(regressions, "total", current.path("totalThroughputPerSecond"), baseline.path("totalThroughputPerSecond"));
+        baseline.path("operations").fields().forEachRemaining(entry -> {
+            JsonNode now = current.path("operations").path(entry.getKey());
+            if (now.isMissingNode()) {
+                return;
+            }
+            checkThroughput(regressions, entry.getKey(), now.path("throughputPerSecond"), entry.getValue().path("throughputPerSecond"));
+            for (String percentile : List.of("p95Ms", "p99Ms")) {
+                double was = entry.getValue().path(percentile).asDouble();
+                double is = now.path(percentile).asDouble();
+                if (is > was * (1 + TOLERANCE) && is - was > LATENCY_SLACK_MS) {
+                    regressions.add(String.format(Locale.ROOT, "%s %s %.2f ms, baseline %.2f ms", entry.getKey(), percentile, is, was));
+                }
+            }
+        });
+        return regressions;
+    }
+
+    private static void checkThroughput(List<String> regressions, String name, JsonNode current, JsonNode baseline) {
+        if (baseline.isNumber() && current.asDouble() < baseline.asDouble() * (1 - TOLERANCE)) {
+            regressions.add(String.format(Locale.ROOT, "%s throughput %.1f/s, baseline %.1f/s",
+                    name, current.asDouble(), baseline.asDouble()));
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] keyAndWeight = part.trim().split("=");
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(keyAndWeight[0].trim()), weight);
+            }
+        }
+        return weights;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return round(sortedNanos[Math.max(0, index)] / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private enum Operation {
+        SIGNUP("signup"), LOGIN("login"), REFRESH("refresh"), PROFILE("profile"), ADMIN_LIST("admin");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Operation fromKey(String key) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.key.equals(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in bench.mix: " + key));
+        }
+    }
+
+    private record Session(String username, String token, int status) {
+    }
+
+    /**
+     * Per-client latencies, merged once the run is over so recording needs no synchronization.
+     */
+    private static final class Recorder {
+
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean ok) {
+            if (!ok) {
+                errors.merge(operation, 1, Integer::sum);
+                return;
+            }
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = latencies.computeIfAbsent(operation, o -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+        }
+
+        void merge(Recorder other) {
+            for (Operation operation : Operation.values()) {
+                long[] mine = latencies(operation);
+                long[] theirs = other.latencies(operation);
+                long[] merged = Arrays.copyOf(mine, mine.length + theirs.length);
+                System.arraycopy(theirs, 0, merged, mine.length, theirs.length);
+                latencies.put(operation, merged);
+                counts.put(operation, merged.length);
+                errors.merge(operation, other.errors(operation), Integer::sum);
+            }
+        }
+
+        /**
+         * Recorded latencies of successful requests, sorted.
+         */
+        long[] latencies(Operation operation) {
+            long[] values = Arrays.copyOf(latencies.getOrDefault(operation, new long[0]), count(operation));
+            Arrays.sort(values);
+            return values;
+        }
+
+        int count(Operation operation) {
+            return counts.getOrDefault(operation, 0);
+        }
+
+        int errors(Operation operation) {
+            return errors.getOrDefault(operation, 0);
+        }
+
+        long total() {
+            return counts.values().stream().mapToLong(Integer::longValue).sum();
+        }
+    }
+}
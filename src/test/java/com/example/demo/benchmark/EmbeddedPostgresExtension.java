@@ -0,0 +1,120 @@
+package com.example.demo.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Embedded Postgres server for one benchmark class:
+ * {@code @RegisterExtension static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(seed...)}.
+ * <p>
+ * The server starts on first use, so a {@code @DynamicPropertySource} can hand it to Spring
+ * before any {@code @BeforeAll} runs, and the seed statements run once right after it starts.
+ * After the class, everything passed to {@link #closeAfterAll} is closed in reverse order,
+ * then the server.
+ */
+final class EmbeddedPostgresExtension implements BeforeAllCallback, AfterAllCallback {
+
+    /**
+     * {@code app_user} with the columns the entity and schema.sql give it (activity columns aside).
+     */
+    static final String APP_USER_TABLE = "CREATE TABLE app_user (id uuid PRIMARY KEY DEFAULT gen_random_uuid(), "
+            + "username varchar(255) NOT NULL, email varchar(255) NOT NULL, password varchar(255) NOT NULL, "
+            + "first_name varchar(255) NOT NULL, last_name varchar(255) NOT NULL, role varchar(20) NOT NULL, "
+            + "enabled boolean NOT NULL, created_at timestamp NOT NULL, updated_at timestamp NOT NULL, "
+            + "created_by varchar(100), updated_by varchar(100), is_deleted boolean NOT NULL DEFAULT false, "
+            + "soft_deleted_at timestamp, soft_deleted_by varchar(100), version bigint, "
+            + "username_normalized varchar(255), email_normalized varchar(255))";
+
+    /**
+     * The live-username unique index from schema.sql.
+     */
+    static final String APP_USER_USERNAME_INDEX =
+            "CREATE UNIQUE INDEX uk_app_user_username_live ON app_user (username) WHERE is_deleted = false";
+
+    private final List<String> seed;
+    private final Deque<AutoCloseable> resources = new ArrayDeque<>();
+    private EmbeddedPostgres server;
+
+    /**
+     * @param seed statements run once against the {@code postgres} database after the server starts
+     */
+    EmbeddedPostgresExtension(String... seed) {
+        this.seed = List.of(seed);
+    }
+
+    /**
+     * The {@code postgres} database.
+     */
+    DataSource dataSource() {
+        return server().getPostgresDatabase();
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    String jdbcUrl(String database) {
+        return server().getJdbcUrl("postgres", database);
+    }
+
+    /**
+     * Points {@code spring.datasource} at the {@code postgres} database.
+     */
+    void registerDataSource(DynamicPropertyRegistry registry) {
+        String url = jdbcUrl("postgres");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Closes {@code resource} after the class, before the server stops.
+     */
+    <T extends AutoCloseable> T closeAfterAll(T resource) {
+        resources.push(resource);
+        return resource;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        server();
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws Exception {
+        try {
+            AutoCloseable resource;
+            while ((resource = resources.poll()) != null) {
+                resource.close();
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+                server = null;
+            }
+        }
+    }
+
+    private synchronized EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not start embedded Postgres", e);
+            }
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(server.getPostgresDatabase());
+            seed.forEach(jdbcTemplate::execute);
+        }
+        return server;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.common.annotations.Idempotent;
+import com.example.demo.common.aspects.IdempotencyAspect;
+import com.example.demo.config.properties.IdempotencyProperties;
+import com.example.demo.idempotency.IdempotencySecret;
+import com.example.demo.idempotency.InMemoryIdempotencyStore;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.exceptions.UnprocessableEntityException;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.model.StandardApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link IdempotencyAspect} around a signup stand-in whose work takes as long as a
+ * password hash plus insert. Checks that concurrent duplicates run it once and share its
+ * response, that a key reused for another body is rejected and that a failed request can be
+ * retried; reports what a replayed retry costs compared to running the request.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=IdempotencyBenchmarkTest}.
+ */
+@Tag("benchmark")
+class IdempotencyBenchmarkTest {
+
+    private static final int WORK_MS = Integer.getInteger("bench.workMs", 50);
+    private static final int DUPLICATES = Integer.getInteger("bench.duplicates", 16);
+    private static final int RETRIES = Integer.getInteger("bench.retries", 100_000);
+
+    private SignupEndpoint target;
+    private SignupEndpoint endpoint;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        IdempotencyProperties properties = new IdempotencyProperties();
+        IdempotencyAspect aspect = new IdempotencyAspect(
+                new InMemoryIdempotencyStore(properties.getTtl(), properties.getMaximumSize()),
+                IdempotencySecret.ephemeral(), properties, Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        target = new SignupEndpoint();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        endpoint = factory.getProxy();
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES);
+        List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < DUPLICATES; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return call("key-1", Map.of("username", "alice"));
+                }));
+            }
+            start.countDown();
+            int replays = 0;
+            for (Future<ResponseEntity<?>> response : responses) {
+                ResponseEntity<?> entity = response.get(30, TimeUnit.SECONDS);
+                assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                replays += entity.getHeaders().containsKey(IdempotencyAspect.REPLAYED) ? 1 : 0;
+            }
+            assertThat(replays).isEqualTo(DUPLICATES - 1);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(target.executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesReplayInsteadOfRunning() {
+        Map<String, String> body = Map.of("username", "bob");
+        long started = System.nanoTime();
+        call("key-2", body);
+        long firstMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < RETRIES; i++) {
+            ResponseEntity<?> replay = call("key-2", body);
+            assertThat(replay.getBody()).isInstanceOf(byte[].class);
+        }
+        double retryMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / (double) RETRIES;
+        System.out.printf("first request: %d us, replayed retry: %.2f us (%d retries)%n", firstMicros, retryMicros, RETRIES);
+
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(retryMicros).isLessThan(WORK_MS * 1000.0 / 10);
+        assertThat(meterRegistry.get("idempotency.requests").tag("outcome", "replayed").counter().count())
+                .isEqualTo(RETRIES);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        call("key-3", Map.of("username", "carol"));
+
+        assertThatThrownBy(() -> call("key-3", Map.of("username", "dave")))
+                .isInstanceOf(UnprocessableEntityException.class);
+        assertThat(target.executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRequestCanBeRetried() {
+        target.failNext.set(true);
+        assertThatThrownBy(() -> call("key-4", Map.of("username", "erin")))
+                .isInstanceOf(BadRequestException.class);
+
+        ResponseEntity<?> retry = call("key-4", Map.of("username", "erin"));
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(target.executions.get()).isEqualTo(2);
+    }
+
+    private ResponseEntity<?> call(String idempotencyKey, Map<String, String> body) {
+        return inRequest(idempotencyKey, () -> endpoint.signup(body));
+    }
+
+    private static <T> T inRequest(String idempotencyKey, Supplier<T> action) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signup");
+        request.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY, idempotencyKey);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Stands in for {@code AuthController.signup}: as slow as hashing a password and inserting.
+     */
+    static class SignupEndpoint {
+
+        final AtomicInteger executions = new AtomicInteger();
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Idempotent
+        public ResponseEntity<StandardApiResponse<String>> signup(@RequestBody Map<String, String> body) {
+            executions.incrementAndGet();
+            try {
+                Thread.sleep(WORK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failNext.getAndSet(false)) {
+                throw new BadRequestException("Username is already taken");
+            }
+            return ApiResponseFactory.success(HttpStatus.CREATED, "User registered", body.get("username"));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resolves case-insensitive login identifiers (username or email) over a few million users,
+ * through the normalized columns and their indexes versus {@code lower()} on the raw columns.
+ * Checks the plans too: existence checks must be index-only scans without heap fetches, and
+ * the login query must combine both indexes without a sequential scan.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=LoginLookupBenchmarkTest}.
+ */
+@Tag("benchmark")
+class LoginLookupBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 3_000_000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 2_000);
+    private static final int BASELINE_ROUNDS = Integer.getInteger("bench.baselineRounds", 10);
+
+    // Same statement Hibernate generates for UserRepository.findLoginCandidates with Limit.of(2).
+    private static final String LOGIN_SQL = "SELECT * FROM app_user WHERE is_deleted = false "
+            + "AND (username_normalized = ? OR email_normalized = ?) "
+            + "ORDER BY CASE WHEN username = ? THEN 0 WHEN username_normalized = ? THEN 1 ELSE 2 END, created_at LIMIT 2";
+    private static final String LOWER_SQL = "SELECT * FROM app_user WHERE is_deleted = false "
+            + "AND (lower(username) = ? OR lower(email) = ?) "
+            + "ORDER BY CASE WHEN lower(username) = ? THEN 0 ELSE 1 END, created_at LIMIT 1";
+    private static final String EXISTS_USERNAME_SQL =
+            "SELECT id FROM app_user WHERE username_normalized = ? AND is_deleted = false LIMIT 1";
+    private static final String EXISTS_EMAIL_SQL =
+            "SELECT id FROM app_user WHERE email_normalized = ? AND is_deleted = false LIMIT 1";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            EmbeddedPostgresExtension.APP_USER_TABLE,
+            // Mixed-case identifiers, so only a case-insensitive lookup finds them; every 50th user is soft deleted.
+            "INSERT INTO app_user (username, email, password, first_name, last_name, role, enabled, "
+                    + "created_at, updated_at, is_deleted, version, username_normalized, email_normalized) "
+                    + "SELECT 'User' || g, 'User' || g || '@Example.com', repeat('x', 60), 'First', 'Last', 'USER', true, "
+                    + "now(), now(), g % 50 = 0, 0, 'user' || g, 'user' || g || '@example.com' "
+                    + "FROM generate_series(1, " + USERS + ") g",
+            // The indexes from schema.sql.
+            EmbeddedPostgresExtension.APP_USER_USERNAME_INDEX,
+            "CREATE INDEX idx_app_user_username_normalized ON app_user (username_normalized) INCLUDE (id) WHERE is_deleted = false",
+            "CREATE INDEX idx_app_user_email_normalized ON app_user (email_normalized) INCLUDE (id) WHERE is_deleted = false",
+            // Index-only scans skip the heap only for pages the visibility map marks all-visible.
+            "VACUUM ANALYZE app_user");
+
+    @Test
+    void existenceChecksAreIndexOnly() throws SQLException {
+        String username = explain("EXPLAIN (ANALYZE, COSTS OFF) "
+                + EXISTS_USERNAME_SQL.replace("?", "'user12345'"));
+        String email = explain("EXPLAIN (ANALYZE, COSTS OFF) "
+                + EXISTS_EMAIL_SQL.replace("?", "'user12345@example.com'"));
+        System.out.printf("username exists plan:%n%s%nemail exists plan:%n%s%n", username, email);
+
+        assertThat(username).contains("Index Only Scan using idx_app_user_username_normalized").contains("Heap Fetches: 0");
+        assertThat(email).contains("Index Only Scan using idx_app_user_email_normalized").contains("Heap Fetches: 0");
+    }
+
+    @Test
+    void loginQueryUsesBothIndexes() throws SQLException {
+        String plan = explain("EXPLAIN (COSTS OFF) " + LOGIN_SQL.replace("?", "'user12345'"));
+        System.out.printf("login plan:%n%s%n", plan);
+
+        assertThat(plan).doesNotContain("Seq Scan")
+                .contains("idx_app_user_username_normalized")
+                .contains("idx_app_user_email_normalized");
+    }
+
+    @Test
+    void comparesNormalizedColumnsWithLower() throws SQLException {
+        try (Connection connection = postgres.dataSource().getConnection();
+             PreparedStatement normalized = connection.prepareStatement(LOGIN_SQL);
+             PreparedStatement lower = connection.prepareStatement(LOWER_SQL);
+             PreparedStatement existsUsername = connection.prepareStatement(EXISTS_USERNAME_SQL)) {
+
+            // Username and email forms of the same account resolve to it, in any case.
+            UUID byUsername = lookup(normalized, 4, "USER4242");
+            assertThat(byUsername).isNotNull()
+                    .isEqualTo(lookup(normalized, 4, "user4242@Example.COM"))
+                    .isEqualTo(lookup(lower, 3, "user4242"));
+            assertThat(lookup(normalized, 4, "user50")).as("soft-deleted users are not found").isNull();
+
+            double normalizedMillis = timePerQuery(normalized, 4, ROUNDS);
+            double existsMillis = timePerQuery(existsUsername, 1, ROUNDS);
+            double lowerMillis = timePerQuery(lower, 3, BASELINE_ROUNDS);
+
+            System.out.printf("login lookup: users=%d%n", USERS);
+            System.out.printf("  normalized columns, username or email : %8.3f ms%n", normalizedMillis);
+            System.out.printf("  normalized username exists (index-only): %8.3f ms%n", existsMillis);
+            System.out.printf("  lower() on raw columns                 : %8.3f ms%n", lowerMillis);
+            assertThat(normalizedMillis).isLessThan(lowerMillis);
+        }
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = postgres.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static UUID lookup(PreparedStatement statement, int parameters, String identifier) throws SQLException {
+        String normalized = identifier.trim().toLowerCase(Locale.ROOT);
+        for (int i = 1; i <= parameters; i++) {
+            statement.setString(i, normalized);
+        }
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getObject("id", UUID.class) : null;
+        }
+    }
+
+    private static double timePerQuery(PreparedStatement statement, int parameters, int rounds) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < Math.max(1, rounds / 4); i++) {
+            lookup(statement, parameters, "USER" + (1 + random.nextInt(USERS)));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            int user = 1 + random.nextInt(USERS);
+            lookup(statement, parameters, random.nextBoolean() ? "User" + user : "user" + user + "@EXAMPLE.com");
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.properties.MailDispatchProperties;
+import com.example.demo.mail.MailDispatcher;
+import com.example.demo.mail.MailKind;
+import com.example.demo.mail.MailOutbox;
+import com.example.demo.mail.OutboxMail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Queues a large burst of account mails and drains it through {@link MailDispatcher} into a
+ * local SMTP stand-in with a fixed per-message latency. Some recipients are rejected
+ * temporarily (451) on their first attempt and some permanently (550). Checks that every mail
+ * is delivered exactly once, that bounces end up failed, and that no recipient domain sees more
+ * concurrent deliveries than configured; reports throughput.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=MailOutboxBenchmarkTest}.
+ */
+@Tag("benchmark")
+class MailOutboxBenchmarkTest {
+
+    private static final int MAILS = Integer.getInteger("bench.mails", 20_000);
+    private static final int DOMAINS = Integer.getInteger("bench.domains", 20);
+    private static final int SMTP_LATENCY_MS = Integer.getInteger("bench.smtpLatencyMs", 2);
+    private static final int PER_DOMAIN_CONCURRENCY = 3;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(5);
+
+    // The table from schema.sql.
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            "CREATE TABLE mail_outbox (id bigserial PRIMARY KEY, kind varchar(40) NOT NULL, "
+                    + "recipient varchar(320) NOT NULL, recipient_domain varchar(255) NOT NULL, "
+                    + "subject varchar(255) NOT NULL, body text NOT NULL, dedupe_key varchar(200) NOT NULL UNIQUE, "
+                    + "status varchar(16) NOT NULL DEFAULT 'PENDING', attempts int NOT NULL DEFAULT 0, "
+                    + "next_attempt_at timestamptz NOT NULL, created_at timestamptz NOT NULL, sent_at timestamptz, "
+                    + "last_error varchar(500))",
+            "CREATE INDEX idx_mail_outbox_due ON mail_outbox (next_attempt_at) WHERE status = 'PENDING'",
+            "CREATE INDEX idx_mail_outbox_sent_at ON mail_outbox (sent_at) WHERE status = 'SENT'");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static SmtpStandIn smtp;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        jdbcTemplate = postgres.jdbcTemplate();
+        smtp = postgres.closeAfterAll(new SmtpStandIn(SMTP_LATENCY_MS));
+    }
+
+    @Test
+    void drainsBurstWithinPerDomainLimits() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MailOutbox outbox = new MailOutbox(jdbcTemplate, meterRegistry);
+
+        long enqueueStarted = System.nanoTime();
+        int bounces = 0;
+        for (int i = 0; i < MAILS; i++) {
+            String local = i % 500 == 0 ? "bounce" + i : i % 200 == 0 ? "flaky" + i : "user" + i;
+            bounces += local.startsWith("bounce") ? 1 : 0;
+            String recipient = local + "@d" + (i % DOMAINS) + ".test";
+            assertThat(outbox.enqueue(new OutboxMail(MailKind.WELCOME, recipient, "Welcome", "Hello " + i, "bench:" + i)))
+                    .isTrue();
+        }
+        long enqueueMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueueStarted);
+        assertThat(outbox.enqueue(new OutboxMail(MailKind.WELCOME, "user1@d1.test", "Welcome", "again", "bench:1")))
+                .isFalse();
+
+        MailDispatchProperties properties = new MailDispatchProperties();
+        properties.setEnabled(true);
+        properties.getSmtp().setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        properties.getSmtp().setPort(smtp.port());
+        properties.setConnections(16);
+        properties.setPerDomainConcurrency(PER_DOMAIN_CONCURRENCY);
+        properties.setBatchSize(500);
+        properties.setMaxBatchesPerRun(1_000);
+        properties.setMaxAttempts(5);
+        properties.setInitialBackoff(Duration.ofMillis(20));
+        properties.setMaxBackoff(Duration.ofMillis(200));
+        MailDispatcher dispatcher = new MailDispatcher(jdbcTemplate, properties, meterRegistry);
+
+        long started = System.nanoTime();
+        long deadline = started + DRAIN_TIMEOUT.toNanos();
+        try {
+            while (pending() > 0) {
+                assertThat(System.nanoTime()).as("outbox drained in time").isLessThan(deadline);
+                if (dispatcher.dispatch() == 0) {
+                    // Only mails backing off are left.
+                    Thread.sleep(10);
+                }
+            }
+        } finally {
+            dispatcher.shutdown();
+        }
+        long drainMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        dispatcher.refreshBacklog();
+
+        int delivered = MAILS - bounces;
+        System.out.printf("enqueue: %d mails in %d ms (%.0f/s)%n", MAILS, enqueueMillis, MAILS * 1000.0 / Math.max(1, enqueueMillis));
+        System.out.printf("dispatch: %d delivered, %d bounced in %d ms (%.0f msgs/s) over %d SMTP connections, "
+                        + "%d ms per message, max %d concurrent per domain%n",
+                smtp.deliveries.get(), bounces, drainMillis, delivered * 1000.0 / drainMillis,
+                smtp.connections.get(), SMTP_LATENCY_MS, smtp.maxConcurrencyPerDomain());
+
+        assertThat(count("SENT")).isEqualTo(delivered);
+        assertThat(count("FAILED")).isEqualTo(bounces);
+        assertThat(smtp.messageIds).hasSize(delivered);
+        assertThat(smtp.deliveries.get()).isEqualTo(delivered);
+        assertThat(smtp.maxConcurrencyPerDomain()).isLessThanOrEqualTo(PER_DOMAIN_CONCURRENCY);
+        assertThat(meterRegistry.get("mail.outbox.backlog").gauge().value()).isZero();
+        assertThat(meterRegistry.get("mail.outbox.retried").tag("kind", "welcome").counter().count())
+                .isGreaterThan(0);
+    }
+
+    private static long pending() {
+        return count("PENDING");
+    }
+
+    private static long count(String status) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM mail_outbox WHERE status = ?", Long.class, status);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Minimal SMTP server: accepts everything except {@code bounce*} recipients (550) and the
+     * first attempt for {@code flaky*} recipients (451), and records Message-IDs and how many
+     * transactions per domain are open at once.
+     */
+    private static final class SmtpStandIn implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final ExecutorService connectionThreads = Executors.newCachedThreadPool();
+        private final int latencyMs;
+        private final Set<String> messageIds = ConcurrentHashMap.newKeySet();
+        private final Set<String> deferredOnce = ConcurrentHashMap.newKeySet();
+        private final Map<String, AtomicInteger> openPerDomain = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> maxPerDomain = new ConcurrentHashMap<>();
+        private final AtomicLong deliveries = new AtomicLong();
+        private final AtomicInteger connections = new AtomicInteger();
+
+        SmtpStandIn(int latencyMs) throws IOException {
+            this.latencyMs = latencyMs;
+            this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+            connectionThreads.submit(this::acceptLoop);
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        int maxConcurrencyPerDomain() {
+            return maxPerDomain.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    connectionThreads.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            String domain = null;
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 OutputStream out = socket.getOutputStream()) {
+                reply(out, "220 stand-in ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() < 4 ? line.toUpperCase(Locale.ROOT) : line.substring(0, 4).toUpperCase(Locale.ROOT);
+                    switch (command) {
+                        case "EHLO", "HELO", "MAIL", "NOOP" -> reply(out, "250 OK");
+                        case "RCPT" -> {
+                            String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                            String local = address.substring(0, address.indexOf('@'));
+                            if (local.startsWith("bounce")) {
+                                reply(out, "550 5.1.1 No such user");
+                            } else if (local.startsWith("flaky") && deferredOnce.add(address)) {
+                                reply(out, "451 4.3.0 Try again later");
+                            } else {
+                                domain = address.substring(address.indexOf('@') + 1);
+                                open(domain);
+                                reply(out, "250 OK");
+                            }
+                        }
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            String messageId = null;
+                            while (!(line = in.readLine()).equals(".")) {
+                                if (messageId == null && line.regionMatches(true, 0, "Message-ID:", 0, 11)) {
+                                    messageId = line.substring(11).trim();
+                                }
+                            }
+                            Thread.sleep(latencyMs);
+                            messageIds.add(messageId);
+                            deliveries.incrementAndGet();
+                            domain = close(domain);
+                            reply(out, "250 OK queued");
+                        }
+                        case "RSET" -> {
+                            domain = close(domain);
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "502 Command not implemented");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close(domain);
+            }
+        }
+
+        private void open(String domain) {
+            int open = openPerDomain.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+            maxPerDomain.computeIfAbsent(domain, d -> new AtomicInteger()).accumulateAndGet(open, Math::max);
+        }
+
+        private String close(String domain) {
+            if (domain != null) {
+                openPerDomain.get(domain).decrementAndGet();
+            }
+            return null;
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            connectionThreads.shutdownNow();
+        }
+    }
+}
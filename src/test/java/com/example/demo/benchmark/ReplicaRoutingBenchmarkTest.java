@@ -0,0 +1,243 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.common.jdbc.ReadYourWrites;
+import com.example.demo.common.jdbc.ReplicaRoutingDataSource;
+import com.example.demo.common.jdbc.ReplicaRoutingDataSource.Balancing;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes transactions across two local Postgres servers: a primary, and a replica server holding
+ * two databases that stand in for two replicas. Each database only knows its own name, so every
+ * read shows where it was routed. Checks read-only routing and balancing, read-your-writes
+ * pinning and failover to the primary, and reports read throughput through the routing layer.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=ReplicaRoutingBenchmarkTest}.
+ */
+@Tag("benchmark")
+class ReplicaRoutingBenchmarkTest {
+
+    private static final int READS = Integer.getInteger("bench.reads", 20_000);
+    private static final int THREADS = Integer.getInteger("bench.threads", 8);
+    private static final String WHOAMI = "SELECT name FROM whoami";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension primaryServer = new EmbeddedPostgresExtension();
+    @RegisterExtension
+    static final EmbeddedPostgresExtension replicaServer = new EmbeddedPostgresExtension(
+            "CREATE DATABASE replica_a",
+            "CREATE DATABASE replica_b");
+
+    private static HikariDataSource primary;
+    private static HikariDataSource replicaA;
+    private static HikariDataSource replicaB;
+
+    @BeforeAll
+    static void setUp() {
+        primary = primaryServer.closeAfterAll(pool("primary", primaryServer.jdbcUrl("postgres")));
+        replicaA = replicaServer.closeAfterAll(pool("replica-a", replicaServer.jdbcUrl("replica_a")));
+        replicaB = replicaServer.closeAfterAll(pool("replica-b", replicaServer.jdbcUrl("replica_b")));
+        for (Map.Entry<String, DataSource> database : Map.<String, DataSource>of(
+                "primary", primary, "replica-a", replicaA, "replica-b", replicaB).entrySet()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database.getValue());
+            jdbcTemplate.execute("CREATE TABLE whoami (name text NOT NULL)");
+            jdbcTemplate.update("INSERT INTO whoami (name) VALUES (?)", database.getKey());
+        }
+    }
+
+    @Test
+    void balancesReadOnlyTransactionsAcrossReplicas() throws Exception {
+        Routing routing = new Routing(Balancing.ROUND_ROBIN, Duration.ofSeconds(5), replicas(replicaA, replicaB));
+
+        assertThat(routing.readOnly()).isIn("replica-a", "replica-b");
+        assertThat(routing.readWrite()).isEqualTo("primary");
+        // No transaction at all, like the JdbcTemplate jobs: the primary.
+        assertThat(routing.jdbcTemplate.queryForObject(WHOAMI, String.class)).isEqualTo("primary");
+
+        Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < READS / THREADS; i++) {
+                        served.computeIfAbsent(routing.readOnly(), name -> new AtomicInteger()).incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        int reads = READS / THREADS * THREADS;
+        System.out.printf("routed %d read-only transactions in %d ms (%.0f/s) on %d threads: %s%n",
+                reads, millis, reads * 1000.0 / millis, THREADS, served);
+
+        assertThat(served).containsOnlyKeys("replica-a", "replica-b");
+        assertThat(served.get("replica-a").get()).isCloseTo(reads / 2, Percentage.withPercentage(5));
+    }
+
+    @Test
+    void leastConnectionsAvoidsBusyReplica() throws Exception {
+        Routing routing = new Routing(Balancing.LEAST_CONNECTIONS, Duration.ofSeconds(5), replicas(replicaA, replicaB));
+
+        try (Connection held = routing.routing.getConnection()) {
+            String heldOn = name(held);
+            for (int i = 0; i < 10; i++) {
+                assertThat(routing.readOnly()).isNotEqualTo(heldOn);
+            }
+        }
+    }
+
+    @Test
+    void pinsReadsToPrimaryAfterOwnWrite() throws Exception {
+        Routing routing = new Routing(Balancing.ROUND_ROBIN, Duration.ofMillis(500), replicas(replicaA, replicaB));
+        UUID writer = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        routing.currentUser.set(writer);
+        assertThat(routing.readOnly()).startsWith("replica");
+        assertThat(routing.readWrite()).isEqualTo("primary");
+        assertThat(routing.readOnly()).isEqualTo("primary");
+
+        routing.currentUser.set(other);
+        assertThat(routing.readOnly()).startsWith("replica");
+
+        // A rolled back write pins nobody.
+        routing.currentUser.set(other);
+        routing.rolledBackWrite();
+        assertThat(routing.readOnly()).startsWith("replica");
+
+        routing.currentUser.set(writer);
+        Thread.sleep(600);
+        assertThat(routing.readOnly()).startsWith("replica");
+    }
+
+    @Test
+    void failsOverWhenReplicaIsDown() throws Exception {
+        try (HikariDataSource down = pool("replica-down", "jdbc:postgresql://127.0.0.1:" + unusedPort() + "/postgres")) {
+            Routing routing = new Routing(Balancing.ROUND_ROBIN, Duration.ofSeconds(5), replicas(down, replicaA));
+            for (int i = 0; i < 10; i++) {
+                assertThat(routing.readOnly()).isEqualTo("replica-a");
+            }
+            assertThat(routing.meterRegistry.get("jdbc.routing.replica.failures").counter().count()).isEqualTo(1);
+
+            Routing onlyDown = new Routing(Balancing.ROUND_ROBIN, Duration.ofSeconds(5), replicas(down));
+            assertThat(onlyDown.readOnly()).isEqualTo("primary");
+            assertThat(onlyDown.readOnly()).isEqualTo("primary");
+            assertThat(onlyDown.meterRegistry.get("jdbc.routing.reads").tag("reason", "failover").counter().count())
+                    .isEqualTo(2);
+            assertThat(onlyDown.meterRegistry.get("jdbc.routing.replicas.up").gauge().value()).isZero();
+        }
+    }
+
+    /**
+     * The wiring of {@code ReplicaRoutingConfig}, with a settable current user.
+     */
+    private static final class Routing {
+
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AtomicReference<UUID> currentUser = new AtomicReference<>();
+        final ReplicaRoutingDataSource routing;
+        final JdbcTemplate jdbcTemplate;
+        final TransactionTemplate readOnly;
+        final TransactionTemplate readWrite;
+
+        Routing(Balancing balancing, Duration pinWindow, Map<String, DataSource> replicas) {
+            ReadYourWrites readYourWrites = new ReadYourWrites(pinWindow, currentUser::get);
+            routing = new ReplicaRoutingDataSource(primary, replicas, balancing, readYourWrites,
+                    Duration.ofSeconds(30), meterRegistry);
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(readYourWrites.trackWrites(primary));
+            dataSource.setReadOnlyDataSource(routing);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String readOnly() {
+            return readOnly.execute(status -> jdbcTemplate.queryForObject(WHOAMI, String.class));
+        }
+
+        String readWrite() {
+            return readWrite.execute(status -> {
+                jdbcTemplate.update("UPDATE whoami SET name = name");
+                return jdbcTemplate.queryForObject(WHOAMI, String.class);
+            });
+        }
+
+        void rolledBackWrite() {
+            readWrite.executeWithoutResult(status -> {
+                jdbcTemplate.update("UPDATE whoami SET name = name");
+                status.setRollbackOnly();
+            });
+        }
+    }
+
+    private static String name(Connection connection) throws Exception {
+        try (ResultSet resultSet = connection.createStatement().executeQuery(WHOAMI)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static Map<String, DataSource> replicas(DataSource... dataSources) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < dataSources.length; i++) {
+            replicas.put("replica-" + (i + 1), dataSources[i]);
+        }
+        return replicas;
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername("postgres");
+        pool.setMaximumPoolSize(THREADS + 2);
+        pool.setConnectionTimeout(250);
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
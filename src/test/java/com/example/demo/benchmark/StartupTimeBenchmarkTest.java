@@ -0,0 +1,169 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time from launching a fresh JVM until the application answers its first HTTP request, for the
+ * default profile and the fast-start profile, against a database whose schema already exists
+ * (as it does when an autoscaler adds an instance).
+ * <p>
+ * When {@code target/fast-start} holds the output of {@code mvn -Pfast-start package}, the
+ * fast-start profile is also measured from the extracted jar with AOT and the CDS archive.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=StartupTimeBenchmarkTest}.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("bench.runs", 5);
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(Integer.getInteger("bench.startTimeoutSeconds", 120));
+    private static final Path FAST_START_DIR = Path.of(System.getProperty("bench.fastStartDir", "target/fast-start"));
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            "CREATE DATABASE startup_default",
+            "CREATE DATABASE startup_fast");
+
+    private static Path workDir;
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        workDir = Files.createTempDirectory("startup-bench");
+    }
+
+    @Test
+    void reportsTimeToFirstRequest() throws Exception {
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", classpathCommand("startup_default", "default"));
+        variants.put("fast-start", classpathCommand("startup_fast", "fast-start"));
+        Path jar = FAST_START_DIR.resolve(extractedJarName());
+        Path archive = FAST_START_DIR.resolve("application.jsa");
+        if (Files.exists(jar) && Files.exists(archive)) {
+            List<String> command = new ArrayList<>(List.of(javaBinary(),
+                    "-XX:SharedArchiveFile=" + archive.toAbsolutePath(), "-Dspring.aot.enabled=true",
+                    "-jar", jar.toAbsolutePath().toString()));
+            command.addAll(applicationArguments("startup_fast", "fast-start"));
+            variants.put("fast-start + AOT + CDS", command);
+        }
+
+        // The first start of each profile creates the schema and is not measured.
+        timeToFirstRequest(variants.get("default"));
+        timeToFirstRequest(variants.get("fast-start"));
+
+        System.out.printf("time to first request (%d runs each):%n", RUNS);
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            long[] millis = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                millis[i] = timeToFirstRequest(variant.getValue());
+            }
+            Arrays.sort(millis);
+            System.out.printf("  %-24s median %6d ms   min %6d ms   max %6d ms%n",
+                    variant.getKey(), millis[RUNS / 2], millis[0], millis[RUNS - 1]);
+            assertThat(millis[0]).isGreaterThan(0L);
+        }
+    }
+
+    private static List<String> classpathCommand(String database, String profile) {
+        List<String> command = new ArrayList<>(List.of(javaBinary(),
+                "-cp", System.getProperty("java.class.path"),
+                // DevTools is on the test classpath and would otherwise start a restart classloader.
+                "-Dspring.devtools.restart.enabled=false",
+                DemoApplication.class.getName()));
+        command.addAll(applicationArguments(database, profile));
+        return command;
+    }
+
+    private static List<String> applicationArguments(String database, String profile) {
+        return List.of(
+                "--spring.profiles.active=" + profile,
+                "--spring.datasource.url=" + postgres.jdbcUrl(database),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.devtools.restart.enabled=false");
+    }
+
+    /**
+     * Launches the command and polls the health endpoint until it answers 200.
+     */
+    private static long timeToFirstRequest(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        Path log = workDir.resolve("startup-" + port + ".log");
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            long deadline = started + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new AssertionError("Application exited during startup, see " + log);
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(10);
+            }
+            throw new AssertionError("Application did not answer within " + START_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static String extractedJarName() {
+        try (var files = Files.list(FAST_START_DIR)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar"))
+                    .findFirst()
+                    .orElse("missing.jar");
+        } catch (IOException e) {
+            return "missing.jar";
+        }
+    }
+
+    private static String javaBinary() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.properties.UserExportProperties;
+import com.example.demo.services.UserExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports {@code bench.users} generated users through {@link UserExportService} while sampling
+ * the used heap, and checks that the export's footprint stays bounded (well under the size of
+ * the output) for NDJSON, CSV and gzipped NDJSON.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=UserExportBenchmarkTest}.
+ */
+@Tag("benchmark")
+class UserExportBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 1_000_000);
+    private static final long MAX_HEAP_GROWTH_BYTES = Long.getLong("bench.maxHeapGrowthMb", 64) * 1024 * 1024;
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            EmbeddedPostgresExtension.APP_USER_TABLE,
+            EmbeddedPostgresExtension.APP_USER_USERNAME_INDEX,
+            // Some names need CSV quoting; every 100th user is soft deleted.
+            "INSERT INTO app_user (username, email, password, first_name, last_name, role, enabled, "
+                    + "created_at, updated_at, created_by, updated_by, is_deleted, soft_deleted_at, version) "
+                    + "SELECT 'user' || g, 'user' || g || '@example.com', '$2a$12$' || repeat('x', 53), "
+                    + "CASE WHEN g % 10 = 0 THEN 'First, \"Jr\"' ELSE 'First' END, 'Last', 'USER', true, "
+                    + "now(), now(), 'system', 'system', g % 100 = 0, CASE WHEN g % 100 = 0 THEN now() END, 0 "
+                    + "FROM generate_series(1, " + USERS + ") g",
+            "ANALYZE app_user");
+
+    private static UserExportService exportService;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = postgres.dataSource();
+        exportService = new UserExportService(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource),
+                Jackson2ObjectMapperBuilder.json().build(), new UserExportProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void exportsAllRowsInBoundedMemory() throws Exception {
+        System.out.printf("user export: users=%d%n", USERS);
+        export(UserExportService.Format.NDJSON, false, USERS);
+        export(UserExportService.Format.CSV, false, USERS + 1);
+        export(UserExportService.Format.NDJSON, true, 0);
+    }
+
+    private static void export(UserExportService.Format format, boolean gzip, long expectedLines) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        long started = System.nanoTime();
+        long rows = exportService.export(out, format, gzip, true);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        running.set(false);
+        sampler.join();
+
+        assertThat(rows).isEqualTo((long) USERS);
+        if (!gzip) {
+            assertThat(out.lines).isEqualTo(expectedLines);
+            assertThat(out.sawPasswordHash).isFalse();
+        }
+        long growth = peak.get() - baseline;
+        System.out.printf("  %-6s gzip=%-5s : %6.2f s  %9.0f rows/s  output %7.1f MB  peak heap growth %6.1f MB%n",
+                format, gzip, seconds, rows / seconds, out.bytes / 1e6, growth / 1e6);
+        // Allocation churn between GCs shows up here too, so this is a bound, not an exact footprint;
+        // a buffered export would need the whole output (hundreds of MB) at once.
+        assertThat(growth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    /**
+     * Discards the output, counting bytes and newlines and watching for a BCrypt prefix.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private static final byte[] HASH_PREFIX = "$2a$".getBytes();
+
+        long bytes;
+        long lines;
+        boolean sawPasswordHash;
+        private int matched;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+            matched = b == HASH_PREFIX[matched] ? matched + 1 : (b == HASH_PREFIX[0] ? 1 : 0);
+            if (matched == HASH_PREFIX.length) {
+                sawPasswordHash = true;
+                matched = 0;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+    }
+}
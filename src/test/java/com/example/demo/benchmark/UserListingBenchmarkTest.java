@@ -0,0 +1,128 @@
+package com.example.demo.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares page 1 and page {@code bench.deepPage} of the admin user listing, with OFFSET paging
+ * over full rows versus keyset paging over the projected columns.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=UserListingBenchmarkTest}.
+ */
+@Tag("benchmark")
+class UserListingBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 300_000);
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = Integer.getInteger("bench.deepPage", 10_000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 200);
+
+    private static final String OFFSET_SQL = "SELECT * FROM app_user WHERE is_deleted = false "
+            + "ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+    private static final String SUMMARY_COLUMNS = "SELECT id, username, email, first_name, last_name, role, enabled, created_at "
+            + "FROM app_user WHERE is_deleted = false ";
+    private static final String KEYSET_FIRST_SQL = SUMMARY_COLUMNS + "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String KEYSET_NEXT_SQL = SUMMARY_COLUMNS
+            + "AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            EmbeddedPostgresExtension.APP_USER_TABLE,
+            EmbeddedPostgresExtension.APP_USER_USERNAME_INDEX,
+            // Every 50th user is soft deleted; timestamps repeat so ties on created_at are exercised.
+            "INSERT INTO app_user (username, email, password, first_name, last_name, role, enabled, "
+                    + "created_at, updated_at, created_by, updated_by, is_deleted, version) "
+                    + "SELECT 'user' || g, 'user' || g || '@example.com', repeat('x', 60), 'First', 'Last', 'USER', true, "
+                    + "timestamp '2026-01-01' + (g / 3) * interval '1 second', now(), 'system', 'system', g % 50 = 0, 0 "
+                    + "FROM generate_series(1, " + USERS + ") g",
+            "CREATE INDEX idx_app_user_created_at_id ON app_user (created_at DESC, id DESC) WHERE is_deleted = false",
+            "ANALYZE app_user");
+
+    @Test
+    void comparesFirstAndDeepPage() throws SQLException {
+        try (Connection connection = postgres.dataSource().getConnection();
+             PreparedStatement offset = connection.prepareStatement(OFFSET_SQL);
+             PreparedStatement keysetFirst = connection.prepareStatement(KEYSET_FIRST_SQL);
+             PreparedStatement keysetNext = connection.prepareStatement(KEYSET_NEXT_SQL)) {
+
+            // Walk to the deep page once with keyset paging to get the cursor clients would hold.
+            List<Row> page = keysetPage(keysetFirst, keysetNext, null);
+            for (int i = 1; i < DEEP_PAGE - 1; i++) {
+                page = keysetPage(keysetFirst, keysetNext, page.get(page.size() - 1));
+            }
+            Row deepCursor = page.get(page.size() - 1);
+
+            // Keyset must return exactly what OFFSET returns, only faster.
+            assertThat(keysetPage(keysetFirst, keysetNext, deepCursor))
+                    .isEqualTo(offsetPage(offset, DEEP_PAGE));
+            assertThat(keysetPage(keysetFirst, keysetNext, null)).isEqualTo(offsetPage(offset, 1));
+
+            double offsetFirst = timePerQuery(() -> offsetPage(offset, 1));
+            double offsetDeep = timePerQuery(() -> offsetPage(offset, DEEP_PAGE));
+            double keysetFirstPage = timePerQuery(() -> keysetPage(keysetFirst, keysetNext, null));
+            double keysetDeep = timePerQuery(() -> keysetPage(keysetFirst, keysetNext, deepCursor));
+
+            System.out.printf("user listing: users=%d pageSize=%d deepPage=%d%n", USERS, PAGE_SIZE, DEEP_PAGE);
+            System.out.printf("  offset, full rows  : page 1 %8.3f ms   page %d %8.3f ms%n", offsetFirst, DEEP_PAGE, offsetDeep);
+            System.out.printf("  keyset, projection : page 1 %8.3f ms   page %d %8.3f ms%n", keysetFirstPage, DEEP_PAGE, keysetDeep);
+        }
+    }
+
+    private static List<Row> offsetPage(PreparedStatement statement, int page) throws SQLException {
+        statement.setInt(1, PAGE_SIZE);
+        statement.setInt(2, (page - 1) * PAGE_SIZE);
+        return read(statement);
+    }
+
+    private static List<Row> keysetPage(PreparedStatement first, PreparedStatement next, Row after) throws SQLException {
+        if (after == null) {
+            first.setInt(1, PAGE_SIZE);
+            return read(first);
+        }
+        next.setTimestamp(1, after.createdAt());
+        next.setObject(2, after.id());
+        next.setInt(3, PAGE_SIZE);
+        return read(next);
+    }
+
+    private static List<Row> read(PreparedStatement statement) throws SQLException {
+        List<Row> rows = new ArrayList<>(PAGE_SIZE);
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new Row(rs.getObject("id", UUID.class), rs.getTimestamp("created_at")));
+            }
+        }
+        return rows;
+    }
+
+    private static double timePerQuery(PageQuery query) throws SQLException {
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Row> run() throws SQLException;
+    }
+
+    private record Row(UUID id, Timestamp createdAt) {
+    }
+}
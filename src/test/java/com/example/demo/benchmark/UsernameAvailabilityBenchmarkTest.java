@@ -0,0 +1,115 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.common.bloom.BloomFilter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares availability checks per second: Bloom filter with database fallback
+ * versus the plain indexed lookup on {@code app_user.username}.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=UsernameAvailabilityBenchmarkTest}.
+ */
+@Tag("benchmark")
+class UsernameAvailabilityBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 200_000);
+    private static final int CHECKS = Integer.getInteger("bench.checks", 50_000);
+    private static final String EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM app_user WHERE username = ? AND is_deleted = false)";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            "CREATE TABLE app_user (id uuid PRIMARY KEY DEFAULT gen_random_uuid(), "
+                    + "username varchar(255) NOT NULL UNIQUE, is_deleted boolean NOT NULL DEFAULT false)",
+            "INSERT INTO app_user (username) SELECT 'user' || g FROM generate_series(1, " + USERS + ") g",
+            "ANALYZE app_user");
+
+    private static BloomFilter filter;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        filter = BloomFilter.create(USERS * 2L, 0.01);
+        try (Connection connection = postgres.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT username FROM app_user")) {
+                statement.setFetchSize(5000);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        filter.put(rs.getString(1));
+                    }
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    @Test
+    void comparesChecksPerSecond() throws SQLException {
+        String[] candidates = candidates();
+
+        try (Connection connection = postgres.dataSource().getConnection();
+             PreparedStatement exists = connection.prepareStatement(EXISTS_SQL)) {
+            // warm up both paths
+            for (int i = 0; i < Math.min(5_000, CHECKS); i++) {
+                databaseCheck(exists, candidates[i]);
+                filteredCheck(exists, candidates[i]);
+            }
+
+            long dbStart = System.nanoTime();
+            int dbAvailable = 0;
+            for (String candidate : candidates) {
+                if (databaseCheck(exists, candidate)) dbAvailable++;
+            }
+            long dbNanos = System.nanoTime() - dbStart;
+
+            long filterStart = System.nanoTime();
+            int filterAvailable = 0;
+            for (String candidate : candidates) {
+                if (filteredCheck(exists, candidate)) filterAvailable++;
+            }
+            long filterNanos = System.nanoTime() - filterStart;
+
+            System.out.printf("username availability: users=%d checks=%d%n", USERS, CHECKS);
+            System.out.printf("  plain query        : %,.0f checks/s%n", CHECKS / (dbNanos / 1e9));
+            System.out.printf("  filter + fallback  : %,.0f checks/s%n", CHECKS / (filterNanos / 1e9));
+            System.out.printf("  filter expected fpp: %.5f%n", filter.expectedFpp());
+
+            // The filter must never change the answer, only how it is obtained.
+            assertThat(filterAvailable).isEqualTo(dbAvailable);
+        }
+    }
+
+    private static boolean filteredCheck(PreparedStatement exists, String username) throws SQLException {
+        return !filter.mightContain(username) || databaseCheck(exists, username);
+    }
+
+    private static boolean databaseCheck(PreparedStatement exists, String username) throws SQLException {
+        exists.setString(1, username);
+        try (ResultSet rs = exists.executeQuery()) {
+            rs.next();
+            return !rs.getBoolean(1);
+        }
+    }
+
+    // Signup traffic: mostly names nobody has, some collisions with existing users.
+    private static String[] candidates() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] candidates = new String[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            candidates[i] = random.nextInt(10) < 8
+                    ? "new-user-" + random.nextLong()
+                    : "user" + (1 + random.nextInt(USERS));
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.common.jdbc.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * In-process load test of request-shaped work on a Tomcat-sized platform thread pool versus one
+ * virtual thread per request. Each simulated request blocks on a remote call (Redis, mail) and
+ * then runs an indexed user lookup through a small Hikari pool behind {@link BoundedDataSource}.
+ * A fixed number of clients keep requests in flight; latency is measured from submission, so
+ * time spent queued for a pool thread counts.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dtest=VirtualThreadLoadBenchmarkTest}. The virtual
+ * thread run needs Java 21 or newer and is skipped on older JVMs.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("bench.users", 100_000);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 20_000);
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 1_000);
+    private static final int PLATFORM_THREADS = Integer.getInteger("bench.platformThreads", 200);
+    private static final int POOL_SIZE = Integer.getInteger("bench.poolSize", 10);
+    private static final long REMOTE_CALL_MILLIS = Long.getLong("bench.remoteMillis", 5);
+
+    private static final String LOOKUP_SQL = "SELECT id, username, enabled FROM app_user WHERE username = ? AND is_deleted = false";
+
+    @RegisterExtension
+    static final EmbeddedPostgresExtension postgres = new EmbeddedPostgresExtension(
+            "CREATE TABLE app_user (id uuid PRIMARY KEY DEFAULT gen_random_uuid(), "
+                    + "username varchar(255) NOT NULL UNIQUE, enabled boolean NOT NULL DEFAULT true, "
+                    + "is_deleted boolean NOT NULL DEFAULT false)",
+            "INSERT INTO app_user (username) SELECT 'user' || g FROM generate_series(1, " + USERS + ") g",
+            "ANALYZE app_user");
+
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void setUp() {
+        HikariDataSource pool = postgres.closeAfterAll(new HikariDataSource());
+        pool.setJdbcUrl(postgres.jdbcUrl("postgres"));
+        pool.setMaximumPoolSize(POOL_SIZE);
+        pool.setMinimumIdle(POOL_SIZE);
+        dataSource = new BoundedDataSource(pool, POOL_SIZE, Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void comparesPlatformAndVirtualThreads() throws Exception {
+        System.out.printf("thread load: requests=%d clients=%d remoteCall=%dms pool=%d%n",
+                REQUESTS, CLIENTS, REMOTE_CALL_MILLIS, POOL_SIZE);
+
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        run("platform(" + PLATFORM_THREADS + ")", platform, REQUESTS / 5);
+        run("platform(" + PLATFORM_THREADS + ")", platform, REQUESTS).print();
+        platform.shutdown();
+
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        if (virtual == null) {
+            System.out.println("  virtual            : skipped, needs Java 21+ (running " + Runtime.version() + ")");
+            return;
+        }
+        run("virtual", virtual, REQUESTS / 5);
+        run("virtual", virtual, REQUESTS).print();
+        virtual.shutdown();
+    }
+
+    private static Result run(String name, ExecutorService executor, int requests) throws Exception {
+        Semaphore clients = new Semaphore(CLIENTS);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            clients.acquire();
+            int index = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    handleRequest();
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[index] = System.nanoTime() - submitted;
+                    clients.release();
+                }
+            });
+        }
+        clients.acquire(CLIENTS);
+        long elapsed = System.nanoTime() - started;
+
+        assertThat(failures.get()).isZero();
+        Arrays.sort(latencies);
+        return new Result(name, requests / (elapsed / 1e9),
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6);
+    }
+
+    private static void handleRequest() throws Exception {
+        TimeUnit.MILLISECONDS.sleep(REMOTE_CALL_MILLIS);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(LOOKUP_SQL)) {
+            statement.setString(1, "user" + ThreadLocalRandom.current().nextInt(1, USERS + 1));
+            try (ResultSet rs = statement.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+            }
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private record Result(String name, double throughput, double p50Millis, double p99Millis) {
+
+        void print() {
+            System.out.printf("  %-18s : %9.0f req/s   p50 %8.3f ms   p99 %8.3f ms%n", name, throughput, p50Millis, p99Millis);
+        }
+    }
+}
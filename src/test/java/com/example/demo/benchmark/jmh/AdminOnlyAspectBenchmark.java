@@ -0,0 +1,113 @@
+package com.example.demo.benchmark.jmh;
+
+import com.example.demo.common.annotations.AdminOnly;
+import com.example.demo.common.aspects.AdminOnlyAspect;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.utils.enums.UserRoleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of {@link AdminOnlyAspect}: a plain call, a call through the AOP proxy to
+ * an unannotated method (proxy cost only), and calls to {@link AdminOnly} methods that pass the
+ * role check, for a JWT principal and for a principal known only by its authorities.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -Djmh.include=AdminOnlyAspectBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdminOnlyAspectBenchmark {
+
+    public static class Operations {
+
+        private int counter;
+
+        public int plain() {
+            return ++counter;
+        }
+
+        @AdminOnly
+        public int adminOnly() {
+            return ++counter;
+        }
+
+        @AdminOnly(role = UserRoleEnum.MODERATOR)
+        public int moderatorOnly() {
+            return ++counter;
+        }
+    }
+
+    private Operations direct;
+    private Operations proxied;
+    private UsernamePasswordAuthenticationToken jwtAdmin;
+    private UsernamePasswordAuthenticationToken authorityAdmin;
+
+    @Setup
+    public void setUp() {
+        direct = new Operations();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Operations());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AdminOnlyAspect());
+        proxied = factory.getProxy();
+
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        AuthenticatedUser admin = new AuthenticatedUser(UUID.randomUUID(), "admin", UserRoleEnum.ADMIN, "jti", null);
+        jwtAdmin = UsernamePasswordAuthenticationToken.authenticated(admin, null, authorities);
+        authorityAdmin = UsernamePasswordAuthenticationToken.authenticated("admin", null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(jwtAdmin);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public int directCall() {
+        return direct.plain();
+    }
+
+    @Benchmark
+    public int proxiedUnannotated() {
+        return proxied.plain();
+    }
+
+    @Benchmark
+    public int proxiedAdminOnly() {
+        SecurityContextHolder.getContext().setAuthentication(jwtAdmin);
+        return proxied.adminOnly();
+    }
+
+    @Benchmark
+    public int proxiedModeratorOnlyAsAdmin() {
+        SecurityContextHolder.getContext().setAuthentication(jwtAdmin);
+        return proxied.moderatorOnly();
+    }
+
+    @Benchmark
+    public int proxiedAdminOnlyByAuthorities() {
+        SecurityContextHolder.getContext().setAuthentication(authorityAdmin);
+        return proxied.adminOnly();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.benchmark.jmh;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.AuthMetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost {@link AuthMetrics} adds to one instrumented call: {@code uninstrumented} is the bare
+ * work, the other benchmarks wrap the same work in {@code start()} and a {@code record*} call.
+ * With {@code enabled=false} they should match {@code uninstrumented} within noise.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -Djmh.include=AuthMetricsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private AuthMetrics authMetrics;
+
+    @Setup
+    public void setUp() {
+        AuthMetricsProperties properties = new AuthMetricsProperties();
+        properties.setEnabled(enabled);
+        authMetrics = new AuthMetrics(properties, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void uninstrumented(Blackhole blackhole) {
+        Blackhole.consumeCPU(16);
+        blackhole.consume(authMetrics);
+    }
+
+    @Benchmark
+    public void tokenVerification(Blackhole blackhole) {
+        long started = authMetrics.start();
+        Blackhole.consumeCPU(16);
+        blackhole.consume(authMetrics);
+        authMetrics.recordTokenVerification(started, true, true);
+    }
+
+    @Benchmark
+    public void errorByCode(Blackhole blackhole) {
+        long started = authMetrics.start();
+        Blackhole.consumeCPU(16);
+        blackhole.consume(authMetrics);
+        authMetrics.recordError(started, "UNAUTHORIZED");
+    }
+}
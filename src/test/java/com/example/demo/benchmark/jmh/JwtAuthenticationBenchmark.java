@@ -0,0 +1,109 @@
+package com.example.demo.benchmark.jmh;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.AuthMetricsProperties;
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.jwt.JwtKeyRing;
+import com.example.demo.security.jwt.JwtService;
+import com.example.demo.security.jwt.VerifiedTokenCache;
+import com.example.demo.security.revocation.RevocationIndex;
+import com.example.demo.utils.enums.UserRoleEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JwtAuthenticationFilter} with and without the verified-token cache, and
+ * with {@link AuthMetrics} on and off.
+ * <p>
+ * A pool of {@code tokens} distinct tokens models that many concurrently active clients;
+ * each invocation authenticates one of them at random, like hot clients re-sending their
+ * token on every request.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -Djmh.include=JwtAuthenticationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    @Param({"1000"})
+    public int tokens;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] requests;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        ThreadLocalRandom.current().nextBytes(secret);
+        JwtProperties properties = new JwtProperties();
+        properties.setKeys(Map.of("bench", Base64.getEncoder().encodeToString(secret)));
+        properties.getVerifiedCache().setEnabled(cacheEnabled);
+
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        JwtService jwtService = new JwtService(keyRing, properties, Jackson2ObjectMapperBuilder.json().build());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthMetricsProperties metricsProperties = new AuthMetricsProperties();
+        metricsProperties.setEnabled(metricsEnabled);
+        AuthMetrics authMetrics = new AuthMetrics(metricsProperties, meterRegistry);
+        RevocationIndex revocationIndex = new RevocationIndex(100_000, 0.001, properties.getAccessTokenTtl());
+        filter = new JwtAuthenticationFilter(
+                new VerifiedTokenCache(jwtService, keyRing, properties, authMetrics, meterRegistry), revocationIndex);
+
+        requests = new MockHttpServletRequest[tokens];
+        for (int i = 0; i < tokens; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(UUID.randomUUID());
+            user.setUsername("user" + i);
+            user.setRole(UserRoleEnum.USER);
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/secured/users/me");
+            request.addHeader("Authorization", "Bearer " + jwtService.issue(user, null));
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public void authenticate(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = requests[ThreadLocalRandom.current().nextInt(tokens)];
+        // OncePerRequestFilter marks the request as filtered; clear it so every call does the work.
+        request.clearAttributes();
+        FilterChain chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        SecurityContextHolder.clearContext();
+    }
+}
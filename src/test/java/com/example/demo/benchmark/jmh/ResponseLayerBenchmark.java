@@ -0,0 +1,120 @@
+package com.example.demo.benchmark.jmh;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.AuthMetricsProperties;
+import com.example.demo.config.properties.ErrorHandlingProperties;
+import com.example.demo.response.exceptions.BaseException;
+import com.example.demo.response.exceptions.FastErrorMode;
+import com.example.demo.response.exceptions.ResourceNotFoundException;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.handler.GlobalExceptionHandler;
+import com.example.demo.response.model.StandardApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the response layer every request goes through: envelope construction in
+ * {@link ApiResponseFactory}, Jackson serialization of {@link StandardApiResponse}
+ * (including the {@code @JsonFormat} timestamp) and the throw-and-handle path of
+ * {@link BaseException} subclasses through {@link GlobalExceptionHandler}, with fast error
+ * mode (stackless exceptions, pre-serialized bodies) off and on.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -Djmh.include=ResponseLayerBenchmark};
+ * the GC profiler reports {@code gc.alloc.rate.norm} (bytes allocated per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseLayerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean fastErrorMode;
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler exceptionHandler;
+    private MockHttpServletRequest request;
+    private Map<String, Object> payload;
+    private StandardApiResponse<Map<String, Object>> prebuiltEnvelope;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC ObjectMapper (JavaTimeModule, ISO dates).
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ErrorHandlingProperties properties = new ErrorHandlingProperties();
+        properties.getFastMode().setEnabled(fastErrorMode);
+        FastErrorMode.configure(fastErrorMode, Set.of());
+        AuthMetricsProperties metricsProperties = new AuthMetricsProperties();
+        metricsProperties.setEnabled(false);
+        exceptionHandler = new GlobalExceptionHandler(properties, new AuthMetrics(metricsProperties, new SimpleMeterRegistry()));
+        request = new MockHttpServletRequest("GET", "/api/secured/users/me");
+        payload = Map.of(
+                "id", "7f9c1c52-4d1e-4a8e-9c55-2f6f1c0a9e01",
+                "username", "jdoe",
+                "email", "jdoe@example.com",
+                "role", "USER");
+        prebuiltEnvelope = ApiResponseFactory.success("OK", payload, request).getBody();
+    }
+
+    @Benchmark
+    public ResponseEntity<StandardApiResponse<Map<String, Object>>> buildSuccessEnvelope() {
+        return ApiResponseFactory.success("OK", payload, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<StandardApiResponse<Void>> buildErrorEnvelope() {
+        return ApiResponseFactory.error(HttpStatus.UNAUTHORIZED, "Invalid credentials", request);
+    }
+
+    @Benchmark
+    public byte[] serializeEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(prebuiltEnvelope);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponseFactory.success("OK", payload, request).getBody());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> throwAndHandleUnauthorized() {
+        try {
+            throw new UnauthorizedException("Invalid credentials");
+        } catch (BaseException ex) {
+            return exceptionHandler.handleBaseException(ex, request);
+        }
+    }
+
+    @Benchmark
+    public byte[] throwHandleAndSerializeNotFound() throws Exception {
+        try {
+            throw new ResourceNotFoundException("User not found");
+        } catch (BaseException ex) {
+            Object body = exceptionHandler.handleBaseException(ex, request).getBody();
+            // Templated bodies are already the bytes that go on the wire.
+            return body instanceof byte[] bytes ? bytes : objectMapper.writeValueAsBytes(body);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.benchmark.jmh;
+
+import com.example.demo.security.jwt.JwtClaims;
+import com.example.demo.security.revocation.RevocationIndex;
+import com.example.demo.utils.enums.UserRoleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link RevocationIndex#isRevoked} with {@code revoked} ids and user
+ * cutoffs loaded: {@code live} is the common case (nothing revoked, answered by the prefilter),
+ * {@code revokedToken} goes through to the exact set and {@code revokedUser} hits a cutoff.
+ * All should stay well under a microsecond.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -Djmh.include=TokenRevocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenRevocationBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"1000", "100000"})
+    public int revoked;
+
+    private RevocationIndex index;
+    private JwtClaims[] live;
+    private JwtClaims[] revokedTokens;
+    private JwtClaims[] revokedUsers;
+
+    @Setup
+    public void setUp() {
+        index = new RevocationIndex(100_000, 0.001, Duration.ofMinutes(15));
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        long expiresAt = issuedAt.plus(Duration.ofMinutes(15)).getEpochSecond();
+        String[] revokedIds = new String[revoked];
+        for (int i = 0; i < revoked; i++) {
+            revokedIds[i] = UUID.randomUUID().toString();
+            index.revokeId(revokedIds[i], expiresAt);
+        }
+        UUID[] cutoffUsers = new UUID[revoked / 10];
+        for (int i = 0; i < cutoffUsers.length; i++) {
+            cutoffUsers[i] = UUID.randomUUID();
+            index.revokeUser(cutoffUsers[i], issuedAt.toEpochMilli());
+        }
+
+        live = new JwtClaims[SAMPLES];
+        revokedTokens = new JwtClaims[SAMPLES];
+        revokedUsers = new JwtClaims[SAMPLES];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            live[i] = claims(UUID.randomUUID(), UUID.randomUUID().toString(), issuedAt);
+            revokedTokens[i] = claims(UUID.randomUUID(), revokedIds[random.nextInt(revoked)], issuedAt);
+            revokedUsers[i] = claims(cutoffUsers[random.nextInt(cutoffUsers.length)], UUID.randomUUID().toString(), issuedAt);
+        }
+    }
+
+    @Benchmark
+    public boolean live() {
+        return index.isRevoked(live[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return index.isRevoked(revokedTokens[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+    }
+
+    @Benchmark
+    public boolean revokedUser() {
+        return index.isRevoked(revokedUsers[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+    }
+
+    private static JwtClaims claims(UUID userId, String tokenId, Instant issuedAt) {
+        return new JwtClaims(userId, "bench", UserRoleEnum.USER, tokenId, UUID.randomUUID().toString(), "bench",
+                issuedAt, issuedAt.plus(Duration.ofMinutes(15)));
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.demo.common.aspects;
+
+import com.example.demo.common.annotations.Idempotent;
+import com.example.demo.config.properties.IdempotencyProperties;
+import com.example.demo.idempotency.IdempotencySecret;
+import com.example.demo.idempotency.InMemoryIdempotencyStore;
+import com.example.demo.idempotency.StoredResponse;
+import com.example.demo.response.exceptions.BadRequestException;
+import com.example.demo.response.exceptions.ConflictException;
+import com.example.demo.response.exceptions.UnprocessableEntityException;
+import com.example.demo.response.factory.ApiResponseFactory;
+import com.example.demo.response.model.StandardApiResponse;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.utils.enums.UserRoleEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyAspectTest {
+
+    private IdempotencyProperties properties;
+    private RecordingStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private SignupEndpoint target;
+    private SignupEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setInFlightTimeout(Duration.ofSeconds(5));
+        store = new RecordingStore(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        IdempotencyAspect aspect = new IdempotencyAspect(store, IdempotencySecret.ephemeral(), properties,
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        target = new SignupEndpoint();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        endpoint = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.proceed.countDown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replaysTheStoredResponseForARetry() {
+        ResponseEntity<?> first = call("key-1", "alice");
+        ResponseEntity<?> retry = call("key-1", "alice");
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyAspect.REPLAYED)).isEqualTo("true");
+        assertThat(new String((byte[]) retry.getBody())).contains("\"alice\"");
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(store.completed).containsExactly("anonymous:key-1");
+    }
+
+    @Test
+    void releasesTheKeyWhenTheRequestThrows() {
+        target.failNext.set(true);
+
+        assertThatThrownBy(() -> call("key-1", "alice")).isInstanceOf(BadRequestException.class);
+        assertThat(store.released).containsExactly("anonymous:key-1");
+        assertThat(store.completed).isEmpty();
+
+        ResponseEntity<?> retry = call("key-1", "alice");
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(target.executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentBody() {
+        call("key-1", "alice");
+
+        assertThatThrownBy(() -> call("key-1", "bob")).isInstanceOf(UnprocessableEntityException.class);
+        assertThat(target.executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateWaitsForTheRequestInFlightAndReplaysItsResponse() throws Exception {
+        target.proceed = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> original = callAsync("key-1", "alice");
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<?>> duplicate = callAsync("key-1", "alice");
+
+        Thread.sleep(100);
+        assertThat(duplicate.isDone()).isFalse();
+        target.proceed.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getHeaders().getFirst(IdempotencyAspect.REPLAYED)).isEqualTo("true");
+        assertThat(target.executions.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("idempotency.requests").tag("outcome", "waited").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void duplicateOfARequestThatFailsRunsItAgain() throws Exception {
+        target.proceed = new CountDownLatch(1);
+        target.failNext.set(true);
+        CompletableFuture<ResponseEntity<?>> original = callAsync("key-1", "alice");
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<?>> duplicate = callAsync("key-1", "alice");
+        Thread.sleep(100);
+
+        target.proceed.countDown();
+
+        assertThatThrownBy(() -> original.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(BadRequestException.class);
+        ResponseEntity<?> rerun = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(rerun.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(rerun.getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(target.executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void duplicateGivesUpWithAConflictAfterTheInFlightTimeout() throws Exception {
+        properties.setInFlightTimeout(Duration.ofMillis(100));
+        target.proceed = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> original = callAsync("key-1", "alice");
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> call("key-1", "alice")).isInstanceOf(ConflictException.class);
+
+        target.proceed.countDown();
+        assertThat(original.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void keysAreScopedToTheCaller() {
+        call("key-1", "alice");
+        UUID userId = UUID.randomUUID();
+        AuthenticatedUser user = new AuthenticatedUser(userId, "bob", UserRoleEnum.USER, "jti", null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        ResponseEntity<?> response = call("key-1", "alice");
+
+        assertThat(response.getHeaders().containsKey(IdempotencyAspect.REPLAYED)).isFalse();
+        assertThat(store.completed).containsExactly("anonymous:key-1", userId + ":key-1");
+    }
+
+    @Test
+    void requestsWithoutAKeyAlwaysRun() {
+        inRequest(null, () -> endpoint.signup(Map.of("username", "alice")));
+        inRequest(null, () -> endpoint.signup(Map.of("username", "alice")));
+
+        assertThat(target.executions.get()).isEqualTo(2);
+        assertThat(store.completed).isEmpty();
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        properties.setMaxKeyLength(8);
+
+        assertThatThrownBy(() -> call(" ", "alice")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> call("123456789", "alice")).isInstanceOf(BadRequestException.class);
+        assertThat(target.executions.get()).isEqualTo(0);
+    }
+
+    private ResponseEntity<?> call(String idempotencyKey, String username) {
+        return inRequest(idempotencyKey, () -> endpoint.signup(Map.of("username", username)));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> callAsync(String idempotencyKey, String username) {
+        return CompletableFuture.supplyAsync(() -> call(idempotencyKey, username));
+    }
+
+    private static <T> T inRequest(String idempotencyKey, Supplier<T> action) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signup");
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    static class SignupEndpoint {
+
+        final AtomicInteger executions = new AtomicInteger();
+        final AtomicBoolean failNext = new AtomicBoolean();
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch proceed = new CountDownLatch(0);
+
+        @Idempotent
+        public ResponseEntity<StandardApiResponse<String>> signup(@RequestBody Map<String, String> body) {
+            executions.incrementAndGet();
+            entered.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failNext.getAndSet(false)) {
+                throw new BadRequestException("Username is already taken");
+            }
+            return ApiResponseFactory.success(HttpStatus.CREATED, "User registered", body.get("username"));
+        }
+    }
+
+    private static final class RecordingStore extends InMemoryIdempotencyStore {
+
+        private final List<String> completed = new CopyOnWriteArrayList<>();
+        private final List<String> released = new CopyOnWriteArrayList<>();
+
+        RecordingStore(IdempotencyProperties properties) {
+            super(properties.getTtl(), properties.getMaximumSize());
+        }
+
+        @Override
+        public void complete(String key, StoredResponse response) {
+            completed.add(key);
+            super.complete(key, response);
+        }
+
+        @Override
+        public void release(String key) {
+            released.add(key);
+            super.release(key);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.common.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedValueAsMissing() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i)).as("user%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtCapacity() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFpp()).isLessThan(0.02);
+    }
+
+    @Test
+    void putReportsWhetherAnyBitChanged() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertThat(filter.put("alice")).isTrue();
+        assertThat(filter.put("alice")).isFalse();
+    }
+
+    @Test
+    void approximateElementCountTracksDistinctInsertions() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.put("user" + i);
+            filter.put("user" + i);
+        }
+        assertThat(filter.approximateElementCount()).isBetween(4_750L, 5_250L);
+    }
+
+    @Test
+    void snapshotRoundTripKeepsContentsAndSizing() throws IOException {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        filter.put("alice");
+        filter.put("bob");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        BloomFilter read = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(read.mightContain("alice")).isTrue();
+        assertThat(read.mightContain("bob")).isTrue();
+        assertThat(read.bitSize()).isEqualTo(filter.bitSize());
+        assertThat(read.hashFunctions()).isEqualTo(filter.hashFunctions());
+        assertThat(read.approximateElementCount()).isEqualTo(filter.approximateElementCount());
+    }
+
+    @Test
+    void rejectsSomethingThatIsNotASnapshot() {
+        assertThatThrownBy(() -> BloomFilter.readFrom(new ByteArrayInputStream(new byte[64])))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a Bloom filter");
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThatThrownBy(() -> BloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
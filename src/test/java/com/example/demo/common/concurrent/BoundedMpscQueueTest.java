@@ -0,0 +1,106 @@
+package com.example.demo.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedMpscQueueTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new BoundedMpscQueue<String>(5).capacity()).isEqualTo(8);
+        assertThat(new BoundedMpscQueue<String>(8).capacity()).isEqualTo(8);
+        assertThatThrownBy(() -> new BoundedMpscQueue<String>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pollsInOfferOrderAcrossWraparound() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(4);
+        List<Integer> polled = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            assertThat(queue.offer(next++)).isTrue();
+            assertThat(queue.offer(next++)).isTrue();
+            assertThat(queue.offer(next++)).isTrue();
+            polled.add(queue.poll());
+            polled.add(queue.poll());
+            polled.add(queue.poll());
+        }
+        assertThat(queue.poll()).isNull();
+        for (int i = 0; i < polled.size(); i++) {
+            assertThat(polled.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void rejectsOffersWhenFullUntilSomethingIsPolled() {
+        BoundedMpscQueue<String> queue = new BoundedMpscQueue<>(2);
+
+        assertThat(queue.offer("a")).isTrue();
+        assertThat(queue.offer("b")).isTrue();
+        assertThat(queue.offer("c")).isFalse();
+        assertThat(queue.size()).isEqualTo(2);
+
+        assertThat(queue.poll()).isEqualTo("a");
+        assertThat(queue.offer("c")).isTrue();
+        assertThat(queue.poll()).isEqualTo("b");
+        assertThat(queue.poll()).isEqualTo("c");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        BoundedMpscQueue<long[]> queue = new BoundedMpscQueue<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertThat(element[1]).isEqualTo(lastSeen[producer] + 1);
+            lastSeen[producer] = element[1];
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(queue.poll()).isNull();
+    }
+}
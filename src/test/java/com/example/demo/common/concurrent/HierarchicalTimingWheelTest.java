@@ -0,0 +1,117 @@
+package com.example.demo.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void reportsAnEntryOnTheFirstTickAtOrAfterItsDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 3, 0);
+        wheel.schedule("a", 25);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advanceTo(29, (key, deadline) -> expired.add(key));
+        assertThat(expired).isEmpty();
+
+        wheel.advanceTo(30, (key, deadline) -> expired.add(key));
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void cascadesEntriesDownFromHigherLevels() {
+        // 4 slots x 3 levels of 1 ms: level 0 spans 4 ms, level 1 16 ms, level 2 64 ms.
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 4, 3, 0);
+        long[] deadlines = {3, 4, 5, 15, 16, 17, 40, 63};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        Map<Long, Long> reportedAt = new HashMap<>();
+
+        for (long now = 1; now <= 64; now++) {
+            long at = now;
+            wheel.advanceTo(now, (key, deadline) -> reportedAt.put(key, at));
+        }
+
+        for (long deadline : deadlines) {
+            assertThat(reportedAt.get(deadline)).as("deadline %d", deadline).isEqualTo(deadline);
+        }
+    }
+
+    @Test
+    void parksEntriesBeyondTheSpanUntilTheyAreDue() {
+        // Spans 16 ticks; the entry is re-placed every time it reaches the farthest slot.
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 4, 2, 0);
+        wheel.schedule("far", 100);
+        List<Long> reportedAt = new ArrayList<>();
+
+        for (long now = 1; now <= 120; now++) {
+            long at = now;
+            wheel.advanceTo(now, (key, deadline) -> reportedAt.add(at));
+        }
+
+        assertThat(reportedAt).containsExactly(100L);
+    }
+
+    @Test
+    void reportsOverdueEntriesOnTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 2, 1_000);
+        wheel.schedule("late", 500);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advanceTo(1_000, (key, deadline) -> expired.add(key));
+
+        assertThat(expired).containsExactly("late");
+    }
+
+    @Test
+    void reportsRandomDeadlinesOnTheFirstAdvancePastTheirTick() {
+        long tick = 7;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(tick, 8, 3, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 5_000; key++) {
+            long deadline = random.nextInt(20_000);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+        List<Long> advances = new ArrayList<>();
+        Map<Integer, Long> reportedAt = new HashMap<>();
+
+        long now = 0;
+        while (now < 25_000) {
+            now += 1 + random.nextInt(3 * (int) tick);
+            long at = now;
+            advances.add(now);
+            wheel.advanceTo(now, (key, deadline) -> {
+                assertThat(reportedAt.put(key, at)).as("reported twice: %d", key).isNull();
+                assertThat(deadline).isEqualTo(deadlines.get(key));
+            });
+        }
+
+        assertThat(reportedAt).hasSize(deadlines.size());
+        assertThat(wheel.size()).isEqualTo(0);
+        for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+            long deadlineTick = -Math.floorDiv(-entry.getValue(), tick);
+            long expected = advances.stream().filter(at -> at / tick >= deadlineTick).findFirst().orElseThrow();
+            assertThat(reportedAt.get(entry.getKey())).as("key %d", entry.getKey()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void rejectsWheelSizesThatAreNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<String>(1, 6, 2, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<String>(1, 1, 2, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.UserEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRepositoryLoginIdentifierTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final List<UserEntity> users = new ArrayList<>();
+    private final UserRepository repository = repository(users);
+
+    @Test
+    void resolvesAUsernameOrAUniqueEmailInAnyCase() {
+        UserEntity alice = user("Alice", "alice@example.com", 0);
+
+        assertThat(repository.findByLoginIdentifier("ALICE")).contains(alice);
+        assertThat(repository.findByLoginIdentifier(" alice ")).contains(alice);
+        assertThat(repository.findByLoginIdentifier("Alice@Example.com")).contains(alice);
+        assertThat(repository.findByLoginIdentifier("bob")).isEmpty();
+    }
+
+    @Test
+    void usernamesDifferingOnlyInCaseResolveOnlyWhenTypedExactly() {
+        UserEntity older = user("alice", "old@example.com", 0);
+        UserEntity newer = user("Alice", "new@example.com", 1);
+
+        assertThat(repository.findByLoginIdentifier("alice")).contains(older);
+        assertThat(repository.findByLoginIdentifier("Alice")).contains(newer);
+        assertThat(repository.findByLoginIdentifier("ALICE")).isEmpty();
+    }
+
+    @Test
+    void theLockoutNeverDisablesOneOfSeveralCaseVariants() {
+        user("alice", "old@example.com", 0);
+        user("Alice", "new@example.com", 1);
+
+        // The rate limiter counts both under its normalized key, so neither account is its owner.
+        assertThat(repository.findByNormalizedLoginIdentifier("alice")).isEmpty();
+        assertThat(repository.findByNormalizedLoginIdentifier("Alice")).isEmpty();
+    }
+
+    @Test
+    void theLockoutResolvesAUsernameWithoutCaseVariants() {
+        UserEntity alice = user("Alice", "alice@example.com", 0);
+
+        assertThat(repository.findByNormalizedLoginIdentifier("alice")).contains(alice);
+    }
+
+    @Test
+    void aSharedEmailResolvesToNoAccount() {
+        user("alice", "shared@example.com", 0);
+        user("bob", "shared@example.com", 1);
+
+        assertThat(repository.findByLoginIdentifier("shared@example.com")).isEmpty();
+        assertThat(repository.findByLoginIdentifier("bob")).isPresent();
+    }
+
+    private UserEntity user(String username, String email, int minutes) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setUsernameNormalized(UserEntity.normalizeLoginIdentifier(username));
+        user.setEmailNormalized(UserEntity.normalizeLoginIdentifier(email));
+        user.setCreatedAt(T0.plusMinutes(minutes));
+        users.add(user);
+        return user;
+    }
+
+    /**
+     * Answers {@code findLoginCandidates} in memory with the query's filter and order, and runs
+     * the interface's default methods as they are.
+     */
+    private static UserRepository repository(List<UserEntity> users) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            if (method.getName().equals("findLoginCandidates")) {
+                String username = (String) args[0];
+                String normalized = (String) args[1];
+                return users.stream()
+                        .filter(user -> normalized.equals(user.getUsernameNormalized())
+                                || normalized.equals(user.getEmailNormalized()))
+                        .sorted(Comparator.<UserEntity>comparingInt(user -> username.equals(user.getUsername()) ? 0
+                                        : normalized.equals(user.getUsernameNormalized()) ? 1 : 2)
+                                .thenComparing(UserEntity::getCreatedAt))
+                        .limit(((Limit) args[2]).max())
+                        .toList();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        };
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, handler);
+    }
+}
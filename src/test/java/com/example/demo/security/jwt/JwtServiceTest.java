@@ -0,0 +1,176 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.model.entity.UserEntity;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.example.demo.utils.enums.UserRoleEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    static final String KEY_1 = Base64.getEncoder().encodeToString(new byte[32]);
+    static final String KEY_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JwtProperties properties;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.getKeys().put("k1", KEY_1);
+        properties.getKeys().put("k2", KEY_2);
+        properties.setActiveKeyId("k2");
+        jwtService = new JwtService(new JwtKeyRing(properties), properties, objectMapper);
+    }
+
+    @Test
+    void verifiesWhatItIssues() {
+        UserEntity user = user();
+        Instant before = Instant.now();
+
+        JwtClaims claims = jwtService.verify(jwtService.issue(user, "session-1"));
+
+        assertThat(claims.userId()).isEqualTo(user.getId());
+        assertThat(claims.username()).isEqualTo("alice");
+        assertThat(claims.role()).isEqualTo(UserRoleEnum.MODERATOR);
+        assertThat(claims.sessionId()).isEqualTo("session-1");
+        assertThat(claims.keyId()).isEqualTo("k2");
+        assertThat(claims.tokenId()).isNotNull();
+        assertThat(claims.issuedAt()).isBetween(before.minusMillis(1), Instant.now());
+        assertThat(claims.expiresAt()).isAfter(claims.issuedAt());
+    }
+
+    @Test
+    void issuedAtKeepsMillisecondsFromThePrivateClaim() {
+        long iatMillis = 1_700_000_000_123L;
+        String token = sign(Map.of("alg", "HS256", "kid", "k1"),
+                claims(Map.of("iat", iatMillis / 1000, "iat_ms", iatMillis)), KEY_1);
+
+        assertThat(jwtService.verify(token).issuedAt()).isEqualTo(Instant.ofEpochMilli(iatMillis));
+    }
+
+    @Test
+    void tokensWithoutMillisecondIssueTimeFallBackToIat() {
+        String token = sign(Map.of("alg", "HS256", "kid", "k1"),
+                claims(Map.of("iat", 1_700_000_000L)), KEY_1);
+
+        assertThat(jwtService.verify(token).issuedAt()).isEqualTo(Instant.ofEpochSecond(1_700_000_000L));
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String token = jwtService.issue(user(), null);
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertInvalid(tampered);
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String[] parts = jwtService.issue(user(), null).split("\\.");
+        String payload = encode(claims(Map.of("iat", Instant.now().getEpochSecond(), "role", "ADMIN")));
+
+        assertInvalid(parts[0] + "." + payload + "." + parts[2]);
+    }
+
+    @Test
+    void rejectsUnknownKeyIdsAndOtherAlgorithms() {
+        Map<String, Object> claims = claims(Map.of("iat", Instant.now().getEpochSecond()));
+
+        assertInvalid(sign(Map.of("alg", "HS256", "kid", "retired"), claims, KEY_1));
+        assertInvalid(sign(Map.of("alg", "HS256"), claims, KEY_1));
+        assertInvalid(sign(Map.of("alg", "none", "kid", "k1"), claims, KEY_1));
+        assertInvalid(sign(Map.of("alg", "HS512", "kid", "k1"), claims, KEY_1));
+    }
+
+    @Test
+    void rejectsExpiredTokensOutsideTheClockSkew() {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> expired = claims(Map.of("iat", now - 120, "exp", now - 60));
+        Map<String, Object> withinSkew = claims(Map.of("iat", now - 120, "exp", now - 10));
+
+        assertInvalid(sign(Map.of("alg", "HS256", "kid", "k1"), expired, KEY_1));
+        assertThat(jwtService.verify(sign(Map.of("alg", "HS256", "kid", "k1"), withinSkew, KEY_1))).isNotNull();
+    }
+
+    @Test
+    void rejectsAnotherIssuer() {
+        Map<String, Object> claims = claims(Map.of("iat", Instant.now().getEpochSecond(), "iss", "someone-else"));
+
+        assertInvalid(sign(Map.of("alg", "HS256", "kid", "k1"), claims, KEY_1));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertInvalid("");
+        assertInvalid("abc");
+        assertInvalid("a.b");
+        assertInvalid("a.b.c.d");
+        assertInvalid(".b.c");
+        assertInvalid("!!.??.**");
+    }
+
+    private void assertInvalid(String token) {
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(UnauthorizedException.class);
+    }
+
+    static UserEntity user() {
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID());
+        user.setUsername("alice");
+        user.setRole(UserRoleEnum.MODERATOR);
+        return user;
+    }
+
+    /**
+     * Valid claims for the default properties, with the given entries added or replaced.
+     */
+    private Map<String, Object> claims(Map<String, Object> overrides) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", properties.getIssuer());
+        claims.put("sub", UUID.randomUUID().toString());
+        claims.put("usr", "alice");
+        claims.put("role", "USER");
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("exp", Instant.now().plus(Duration.ofMinutes(5)).getEpochSecond());
+        claims.putAll(overrides);
+        return claims;
+    }
+
+    private String sign(Map<String, Object> header, Map<String, Object> claims, String base64Key) {
+        try {
+            String signingInput = encode(header) + "." + encode(claims);
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(base64Key), "HmacSHA256"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String encode(Map<String, Object> json) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
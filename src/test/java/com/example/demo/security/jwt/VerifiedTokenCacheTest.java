@@ -0,0 +1,126 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.common.metrics.AuthMetrics;
+import com.example.demo.config.properties.AuthMetricsProperties;
+import com.example.demo.config.properties.JwtProperties;
+import com.example.demo.response.exceptions.UnauthorizedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void verifiesEachTokenOnceWhileCached() throws IOException {
+        Fixture fixture = new Fixture(true);
+        String token = fixture.jwtService.issue(JwtServiceTest.user(), null);
+
+        JwtClaims first = fixture.cache.verify(token);
+        JwtClaims second = fixture.cache.verify(token);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(fixture.jwtService.verifications.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidTokensAreNeverCached() throws IOException {
+        Fixture fixture = new Fixture(true);
+
+        assertThatThrownBy(() -> fixture.cache.verify("a.b.c")).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> fixture.cache.verify("a.b.c")).isInstanceOf(UnauthorizedException.class);
+        assertThat(fixture.jwtService.verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() throws IOException {
+        Fixture fixture = new Fixture(false);
+        String token = fixture.jwtService.issue(JwtServiceTest.user(), null);
+
+        fixture.cache.verify(token);
+        fixture.cache.verify(token);
+
+        assertThat(fixture.jwtService.verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void removingASigningKeyDropsTheTokensItSigned() throws IOException {
+        Fixture fixture = new Fixture(true);
+        String token = fixture.jwtService.issue(JwtServiceTest.user(), null);
+        fixture.cache.verify(token);
+
+        // Rotate k1 out of the key file: cached claims it signed must not outlive it.
+        fixture.writeKeyFile("k2=" + JwtServiceTest.KEY_2 + "\nactive=k2\n", Instant.now().plusSeconds(60));
+        fixture.keyRing.reloadIfChanged();
+
+        assertThatThrownBy(() -> fixture.cache.verify(token)).isInstanceOf(UnauthorizedException.class);
+        assertThat(fixture.jwtService.verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void addingAKeyKeepsCachedTokens() throws IOException {
+        Fixture fixture = new Fixture(true);
+        String token = fixture.jwtService.issue(JwtServiceTest.user(), null);
+        fixture.cache.verify(token);
+
+        fixture.writeKeyFile("k1=" + JwtServiceTest.KEY_1 + "\nk2=" + JwtServiceTest.KEY_2 + "\nactive=k2\n",
+                Instant.now().plusSeconds(60));
+        fixture.keyRing.reloadIfChanged();
+
+        assertThat(fixture.cache.verify(token).keyId()).isEqualTo("k1");
+        assertThat(fixture.jwtService.verifications.get()).isEqualTo(1);
+    }
+
+    private final class Fixture {
+
+        private final Path keyFile = tempDir.resolve("jwt-keys.properties");
+        private final JwtKeyRing keyRing;
+        private final CountingJwtService jwtService;
+        private final VerifiedTokenCache cache;
+
+        Fixture(boolean cacheEnabled) throws IOException {
+            writeKeyFile("k1=" + JwtServiceTest.KEY_1 + "\nactive=k1\n", Instant.now());
+            JwtProperties properties = new JwtProperties();
+            properties.setKeyFile(keyFile);
+            properties.getVerifiedCache().setEnabled(cacheEnabled);
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            keyRing = new JwtKeyRing(properties);
+            jwtService = new CountingJwtService(keyRing, properties);
+            cache = new VerifiedTokenCache(jwtService, keyRing, properties,
+                    new AuthMetrics(new AuthMetricsProperties(), meterRegistry), meterRegistry);
+        }
+
+        void writeKeyFile(String contents, Instant modified) throws IOException {
+            Files.writeString(keyFile, contents);
+            Files.setLastModifiedTime(keyFile, FileTime.from(modified));
+        }
+    }
+
+    private static final class CountingJwtService extends JwtService {
+
+        private final AtomicInteger verifications = new AtomicInteger();
+
+        CountingJwtService(JwtKeyRing keyRing, JwtProperties properties) {
+            super(keyRing, properties, new ObjectMapper());
+        }
+
+        @Override
+        public JwtClaims verify(String token) {
+            verifications.incrementAndGet();
+            return super.verify(token);
+        }
+    }
+}
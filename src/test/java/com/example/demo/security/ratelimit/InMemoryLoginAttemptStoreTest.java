@@ -0,0 +1,120 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryLoginAttemptStoreTest {
+
+    private static final long START = 1_000_000L;
+    private static final long WINDOW = Duration.ofMinutes(10).toMillis();
+
+    @Test
+    void bucketAllowsItsCapacityThenReportsTheWaitUntilRefill() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(1024, START);
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket(3, 1, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("ip:1", bucket, START)).isEqualTo(0L);
+        }
+        assertThat(store.tryConsume("ip:1", bucket, START)).isEqualTo(1_000L);
+        assertThat(store.tryConsume("ip:1", bucket, START + 999)).isGreaterThan(0L);
+        assertThat(store.tryConsume("ip:1", bucket, START + 1_000)).isEqualTo(0L);
+        assertThat(store.tryConsume("ip:1", bucket, START + 1_000)).isGreaterThan(0L);
+    }
+
+    @Test
+    void bucketRefillNeverExceedsCapacity() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(1024, START);
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket(2, 1, Duration.ofSeconds(1));
+        store.tryConsume("ip:1", bucket, START);
+
+        long later = START + Duration.ofHours(1).toMillis();
+        assertThat(store.tryConsume("ip:1", bucket, later)).isEqualTo(0L);
+        assertThat(store.tryConsume("ip:1", bucket, later)).isEqualTo(0L);
+        assertThat(store.tryConsume("ip:1", bucket, later)).isGreaterThan(0L);
+    }
+
+    @Test
+    void countsFailuresWithinTheWindowAndStartsOverAfterIt() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(1024, START);
+
+        store.recordFailure("user:alice", WINDOW, START);
+        FailureState second = store.recordFailure("user:alice", WINDOW, START + WINDOW);
+        assertThat(second.failures()).isEqualTo(2);
+        assertThat(second.lastFailureMillis()).isEqualTo(START + WINDOW);
+        assertThat(store.failures("user:alice")).isEqualTo(new FailureState(2, START + WINDOW));
+
+        FailureState afterGap = store.recordFailure("user:alice", WINDOW, START + 2 * WINDOW + 1);
+        assertThat(afterGap.failures()).isEqualTo(1);
+    }
+
+    @Test
+    void resetClearsFailures() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(1024, START);
+        store.recordFailure("user:alice", WINDOW, START);
+
+        store.reset("user:alice");
+
+        assertThat(store.failures("user:alice")).isEqualTo(FailureState.NONE);
+        assertThat(store.recordFailure("user:alice", WINDOW, START).failures()).isEqualTo(1);
+    }
+
+    @Test
+    void failuresOfOneKeyAreNotShared() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(1024, START);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.recordFailure("user:alice", WINDOW, START + i).shared()).isFalse();
+        }
+    }
+
+    @Test
+    void collidingKeysShareACountThatIsReportedAsShared() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(2, START);
+        String victim = "user:victim";
+        String attacker = collidingKey(store, victim, START);
+
+        assertThat(store.recordFailure(victim, WINDOW, START).shared()).isFalse();
+        FailureState attackerState = store.recordFailure(attacker, WINDOW, START + 1);
+        assertThat(attackerState.failures()).isEqualTo(2);
+        assertThat(attackerState.shared()).isTrue();
+
+        // Once another key joined, the count stays shared for the original key too.
+        FailureState victimState = store.recordFailure(victim, WINDOW, START + 2);
+        assertThat(victimState.failures()).isEqualTo(3);
+        assertThat(victimState.shared()).isTrue();
+    }
+
+    @Test
+    void aFreshCountAfterTheWindowBelongsToItsFirstKeyAgain() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(2, START);
+        String victim = "user:victim";
+        String attacker = collidingKey(store, victim, START);
+        store.recordFailure(victim, WINDOW, START);
+        store.recordFailure(attacker, WINDOW, START + 1);
+
+        long later = START + 2 * WINDOW;
+        assertThat(store.recordFailure(victim, WINDOW, later).shared()).isFalse();
+        assertThat(store.recordFailure(victim, WINDOW, later + 1).shared()).isFalse();
+    }
+
+    /**
+     * A key other than {@code key} that lands in the same failure slot.
+     */
+    static String collidingKey(LoginAttemptStore store, String key, long nowMillis) {
+        for (int i = 0; ; i++) {
+            String candidate = "user:other" + i;
+            store.reset(key);
+            store.recordFailure(candidate, WINDOW, nowMillis);
+            boolean collides = store.failures(key).failures() > 0;
+            store.reset(candidate);
+            if (collides) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.properties.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private final List<String> disabled = new ArrayList<>();
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setLockoutThreshold(2);
+        properties.setLockoutBase(Duration.ofMinutes(1));
+        properties.setDisableThreshold(3);
+    }
+
+    @Test
+    void disablesAnAccountWhenItsOwnFailuresReachTheThreshold() {
+        LoginRateLimiter limiter = limiter(new InMemoryLoginAttemptStore(1024, System.currentTimeMillis()));
+
+        for (int i = 0; i < 4; i++) {
+            limiter.loginFailed("Alice");
+        }
+
+        assertThat(disabled).containsExactly("Alice");
+    }
+
+    @Test
+    void neverDisablesAnAccountOnACountSharedWithAnotherUsername() {
+        InMemoryLoginAttemptStore store = new InMemoryLoginAttemptStore(2, System.currentTimeMillis());
+        String other = InMemoryLoginAttemptStoreTest
+                .collidingKey(store, "user:victim", System.currentTimeMillis())
+                .substring("user:".length());
+        LoginRateLimiter limiter = limiter(store);
+
+        limiter.loginFailed("victim");
+        limiter.loginFailed(other);
+        limiter.loginFailed(other);
+
+        assertThat(disabled).isEmpty();
+        // The shared slot still locks out both usernames.
+        assertThat(limiter.checkUsername("victim").allowed()).isFalse();
+        assertThat(limiter.checkUsername(other).allowed()).isFalse();
+    }
+
+    @Test
+    void locksOutPastTheThresholdAndSuccessClearsIt() {
+        LoginRateLimiter limiter = limiter(new InMemoryLoginAttemptStore(1024, System.currentTimeMillis()));
+        limiter.loginFailed("alice");
+        assertThat(limiter.checkUsername("alice").allowed()).isTrue();
+
+        limiter.loginFailed("ALICE ");
+        LoginRateLimiter.Decision locked = limiter.checkUsername("alice");
+        assertThat(locked.allowed()).isFalse();
+        assertThat(locked.retryAfterMillis()).isBetween(1L, Duration.ofMinutes(1).toMillis());
+
+        limiter.loginSucceeded("alice");
+        assertThat(limiter.checkUsername("alice").allowed()).isTrue();
+    }
+
+    private LoginRateLimiter limiter(LoginAttemptStore store) {
+        return new LoginRateLimiter(store, properties, disabled::add, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.security.revocation;
+
+import com.example.demo.security.jwt.JwtClaims;
+import com.example.demo.utils.enums.UserRoleEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationIndexTest {
+
+    private static final Instant CUTOFF = Instant.parse("2026-01-01T12:00:00.500Z");
+
+    private final RevocationIndex index = new RevocationIndex(1_000, 0.01, Duration.ofMinutes(15));
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void userCutoffRejectsTokensIssuedUpToTheCutoffMillisecond() {
+        index.revokeUser(userId, CUTOFF.toEpochMilli());
+
+        assertThat(index.isRevoked(token(userId, CUTOFF.minusSeconds(60)))).isTrue();
+        assertThat(index.isRevoked(token(userId, CUTOFF.minusMillis(1)))).isTrue();
+        assertThat(index.isRevoked(token(userId, CUTOFF))).isTrue();
+    }
+
+    @Test
+    void tokenIssuedLaterInTheSameSecondAsTheCutoffIsAccepted() {
+        // e.g. a password change followed by a fresh login within the same second
+        index.revokeUser(userId, CUTOFF.toEpochMilli());
+
+        assertThat(index.isRevoked(token(userId, CUTOFF.plusMillis(1)))).isFalse();
+        assertThat(index.isRevoked(token(userId, CUTOFF.plusMillis(499)))).isFalse();
+    }
+
+    @Test
+    void legacyTokensWithWholeSecondIssueTimesAreRejectedWithinTheCutoffSecond() {
+        index.revokeUser(userId, CUTOFF.toEpochMilli());
+        // Without iat_ms the issue time is the start of the second, which is not after the cutoff.
+        Instant legacyIssuedAt = Instant.ofEpochSecond(CUTOFF.getEpochSecond());
+
+        assertThat(index.isRevoked(token(userId, legacyIssuedAt))).isTrue();
+        assertThat(index.isRevoked(token(userId, legacyIssuedAt.plusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void cutoffsOnlyMoveForwardAndOnlyAffectTheirUser() {
+        index.revokeUser(userId, CUTOFF.toEpochMilli());
+        index.revokeUser(userId, CUTOFF.minusSeconds(60).toEpochMilli());
+
+        assertThat(index.isRevoked(token(userId, CUTOFF))).isTrue();
+        assertThat(index.isRevoked(token(UUID.randomUUID(), CUTOFF.minusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void revokedTokenAndSessionIdsAreRejected() {
+        long expiresAt = CUTOFF.plusSeconds(900).getEpochSecond();
+        JwtClaims revokedToken = token(userId, CUTOFF);
+        JwtClaims revokedSession = token(userId, CUTOFF, "session-1");
+
+        index.revokeId(revokedToken.tokenId(), expiresAt);
+        index.revokeId("session-1", expiresAt);
+
+        assertThat(index.isRevoked(revokedToken)).isTrue();
+        assertThat(index.isRevoked(revokedSession)).isTrue();
+        assertThat(index.isRevoked(token(userId, CUTOFF))).isFalse();
+        assertThat(index.isRevoked(token(userId, CUTOFF, "session-2"))).isFalse();
+    }
+
+    @Test
+    void keepsEveryRevokedIdWhenTheFilterIsRebuilt() {
+        RevocationIndex small = new RevocationIndex(16, 0.01, Duration.ofMinutes(15));
+        long expiresAt = CUTOFF.plusSeconds(900).getEpochSecond();
+        JwtClaims[] revoked = new JwtClaims[200];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = token(userId, CUTOFF);
+            small.revokeId(revoked[i].tokenId(), expiresAt);
+        }
+
+        for (JwtClaims claims : revoked) {
+            assertThat(small.isRevoked(claims)).isTrue();
+        }
+        assertThat(small.revokedIdCount()).isEqualTo(revoked.length);
+    }
+
+    @Test
+    void sweepDropsOnlyEntriesThatCanNoLongerMatch() {
+        long now = CUTOFF.getEpochSecond();
+        JwtClaims expired = token(userId, CUTOFF);
+        JwtClaims live = token(userId, CUTOFF);
+        index.revokeId(expired.tokenId(), now - 1);
+        index.revokeId(live.tokenId(), now + 60);
+        UUID oldUser = UUID.randomUUID();
+        index.revokeUser(oldUser, CUTOFF.minus(Duration.ofMinutes(16)).toEpochMilli());
+        index.revokeUser(userId, CUTOFF.minus(Duration.ofMinutes(14)).toEpochMilli());
+
+        assertThat(index.sweep(now)).isEqualTo(2);
+
+        assertThat(index.revokedIdCount()).isEqualTo(1);
+        assertThat(index.userCutoffCount()).isEqualTo(1);
+        assertThat(index.isRevoked(live)).isTrue();
+        assertThat(index.isRevoked(expired)).isFalse();
+        assertThat(index.isRevoked(token(userId, CUTOFF.minus(Duration.ofMinutes(15))))).isTrue();
+    }
+
+    private static JwtClaims token(UUID userId, Instant issuedAt) {
+        return token(userId, issuedAt, null);
+    }
+
+    private static JwtClaims token(UUID userId, Instant issuedAt, String sessionId) {
+        return new JwtClaims(userId, "alice", UserRoleEnum.USER, UUID.randomUUID().toString(), sessionId,
+                "k1", issuedAt, issuedAt.plus(Duration.ofMinutes(15)));
+    }
+}
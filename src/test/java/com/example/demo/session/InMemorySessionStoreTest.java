@@ -0,0 +1,154 @@
+package com.example.demo.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySessionStoreTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private InMemorySessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySessionStore(4, Duration.ofSeconds(1), clock, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void findsAndListsSessionsPerUserNewestFirst() {
+        DeviceSession older = session("s1", alice, Duration.ofMinutes(10));
+        clock.advance(Duration.ofSeconds(1));
+        DeviceSession newer = session("s2", alice, Duration.ofMinutes(10));
+        DeviceSession other = session("s3", bob, Duration.ofMinutes(10));
+        store.save(older);
+        store.save(newer);
+        store.save(other);
+
+        assertThat(store.find(alice, "s1")).contains(older);
+        assertThat(store.find(bob, "s1")).isEmpty();
+        assertThat(store.listByUser(alice)).containsExactly(newer, older);
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void revokesOneOrAllSessionsOfAUser() {
+        store.save(session("s1", alice, Duration.ofMinutes(10)));
+        store.save(session("s2", alice, Duration.ofMinutes(10)));
+        store.save(session("s3", bob, Duration.ofMinutes(10)));
+
+        assertThat(store.revoke(alice, "s1")).isTrue();
+        assertThat(store.revoke(alice, "s1")).isFalse();
+        assertThat(store.revokeAll(alice)).isEqualTo(1);
+        assertThat(store.revokeAll(alice)).isEqualTo(0);
+        assertThat(store.listByUser(bob)).hasSize(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresSessionsOnceTheirDeadlinePasses() {
+        store.save(session("short", alice, Duration.ofSeconds(5)));
+        store.save(session("long", alice, Duration.ofMinutes(5)));
+
+        clock.advance(Duration.ofSeconds(4));
+        store.expire();
+        assertThat(store.size()).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(1));
+        store.expire();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.find(alice, "short")).isEmpty();
+        assertThat(store.find(alice, "long")).isPresent();
+    }
+
+    @Test
+    void hidesExpiredSessionsBeforeTheWheelCatchesUp() {
+        store.save(session("s1", alice, Duration.ofSeconds(5)));
+
+        clock.advance(Duration.ofSeconds(5));
+
+        assertThat(store.find(alice, "s1")).isEmpty();
+        assertThat(store.listByUser(alice)).isEmpty();
+    }
+
+    @Test
+    void expiryIgnoresRevokedSessions() {
+        store.save(session("s1", alice, Duration.ofSeconds(5)));
+        store.revoke(alice, "s1");
+
+        clock.advance(Duration.ofSeconds(10));
+        store.expire();
+
+        assertThat(store.size()).isEqualTo(0);
+    }
+
+    @Test
+    void expiryIgnoresSessionsThatWereReplaced() {
+        store.save(session("s1", alice, Duration.ofSeconds(5)));
+        // Same id saved again with a later expiry, e.g. a refreshed session.
+        DeviceSession extended = session("s1", alice, Duration.ofMinutes(5));
+        store.save(extended);
+
+        clock.advance(Duration.ofSeconds(10));
+        store.expire();
+
+        assertThat(store.find(alice, "s1")).contains(extended);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiryIgnoresASessionRevokedAndSavedAgain() {
+        store.save(session("s1", alice, Duration.ofSeconds(5)));
+        store.revoke(alice, "s1");
+        DeviceSession reopened = session("s1", alice, Duration.ofMinutes(5));
+        store.save(reopened);
+
+        clock.advance(Duration.ofSeconds(10));
+        store.expire();
+
+        assertThat(store.find(alice, "s1")).contains(reopened);
+    }
+
+    private DeviceSession session(String sessionId, UUID userId, Duration ttl) {
+        Instant now = clock.instant();
+        return new DeviceSession(sessionId, userId, "test-agent", "127.0.0.1", now, now.plus(ttl));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}